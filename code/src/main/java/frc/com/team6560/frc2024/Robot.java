@@ -1,23 +1,39 @@
 package frc.com.team6560.frc2024;
 
-import edu.wpi.first.wpilibj.TimedRobot;
+import org.littletonrobotics.junction.LogFileUtil;
+import org.littletonrobotics.junction.LoggedRobot;
+import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.NT4Publisher;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
+import org.littletonrobotics.junction.wpilog.WPILOGWriter;
+
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.com.team6560.lib.hardware.CanBusMonitor;
+import frc.com.team6560.lib.hardware.DeviceInitializer;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
- * each mode, as described in the TimedRobot documentation. If you change the name of this class or
+ * each mode, as described in the TimedRobot documentation. Inputs and outputs are logged with AdvantageKit. If you change the name of this class or
  * the package after creating this project, you must also update the build.gradle file in the
  * project.
  */
-public class Robot extends TimedRobot {
+public class Robot extends LoggedRobot {
+  private static final double DEVICE_INIT_TIMEOUT_SECONDS = 5.0;
+  // Set to true to replay the log chosen by AdvantageScope in simulation instead of simulating.
+  private static final boolean REPLAY = false;
+
   private Command m_autonomousCommand;
 
   private RobotContainer m_robotContainer;
 
   @Override
   public void robotInit() {
+    startLogger(); // must start before subsystems are created so that their inputs are logged from the first loop
     m_robotContainer = new RobotContainer(); // binds buttons and shows auto chooser
+    DeviceInitializer.getInstance().awaitAll(DEVICE_INIT_TIMEOUT_SECONDS); // waits for device configuration started by subsystems
+    CanBusMonitor.getInstance().printReport(); // prints projected CAN bus load of registered devices
   }
 
   @Override
@@ -25,6 +41,24 @@ public class Robot extends TimedRobot {
     CommandScheduler.getInstance().run();
   }
 
+  private void startLogger() {
+    Logger.recordMetadata("ProjectName", "ChargerLib");
+
+    if (RobotBase.isReal()) {
+      Logger.addDataReceiver(new WPILOGWriter()); // logs to USB stick, or /home/lvuser/logs without one
+      Logger.addDataReceiver(new NT4Publisher());
+    } else if (REPLAY) {
+      setUseTiming(false); // replays as fast as possible
+      String logPath = LogFileUtil.findReplayLog();
+      Logger.setReplaySource(new WPILOGReader(logPath));
+      Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim")));
+    } else {
+      Logger.addDataReceiver(new NT4Publisher());
+    }
+
+    Logger.start();
+  }
+
   // Disabled mode
 
   @Override
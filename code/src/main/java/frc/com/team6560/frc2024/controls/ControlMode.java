@@ -2,13 +2,26 @@ package frc.com.team6560.frc2024.controls;
 
 import java.util.Optional;
 
+import frc.com.team6560.lib.util.NetworkTable.TelemetryLevel;
+import frc.com.team6560.lib.util.NetworkTable.TelemetryPublisher;
+
 public class ControlMode {
     private static Optional<ControlMode> instance = Optional.empty();
    
     public enum Mode {
-        NOT_SPECIFIED,
-        COMPETITION,
-        TESTING
+        NOT_SPECIFIED(TelemetryLevel.DEBUG),
+        COMPETITION(TelemetryLevel.COMPETITION),
+        TESTING(TelemetryLevel.DEBUG);
+
+        private final TelemetryLevel telemetryLevel;
+
+        Mode(TelemetryLevel telemetryLevel) {
+            this.telemetryLevel = telemetryLevel;
+        }
+
+        public TelemetryLevel getTelemetryLevel() {
+            return telemetryLevel;
+        }
     }
 
     private Mode mode = Mode.NOT_SPECIFIED;
@@ -24,7 +37,12 @@ public class ControlMode {
         return mode;
     }
 
+    /**
+     * Set control mode, along with the telemetry level for that mode.
+     * The telemetry level can still be changed afterwards from the dashboard.
+     */
     public void setMode(Mode mode) {
         this.mode = mode;
+        TelemetryPublisher.getInstance().setLevel(mode.getTelemetryLevel());
     }
 }
@@ -31,7 +31,8 @@ public class Intake extends BasicRollerSubsystem {
                     .withCurrentLimit(INTAKE_CURRENT_LIMIT)
                     .withOpenLoopRampConfig(OPEN_LOOP_RAMP_TIME)
                     .withBrakeMode()
-                    .withReversedMotor(),
+                    .withReversedMotor()
+                    .build(),
                 INTAKE_FEED_RATE,
                 INTAKE_REVERSE_RATE,
                 MotorMode.DUTY_CYCLE
@@ -43,7 +44,8 @@ public class Intake extends BasicRollerSubsystem {
                     .withCurrentLimit(TRANSFER_CURRENT_LIMIT)
                     .withOpenLoopRampConfig(OPEN_LOOP_RAMP_TIME)
                     .withBrakeMode()
-                    .withReversedMotor(),
+                    .withReversedMotor()
+                    .build(),
                 TRANSFER_FEED_RATE,
                 TRANSFER_REVERSE_RATE,
                 MotorMode.DUTY_CYCLE
@@ -22,7 +22,8 @@ public class Shooter extends BasicRollerSubsystem {
             new RollerSubsystemMotor(
                 new TalonFXMotor(15)
                 .withCurrentLimit(MOTOR_CURRENT_LIMIT)
-                .withPIDProfile(kP, kI, kD),
+                .withPIDProfile(kP, kI, kD)
+                .build(),
                 MOTOR_TARGET_VELOCITY,
                 MOTOR_REVERSE_TARGET_VELOCITY,
                 MotorMode.VELOCITY
@@ -33,7 +34,8 @@ public class Shooter extends BasicRollerSubsystem {
                 new TalonFXMotor(16)
                 .withCurrentLimit(MOTOR_CURRENT_LIMIT)
                 .withPIDProfile(kP, kI, kD)
-                .withReversedMotor(),
+                .withReversedMotor()
+                .build(),
                 MOTOR_TARGET_VELOCITY,
                 MOTOR_REVERSE_TARGET_VELOCITY,
                 MotorMode.VELOCITY
@@ -43,7 +45,8 @@ public class Shooter extends BasicRollerSubsystem {
             new RollerSubsystemMotor(
                 new TalonFXMotor(17)
                 .withCurrentLimit(MOTOR_CURRENT_LIMIT)
-                .withPIDProfile(kP, kI, kD),
+                .withPIDProfile(kP, kI, kD)
+                .build(),
                 MOTOR_TARGET_VELOCITY,
                 MOTOR_REVERSE_TARGET_VELOCITY,
                 MotorMode.VELOCITY
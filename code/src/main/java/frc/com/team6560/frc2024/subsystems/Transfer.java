@@ -19,7 +19,8 @@ public class Transfer extends BasicRollerSubsystem {
                 new SparkMaxMotor(20)
                 .withCurrentLimit(CURRENT_LIMIT)
                 .withOpenLoopRampConfig(OPEN_LOOP_RAMP_TIME)
-                .withBrakeMode(),
+                .withBrakeMode()
+                .build(),
                 FEED_RATE,
                 REVERSE_RATE,
                 MotorMode.DUTY_CYCLE
@@ -0,0 +1,243 @@
+package frc.com.team6560.lib.auto;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.util.HolonomicPathFollowerConfig;
+import com.pathplanner.lib.util.PIDConstants;
+import com.pathplanner.lib.util.ReplanningConfig;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+import frc.com.team6560.lib.subsystems.drivetrain.GenericPoseEstimator;
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve;
+import frc.com.team6560.lib.subsystems.drivetrain.ModuleForceEstimator;
+
+/**
+ * Configures PathPlanner holonomic path following for a GenericSwerve and preloads every PathPlanner path,
+ * PathPlanner auto and Choreo trajectory in the deploy directory.
+ * Files are loaded one per loop while the robot is disabled, so that selecting and starting an auto never pays
+ * file parsing or command construction cost, and loading never delays an enabled loop.
+ * Named commands must be registered with PathPlanner's NamedCommands before autos are loaded.
+ */
+public class AutoRoutineCache {
+
+    private static final String PATH_DIRECTORY = "pathplanner/paths";
+    private static final String AUTO_DIRECTORY = "pathplanner/autos";
+    private static final String CHOREO_DIRECTORY = "choreo";
+
+    private final Map<String, PathPlannerPath> paths;
+    private final Map<String, PathPlannerPath> choreoTrajectories;
+    private final Map<String, Command> autos;
+    private final Queue<Runnable> pendingLoads;
+
+    private final SendableChooser<Command> autoChooser;
+
+    /**
+     * Configure path following and start preloading.
+     * @param swerve Drivetrain to follow paths with.
+     * @param poseEstimator Pose estimator providing robot pose.
+     * @param translationConstants PID constants for correcting translation error.
+     * @param rotationConstants PID constants for correcting rotation error.
+     */
+    public AutoRoutineCache(GenericSwerve swerve, GenericPoseEstimator poseEstimator, PIDConstants translationConstants, PIDConstants rotationConstants) {
+        this(swerve, poseEstimator, translationConstants, rotationConstants, swerve::drive);
+    }
+
+    /**
+     * Configure path following with module force feedforward and start preloading.
+     * Module forces are estimated from the accelerations of the followed trajectory, so that the drivetrain keeps up
+     * on high-acceleration segments.
+     * @param swerve Drivetrain to follow paths with.
+     * @param poseEstimator Pose estimator providing robot pose.
+     * @param translationConstants PID constants for correcting translation error.
+     * @param rotationConstants PID constants for correcting rotation error.
+     * @param robotMassKg Mass of robot including bumpers and battery, in kilograms.
+     */
+    public AutoRoutineCache(GenericSwerve swerve, GenericPoseEstimator poseEstimator, PIDConstants translationConstants, PIDConstants rotationConstants, double robotMassKg) {
+        this(swerve, poseEstimator, translationConstants, rotationConstants, new ModuleForceEstimator(swerve, robotMassKg)::drive);
+    }
+
+    private AutoRoutineCache(GenericSwerve swerve, GenericPoseEstimator poseEstimator, PIDConstants translationConstants, PIDConstants rotationConstants, Consumer<ChassisSpeeds> output) {
+        AutoBuilder.configureHolonomic(
+            poseEstimator::getPose,
+            poseEstimator::resetGlobalPose,
+            swerve::getChassisSpeeds,
+            output,
+            new HolonomicPathFollowerConfig(
+                translationConstants,
+                rotationConstants,
+                swerve.getMaxVelocity(),
+                swerve.getDriveBaseRadius(),
+                new ReplanningConfig()
+            ),
+            // Paths are drawn for the blue alliance.
+            () -> DriverStation.getAlliance().map(alliance -> alliance == Alliance.Red).orElse(false),
+            swerve
+        );
+
+        this.paths = new HashMap<>();
+        this.choreoTrajectories = new HashMap<>();
+        this.autos = new HashMap<>();
+        this.pendingLoads = new ArrayDeque<>();
+
+        this.autoChooser = new SendableChooser<>();
+        autoChooser.setDefaultOption("None", Commands.none());
+        SmartDashboard.putData("Auto Chooser", autoChooser);
+
+        // Paths are loaded before autos, since autos are built from them.
+        for (String name : listFiles(PATH_DIRECTORY, ".path")) {
+            pendingLoads.add(() -> paths.put(name, warmUp(PathPlannerPath.fromPathFile(name))));
+        }
+        for (String name : listFiles(CHOREO_DIRECTORY, ".traj")) {
+            pendingLoads.add(() -> choreoTrajectories.put(name, PathPlannerPath.fromChoreoTrajectory(name)));
+        }
+        for (String name : listFiles(AUTO_DIRECTORY, ".auto")) {
+            pendingLoads.add(() -> {
+                Command auto = AutoBuilder.buildAuto(name);
+                autos.put(name, auto);
+                autoChooser.addOption(name, auto);
+            });
+        }
+
+        CommandScheduler.getInstance().registerSubsystem(
+            new Subsystem() {
+                @Override
+                public void periodic() {
+                    if (DriverStation.isDisabled()) {
+                        loadNext();
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Get names of files with a given extension in a deploy subdirectory, without the extension.
+     * @param directory Subdirectory of deploy directory.
+     * @param extension File extension including the dot.
+     * @return Sorted file names.
+     */
+    private static String[] listFiles(String directory, String extension) {
+        File[] files = new File(Filesystem.getDeployDirectory(), directory).listFiles((dir, name) -> name.endsWith(extension));
+        if (files == null) {
+            return new String[0];
+        }
+        String[] names = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            String fileName = files[i].getName();
+            names[i] = fileName.substring(0, fileName.length() - extension.length());
+        }
+        Arrays.sort(names);
+        return names;
+    }
+
+    /**
+     * Generate a trajectory for a path once, so that trajectory generation code is loaded and compiled before it is
+     * first needed while enabled.
+     * @param path Path to warm up.
+     * @return The same path.
+     */
+    private static PathPlannerPath warmUp(PathPlannerPath path) {
+        path.getTrajectory(new ChassisSpeeds(), path.getPreviewStartingHolonomicPose().getRotation());
+        return path;
+    }
+
+    /**
+     * Load the next pending file, reporting an error if it cannot be loaded.
+     */
+    private void loadNext() {
+        Runnable load = pendingLoads.poll();
+        if (load == null) {
+            return;
+        }
+        try {
+            load.run();
+        } catch (RuntimeException e) {
+            DriverStation.reportError("Failed to preload auto file: " + e.getMessage(), e.getStackTrace());
+        }
+    }
+
+    /**
+     * Load all pending files immediately. Blocks until finished, so should only be called during initialization.
+     */
+    public void loadAll() {
+        while (!pendingLoads.isEmpty()) {
+            loadNext();
+        }
+    }
+
+    /**
+     * Check whether all files have been loaded.
+     * @return True if nothing is pending.
+     */
+    public boolean isLoaded() {
+        return pendingLoads.isEmpty();
+    }
+
+    /**
+     * Get auto selected on the dashboard chooser.
+     * @return Selected auto command.
+     */
+    public Command getSelectedAuto() {
+        return autoChooser.getSelected();
+    }
+
+    /**
+     * Get a preloaded PathPlanner auto.
+     * @param name Auto file name without extension.
+     * @return Auto command.
+     * @throws IllegalArgumentException If the auto has not been loaded.
+     */
+    public Command getAuto(String name) throws IllegalArgumentException {
+        Command auto = autos.get(name);
+        if (auto == null) {
+            throw new IllegalArgumentException("Auto " + name + " has not been loaded.");
+        }
+        return auto;
+    }
+
+    /**
+     * Get command following a preloaded PathPlanner path.
+     * @param name Path file name without extension.
+     * @return Path following command.
+     * @throws IllegalArgumentException If the path has not been loaded.
+     */
+    public Command followPath(String name) throws IllegalArgumentException {
+        PathPlannerPath path = paths.get(name);
+        if (path == null) {
+            throw new IllegalArgumentException("Path " + name + " has not been loaded.");
+        }
+        return AutoBuilder.followPath(path);
+    }
+
+    /**
+     * Get command following a preloaded Choreo trajectory.
+     * @param name Trajectory file name without extension.
+     * @return Trajectory following command.
+     * @throws IllegalArgumentException If the trajectory has not been loaded.
+     */
+    public Command followChoreoTrajectory(String name) throws IllegalArgumentException {
+        PathPlannerPath trajectory = choreoTrajectories.get(name);
+        if (trajectory == null) {
+            throw new IllegalArgumentException("Choreo trajectory " + name + " has not been loaded.");
+        }
+        return AutoBuilder.followPath(trajectory);
+    }
+}
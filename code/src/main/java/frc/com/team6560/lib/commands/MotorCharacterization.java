@@ -0,0 +1,242 @@
+package frc.com.team6560.lib.commands;
+
+import static edu.wpi.first.units.MutableMeasure.mutable;
+import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.Volts;
+
+import edu.wpi.first.units.Angle;
+import edu.wpi.first.units.MutableMeasure;
+import edu.wpi.first.units.Velocity;
+import edu.wpi.first.units.Voltage;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import frc.com.team6560.lib.hardware.motors.MotorIO;
+import frc.com.team6560.lib.hardware.motors.MotorInputs;
+import frc.com.team6560.lib.hardware.motors.RollerSubsystemMotor;
+import frc.com.team6560.lib.subsystems.roller.BasicRollerSubsystem;
+import frc.com.team6560.lib.util.FeedforwardFitter;
+
+/**
+ * Characterization routine which runs quasistatic and dynamic voltage tests on one or more motors, logs voltage,
+ * position and velocity to a WPILOG for the SysId tool, and fits feedforward gains for each motor on the robot.
+ * Fitted kV and kA are in volts per RPM and volts per RPM per second, the units used by the motor wrappers' withFeedforward().
+ * Works the same with simulated motors, so routines can be tried out off-robot.
+ */
+public class MotorCharacterization {
+
+    // Samples slower than this are ignored by the fit, since static friction dominates before the mechanism moves.
+    private static final double MIN_FIT_VELOCITY_RPM = 10.0;
+    private static final double SETTLE_SECONDS = 2.0;
+
+    private final String name;
+    private final List<MotorIO> motors;
+    private final FeedforwardFitter[] fitters;
+    private final SysIdRoutine routine;
+
+    // Previous sample of each motor in the current test, for estimating acceleration.
+    private final double[] previousVelocities;
+    private final double[] previousTimestamps;
+    private final boolean[] hasPreviousSample;
+
+    private final MutableMeasure<Voltage> appliedVoltage = mutable(Volts.of(0.0));
+    private final MutableMeasure<Angle> position = mutable(Rotations.of(0.0));
+    private final MutableMeasure<Velocity<Angle>> velocity = mutable(RotationsPerSecond.of(0.0));
+
+    /**
+     * Initialize characterization of a motor that does not belong to a subsystem.
+     * Creates a subsystem which updates the motor's inputs every loop.
+     * @param name Name used in logs and results.
+     * @param motor Motor to characterize.
+     */
+    public MotorCharacterization(String name, MotorIO motor) {
+        this(name, new SubsystemBase() {
+            @Override
+            public void periodic() {
+                motor.updateInputs();
+            }
+        }, List.of(motor), new SysIdRoutine.Config());
+    }
+
+    /**
+     * Initialize characterization of motors belonging to a subsystem, using default ramp rate, step voltage and timeout.
+     * The subsystem must update the motors' inputs every loop.
+     * @param name Name used in logs and results.
+     * @param subsystem Subsystem the motors belong to, required while tests run.
+     * @param motors Motors to characterize. All are driven with the same voltage.
+     */
+    public MotorCharacterization(String name, Subsystem subsystem, List<MotorIO> motors) {
+        this(name, subsystem, motors, new SysIdRoutine.Config());
+    }
+
+    /**
+     * Initialize characterization of motors belonging to a subsystem.
+     * The subsystem must update the motors' inputs every loop.
+     * @param name Name used in logs and results.
+     * @param subsystem Subsystem the motors belong to, required while tests run.
+     * @param motors Motors to characterize. All are driven with the same voltage.
+     * @param config Ramp rate, step voltage and timeout of tests.
+     */
+    public MotorCharacterization(String name, Subsystem subsystem, List<MotorIO> motors, SysIdRoutine.Config config) {
+        if (motors.isEmpty()) {
+            throw new IllegalArgumentException("At least one motor is required for characterization");
+        }
+        this.name = name;
+        this.motors = List.copyOf(motors);
+        this.fitters = new FeedforwardFitter[motors.size()];
+        for (int i = 0; i < fitters.length; i++) {
+            fitters[i] = new FeedforwardFitter(MIN_FIT_VELOCITY_RPM);
+        }
+        this.previousVelocities = new double[motors.size()];
+        this.previousTimestamps = new double[motors.size()];
+        this.hasPreviousSample = new boolean[motors.size()];
+
+        this.routine = new SysIdRoutine(
+            config,
+            new SysIdRoutine.Mechanism(
+                volts -> {
+                    for (MotorIO motor : this.motors) {
+                        motor.setVoltage(volts.in(Volts));
+                    }
+                },
+                this::logSamples,
+                subsystem,
+                name
+            )
+        );
+    }
+
+    /**
+     * Create characterization of every motor in a roller subsystem.
+     * @param name Name used in logs and results.
+     * @param subsystem Roller subsystem to characterize.
+     * @return Characterization of subsystem motors.
+     */
+    public static MotorCharacterization forRoller(String name, BasicRollerSubsystem subsystem) {
+        List<MotorIO> motors = new ArrayList<>();
+        for (RollerSubsystemMotor motor : subsystem.getMotors()) {
+            motors.add(motor.getMotor());
+        }
+        return new MotorCharacterization(name, subsystem, motors);
+    }
+
+    /**
+     * Log a sample of every motor and add it to the fit.
+     * @param log SysId log to record samples in.
+     */
+    private void logSamples(SysIdRoutineLog log) {
+        for (int i = 0; i < motors.size(); i++) {
+            MotorInputs inputs = motors.get(i).getInputs();
+            log.motor(name + " Motor " + i)
+                .voltage(appliedVoltage.mut_replace(inputs.appliedVolts, Volts))
+                .angularPosition(position.mut_replace(inputs.positionRotations, Rotations))
+                .angularVelocity(velocity.mut_replace(inputs.velocityRPM / 60.0, RotationsPerSecond));
+
+            double dt = inputs.timestampSeconds - previousTimestamps[i];
+            if (hasPreviousSample[i] && dt > 0.0) {
+                double acceleration = (inputs.velocityRPM - previousVelocities[i]) / dt;
+                fitters[i].addSample(inputs.appliedVolts, inputs.velocityRPM, acceleration);
+            }
+            previousVelocities[i] = inputs.velocityRPM;
+            previousTimestamps[i] = inputs.timestampSeconds;
+            hasPreviousSample[i] = true;
+        }
+    }
+
+    /**
+     * Start a new test, so that acceleration is not estimated across tests.
+     */
+    private void startTest() {
+        for (int i = 0; i < hasPreviousSample.length; i++) {
+            hasPreviousSample[i] = false;
+        }
+    }
+
+    /**
+     * Get command which ramps voltage slowly, so that velocity dominates the measured voltage.
+     * @param direction Direction to run motors in.
+     * @return Quasistatic test command.
+     */
+    public Command quasistatic(Direction direction) {
+        return routine.quasistatic(direction).beforeStarting(this::startTest);
+    }
+
+    /**
+     * Get command which applies a voltage step, so that acceleration dominates the measured voltage.
+     * @param direction Direction to run motors in.
+     * @return Dynamic test command.
+     */
+    public Command dynamic(Direction direction) {
+        return routine.dynamic(direction).beforeStarting(this::startTest);
+    }
+
+    /**
+     * Get command which runs all four tests with pauses between them, then fits and prints feedforward gains.
+     * Only suitable for mechanisms that can spin freely for the duration of each test, such as rollers and flywheels.
+     * @return Full characterization command.
+     */
+    public Command fullRoutine() {
+        return Commands.sequence(
+            Commands.runOnce(this::reset),
+            quasistatic(Direction.kForward),
+            Commands.waitSeconds(SETTLE_SECONDS),
+            quasistatic(Direction.kReverse),
+            Commands.waitSeconds(SETTLE_SECONDS),
+            dynamic(Direction.kForward),
+            Commands.waitSeconds(SETTLE_SECONDS),
+            dynamic(Direction.kReverse),
+            Commands.runOnce(this::printResults)
+        ).withName(name + " Characterization");
+    }
+
+    /**
+     * Remove all samples collected so far.
+     */
+    public void reset() {
+        for (FeedforwardFitter fitter : fitters) {
+            fitter.reset();
+        }
+    }
+
+    /**
+     * Get fitter holding the samples of a motor. Call fit() on it before reading gains.
+     * @param index Index of motor in the order given.
+     * @return Feedforward fitter.
+     */
+    public FeedforwardFitter getFitter(int index) {
+        return fitters[index];
+    }
+
+    /**
+     * Fit and print feedforward gains of each motor.
+     */
+    public void printResults() {
+        StringBuilder report = new StringBuilder(name + " characterization:\n");
+        for (int i = 0; i < fitters.length; i++) {
+            try {
+                fitters[i].fit();
+                report.append(String.format(
+                    "  Motor %d: kS = %.4f V, kV = %.6f V/RPM, kA = %.6f V/(RPM/s), R^2 = %.4f (%d samples)\n",
+                    i,
+                    fitters[i].getKS(),
+                    fitters[i].getKV(),
+                    fitters[i].getKA(),
+                    fitters[i].getRSquared(),
+                    fitters[i].getSampleCount()
+                ));
+            } catch (IllegalStateException e) {
+                report.append(String.format("  Motor %d: %s\n", i, e.getMessage()));
+            }
+        }
+        System.out.print(report);
+    }
+}
@@ -0,0 +1,184 @@
+package frc.com.team6560.lib.commands;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+
+import frc.com.team6560.lib.hardware.sensors.SimGyro;
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve;
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve.SwerveModuleIndex;
+
+/**
+ * Characterization routines for measuring the effective wheel diameter and the drive current at which wheels slip.
+ * Results are printed as SwerveConfig builder calls, so they can be copied into the drivetrain config.
+ * Failures are reported to the Driver Station.
+ */
+public class SwerveCharacterization {
+
+    private static final double WHEEL_DIAMETER_ANGULAR_VELOCITY = 1.0; // rad/s
+    private static final double WHEEL_DIAMETER_ANGULAR_ACCELERATION = 0.5; // rad/s^2
+    private static final double WHEEL_DIAMETER_TIMEOUT_SECONDS = 15.0;
+
+    private static final double SLIP_VOLTAGE_RAMP_RATE = 0.5; // V/s
+    private static final double SLIP_MAX_VOLTAGE = 6.0;
+    private static final double SLIP_VELOCITY_THRESHOLD = 0.15; // m/s
+
+    private final GenericSwerve swerve;
+
+    private final SlewRateLimiter angularVelocityLimiter;
+    private final double[] startDistances;
+    private double lastYaw;
+    private double gyroRotation;
+    private double measuredWheelDiameter;
+
+    private double slipVoltage;
+    private double measuredSlipCurrent;
+
+    /**
+     * Initialize characterization of a drivetrain.
+     * @param swerve Drivetrain to characterize.
+     */
+    public SwerveCharacterization(GenericSwerve swerve) {
+        this.swerve = swerve;
+        this.angularVelocityLimiter = new SlewRateLimiter(WHEEL_DIAMETER_ANGULAR_ACCELERATION);
+        this.startDistances = new double[swerve.getModulePositions().length];
+        this.measuredWheelDiameter = Double.NaN;
+        this.measuredSlipCurrent = Double.NaN;
+    }
+
+    /**
+     * Get command which spins the robot in place and compares gyro rotation with distance driven by each module.
+     * The robot needs about a meter of clear space around it. Runs until two full turns or a timeout.
+     * Without a real gyro, yaw is integrated from module states and would only reproduce the configured diameter,
+     * so the command reports an error and does nothing.
+     * @return Wheel diameter characterization command.
+     */
+    public Command wheelDiameter() {
+        if (swerve.getGyro() instanceof SimGyro) {
+            return Commands.runOnce(() -> DriverStation.reportError(
+                "Wheel diameter characterization needs a real gyro: yaw estimated from module states only measures the configured diameter.",
+                false
+            ))
+            .withName("Wheel Diameter Characterization");
+        }
+        return Commands.sequence(
+            Commands.runOnce(this::startWheelDiameter),
+            Commands.run(() -> {
+                swerve.drive(new ChassisSpeeds(0.0, 0.0, angularVelocityLimiter.calculate(WHEEL_DIAMETER_ANGULAR_VELOCITY)));
+                double yaw = swerve.getYawRadians();
+                gyroRotation += MathUtil.angleModulus(yaw - lastYaw);
+                lastYaw = yaw;
+            }, swerve)
+            .until(() -> Math.abs(gyroRotation) >= 4.0 * Math.PI)
+            .withTimeout(WHEEL_DIAMETER_TIMEOUT_SECONDS)
+        )
+        .finallyDo(this::finishWheelDiameter)
+        .withName("Wheel Diameter Characterization");
+    }
+
+    private void startWheelDiameter() {
+        angularVelocityLimiter.reset(0.0);
+        SwerveModulePosition[] positions = swerve.getModulePositions();
+        for (int i = 0; i < startDistances.length; i++) {
+            startDistances[i] = positions[i].distanceMeters;
+        }
+        lastYaw = swerve.getYawRadians();
+        gyroRotation = 0.0;
+    }
+
+    private void finishWheelDiameter() {
+        swerve.stopModules();
+        SwerveModulePosition[] positions = swerve.getModulePositions();
+        double averageDistance = 0.0;
+        for (int i = 0; i < startDistances.length; i++) {
+            averageDistance += Math.abs(positions[i].distanceMeters - startDistances[i]) / startDistances.length;
+        }
+        if (averageDistance < 1.0E-3) {
+            DriverStation.reportError("Wheel diameter characterization failed: modules did not move.", false);
+            return;
+        }
+        // Module distances assume the configured diameter; the gyro gives the arc the wheels actually travelled.
+        double arcLength = Math.abs(gyroRotation) * swerve.getDriveBaseRadius();
+        measuredWheelDiameter = swerve.getWheelDiameter() * arcLength / averageDistance;
+        System.out.printf(
+            "Wheel diameter characterization: %.1f deg of rotation, measured diameter %.5f m (configured %.5f m). Use setWheelDiameter(%.5f).\n",
+            Math.toDegrees(gyroRotation),
+            measuredWheelDiameter,
+            swerve.getWheelDiameter(),
+            measuredWheelDiameter
+        );
+    }
+
+    /**
+     * Get command which slowly ramps drive voltage with the robot pushed against a wall, and records the drive
+     * current at which the wheels start to slip.
+     * @return Slip current characterization command.
+     */
+    public Command slipCurrent() {
+        return Commands.sequence(
+            Commands.runOnce(() -> {
+                slipVoltage = 0.0;
+                measuredSlipCurrent = Double.NaN;
+            }),
+            Commands.run(() -> {
+                slipVoltage += SLIP_VOLTAGE_RAMP_RATE * TimedRobot.kDefaultPeriod;
+                swerve.setDriveVoltage(slipVoltage);
+            }, swerve)
+            .until(() -> isSlipping() || slipVoltage >= SLIP_MAX_VOLTAGE)
+        )
+        .finallyDo(this::finishSlipCurrent)
+        .withName("Slip Current Characterization");
+    }
+
+    private boolean isSlipping() {
+        double averageVelocity = 0.0;
+        SwerveModuleState[] states = swerve.getModuleStates();
+        for (SwerveModuleState state : states) {
+            averageVelocity += Math.abs(state.speedMetersPerSecond) / states.length;
+        }
+        if (averageVelocity < SLIP_VELOCITY_THRESHOLD) {
+            return false;
+        }
+        measuredSlipCurrent = 0.0;
+        for (SwerveModuleIndex index : SwerveModuleIndex.values()) {
+            measuredSlipCurrent += Math.abs(swerve.getDriveCurrentAmps(index)) / SwerveModuleIndex.values().length;
+        }
+        return true;
+    }
+
+    private void finishSlipCurrent() {
+        swerve.stopModules();
+        if (Double.isNaN(measuredSlipCurrent)) {
+            DriverStation.reportWarning(String.format("Slip current characterization failed: wheels did not slip by %.1f V.", slipVoltage), false);
+            return;
+        }
+        System.out.printf(
+            "Slip current characterization: wheels slipped at %.1f A (%.2f V). Use setDriveCurrentLimit(%.0f).\n",
+            measuredSlipCurrent,
+            slipVoltage,
+            Math.floor(measuredSlipCurrent)
+        );
+    }
+
+    /**
+     * Get wheel diameter measured by the most recent wheel diameter characterization.
+     * @return Wheel diameter in meters, or NaN if not measured.
+     */
+    public double getMeasuredWheelDiameter() {
+        return measuredWheelDiameter;
+    }
+
+    /**
+     * Get slip current measured by the most recent slip current characterization.
+     * @return Drive current in amps, or NaN if not measured.
+     */
+    public double getMeasuredSlipCurrent() {
+        return measuredSlipCurrent;
+    }
+}
@@ -0,0 +1,262 @@
+package frc.com.team6560.lib.hardware;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+import frc.com.team6560.lib.hardware.motors.MotorIO;
+import frc.com.team6560.lib.time.RobotTime;
+import frc.com.team6560.lib.util.NetworkTable.TelemetryLevel;
+
+import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Service for estimating CAN bus utilization per device and per subsystem.
+ * Status frame rates are estimated from each device's configured signal rates, and control frame rates are measured
+ * from the number of control frames each device has actually sent.
+ * Relies only on values tracked by the wrappers, so the projected load of a robot configuration can be checked in simulation.
+ */
+public class CanBusMonitor {
+    private static Optional<CanBusMonitor> instance = Optional.empty();
+
+    private static final String TAB_NAME = "CAN Bus";
+
+    private static final double BUS_BITS_PER_SECOND = 1.0E6;
+    // Average size of an extended-ID frame with 8 data bytes, including stuff bits and interframe space.
+    private static final double BITS_PER_FRAME = 135.0;
+    public static final double BUS_CAPACITY_FRAMES_PER_SECOND = BUS_BITS_PER_SECOND / BITS_PER_FRAME;
+
+    private static final double UPDATE_PERIOD_SECONDS = 1.0;
+    private static final double DEFAULT_WARNING_THRESHOLD = 0.7;
+    // Utilization must drop this far below the threshold before a new warning is raised.
+    private static final double WARNING_HYSTERESIS = 0.1;
+
+    private final List<Device> devices;
+    private final Map<String, SubsystemBudget> subsystems;
+
+    private double warningThreshold;
+    private boolean overloaded;
+    private double lastUpdateSeconds;
+    private double totalFramesPerSecond;
+
+    /**
+     * Device that has been registered with the monitor.
+     */
+    private static class Device {
+        final String name;
+        final SubsystemBudget subsystem;
+        final DoubleSupplier statusFramesPerSecond;
+        final LongSupplier sentControlFrames;
+        long lastControlFrames;
+        double controlFramesPerSecond;
+
+        Device(String name, SubsystemBudget subsystem, DoubleSupplier statusFramesPerSecond, LongSupplier sentControlFrames) {
+            this.name = name;
+            this.subsystem = subsystem;
+            this.statusFramesPerSecond = statusFramesPerSecond;
+            this.sentControlFrames = sentControlFrames;
+            this.lastControlFrames = sentControlFrames.getAsLong();
+            this.controlFramesPerSecond = 0.0;
+        }
+
+        double getFramesPerSecond() {
+            return statusFramesPerSecond.getAsDouble() + controlFramesPerSecond;
+        }
+    }
+
+    /**
+     * Bus load of all devices registered under a subsystem.
+     */
+    private static class SubsystemBudget {
+        final String name;
+        volatile double framesPerSecond;
+
+        SubsystemBudget(String name) {
+            this.name = name;
+            this.framesPerSecond = 0.0;
+        }
+    }
+
+    private CanBusMonitor() {
+        this.devices = new ArrayList<>();
+        this.subsystems = new LinkedHashMap<>();
+        this.warningThreshold = DEFAULT_WARNING_THRESHOLD;
+        this.overloaded = false;
+        this.lastUpdateSeconds = RobotTime.getTimestampSeconds();
+        this.totalFramesPerSecond = 0.0;
+
+        ntDispTab(TAB_NAME, TelemetryLevel.COMPETITION, 1.0 / UPDATE_PERIOD_SECONDS)
+            .add("Frames per Second", () -> totalFramesPerSecond)
+            .add("Utilization %", () -> toPercent(totalFramesPerSecond));
+
+        CommandScheduler.getInstance().registerSubsystem(
+            new Subsystem() {
+                @Override
+                public void periodic() {
+                    update();
+                }
+            }
+        );
+    }
+
+    public static CanBusMonitor getInstance() {
+        if (instance.isEmpty()) {
+            instance = Optional.of(new CanBusMonitor());
+        }
+        return instance.get();
+    }
+
+    /**
+     * Register a wrapped motor.
+     * @param subsystem Name of subsystem the motor belongs to.
+     * @param name Device name used in reports.
+     * @param motor Motor to account for.
+     */
+    public void register(String subsystem, String name, MotorIO motor) {
+        register(subsystem, name, motor::getEstimatedStatusFramesPerSecond, motor::getSentControlFrames);
+    }
+
+    /**
+     * Register a device.
+     * @param subsystem Name of subsystem the device belongs to.
+     * @param name Device name used in reports.
+     * @param statusFramesPerSecond Supplier of the estimated number of status frames the device sends per second.
+     * @param sentControlFrames Supplier of the total number of control frames sent to the device.
+     */
+    public synchronized void register(String subsystem, String name, DoubleSupplier statusFramesPerSecond, LongSupplier sentControlFrames) {
+        SubsystemBudget budget = subsystems.get(subsystem);
+        if (budget == null) {
+            SubsystemBudget newBudget = new SubsystemBudget(subsystem);
+            ntDispTab(TAB_NAME, TelemetryLevel.DEBUG, 1.0 / UPDATE_PERIOD_SECONDS)
+                .add(subsystem + " Frames per Second", () -> newBudget.framesPerSecond)
+                .add(subsystem + " Utilization %", () -> toPercent(newBudget.framesPerSecond));
+            subsystems.put(subsystem, newBudget);
+            budget = newBudget;
+        }
+        devices.add(new Device(name, budget, statusFramesPerSecond, sentControlFrames));
+        recalculate();
+    }
+
+    /**
+     * Set utilization above which a warning is raised.
+     * @param threshold Fraction of bus capacity in range (0, 1].
+     */
+    public synchronized void setWarningThreshold(double threshold) {
+        if (threshold <= 0.0 || threshold > 1.0) {
+            throw new IllegalArgumentException("Warning threshold must be in range (0, 1]");
+        }
+        this.warningThreshold = threshold;
+    }
+
+    /**
+     * Get projected bus utilization of all registered devices.
+     * @return Fraction of bus capacity.
+     */
+    public synchronized double getProjectedUtilization() {
+        return totalFramesPerSecond / BUS_CAPACITY_FRAMES_PER_SECOND;
+    }
+
+    /**
+     * Get projected frame rate of all devices registered under a subsystem.
+     * @param subsystem Subsystem name.
+     * @return Frames per second, or 0 if no devices are registered under the subsystem.
+     */
+    public synchronized double getSubsystemFramesPerSecond(String subsystem) {
+        SubsystemBudget budget = subsystems.get(subsystem);
+        return (budget == null) ? 0.0 : budget.framesPerSecond;
+    }
+
+    /**
+     * Print projected frame rate of each device and subsystem.
+     */
+    public synchronized void printReport() {
+        recalculate();
+        StringBuilder report = new StringBuilder(
+            String.format("CAN bus report: %.0f frames/s (%.1f%% of capacity)\n", totalFramesPerSecond, toPercent(totalFramesPerSecond))
+        );
+        for (SubsystemBudget budget : subsystems.values()) {
+            report.append(String.format("  %s: %.0f frames/s (%.1f%%)\n", budget.name, budget.framesPerSecond, toPercent(budget.framesPerSecond)));
+            for (Device device : devices) {
+                if (device.subsystem == budget) {
+                    report.append(String.format("    %s: %.0f frames/s\n", device.name, device.getFramesPerSecond()));
+                }
+            }
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * Measure control frame rates and check projected utilization against the warning threshold.
+     */
+    private synchronized void update() {
+        double now = RobotTime.getTimestampSeconds();
+        double elapsed = now - lastUpdateSeconds;
+        if (elapsed < UPDATE_PERIOD_SECONDS) {
+            return;
+        }
+        lastUpdateSeconds = now;
+
+        for (Device device : devices) {
+            long controlFrames = device.sentControlFrames.getAsLong();
+            device.controlFramesPerSecond = (controlFrames - device.lastControlFrames) / elapsed;
+            device.lastControlFrames = controlFrames;
+        }
+        recalculate();
+
+        double utilization = getProjectedUtilization();
+        if (!overloaded && utilization > warningThreshold) {
+            overloaded = true;
+            DriverStation.reportWarning(
+                String.format("CAN bus utilization at %.1f%% (%s)", utilization * 100.0, getLargestSubsystems()),
+                false
+            );
+        } else if (overloaded && utilization < warningThreshold - WARNING_HYSTERESIS) {
+            overloaded = false;
+        }
+    }
+
+    /**
+     * Recalculate frame rate of each subsystem and the bus as a whole.
+     */
+    private void recalculate() {
+        for (SubsystemBudget budget : subsystems.values()) {
+            budget.framesPerSecond = 0.0;
+        }
+        double total = 0.0;
+        for (Device device : devices) {
+            double framesPerSecond = device.getFramesPerSecond();
+            device.subsystem.framesPerSecond += framesPerSecond;
+            total += framesPerSecond;
+        }
+        totalFramesPerSecond = total;
+    }
+
+    /**
+     * Get list of subsystems ordered by frame rate, for warning messages.
+     * @return Subsystem names and frame rates.
+     */
+    private String getLargestSubsystems() {
+        List<SubsystemBudget> sorted = new ArrayList<>(subsystems.values());
+        sorted.sort((a, b) -> Double.compare(b.framesPerSecond, a.framesPerSecond));
+        StringBuilder result = new StringBuilder();
+        for (SubsystemBudget budget : sorted) {
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(String.format("%s %.0f frames/s", budget.name, budget.framesPerSecond));
+        }
+        return result.toString();
+    }
+
+    private static double toPercent(double framesPerSecond) {
+        return framesPerSecond / BUS_CAPACITY_FRAMES_PER_SECOND * 100.0;
+    }
+}
@@ -0,0 +1,40 @@
+package frc.com.team6560.lib.hardware;
+
+/**
+ * Result of applying a configuration to a device, including how long it took.
+ */
+public class ConfigResult {
+    public final String deviceName;
+    public final boolean success;
+    public final int attempts;
+    public final double durationSeconds;
+    public final String status;
+
+    /**
+     * Create a configuration result.
+     * @param deviceName Name of configured device.
+     * @param success True if the configuration was applied.
+     * @param attempts Number of attempts made.
+     * @param durationSeconds Total time spent applying the configuration.
+     * @param status Vendor status of the last attempt.
+     */
+    public ConfigResult(String deviceName, boolean success, int attempts, double durationSeconds, String status) {
+        this.deviceName = deviceName;
+        this.success = success;
+        this.attempts = attempts;
+        this.durationSeconds = durationSeconds;
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s: %s after %d attempt(s) in %.3f s (%s)",
+            deviceName,
+            success ? "configured" : "configuration FAILED",
+            attempts,
+            durationSeconds,
+            status
+        );
+    }
+}
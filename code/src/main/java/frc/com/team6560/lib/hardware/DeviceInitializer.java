@@ -0,0 +1,167 @@
+package frc.com.team6560.lib.hardware;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Service for configuring devices concurrently at robot boot.
+ * Device configuration is submitted as a task and runs on a bounded pool of background threads,
+ * so that blocking vendor configuration calls for different devices overlap instead of adding up.
+ * Call awaitAll() once all devices have been created to wait for configuration and print a per-device report.
+ */
+public class DeviceInitializer {
+    private static Optional<DeviceInitializer> instance = Optional.empty();
+
+    private static final int THREAD_COUNT = 4;
+    private static final double SLOW_DEVICE_THRESHOLD_SECONDS = 0.5;
+
+    private final ThreadPoolExecutor executor;
+    private final List<PendingDevice> devices;
+
+    /**
+     * Device configuration task that has been submitted to the initializer.
+     */
+    private static class PendingDevice {
+        final String name;
+        // Timed from when the task starts rather than when it is submitted, so time spent queued behind other
+        // devices does not count against this device.
+        volatile long startNanos;
+        volatile long completeNanos;
+        CompletableFuture<?> future;
+
+        PendingDevice(String name) {
+            this.name = name;
+            this.startNanos = 0;
+            this.completeNanos = 0;
+            this.future = null;
+        }
+    }
+
+    private DeviceInitializer() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            THREAD_COUNT,
+            THREAD_COUNT,
+            1,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "DeviceInit-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+        this.devices = new ArrayList<>();
+    }
+
+    public static DeviceInitializer getInstance() {
+        if (instance.isEmpty()) {
+            instance = Optional.of(new DeviceInitializer());
+        }
+        return instance.get();
+    }
+
+    /**
+     * Submit a device configuration task.
+     * @param <T> Result type of the task.
+     * @param name Device name used in the report.
+     * @param task Task that configures the device.
+     * @return Future that completes once the device is configured.
+     */
+    public synchronized <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+        PendingDevice device = new PendingDevice(name);
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            device.startNanos = System.nanoTime();
+            try {
+                return task.get();
+            } finally {
+                device.completeNanos = System.nanoTime();
+            }
+        }, executor);
+        device.future = future;
+        devices.add(device);
+        return future;
+    }
+
+    /**
+     * Submit a device configuration task that only starts once another task has finished, for example to apply
+     * further configuration after a motor's own build() configuration.
+     * @param <T> Result type of the task.
+     * @param name Device name used in the report.
+     * @param dependency Future that must complete before the task starts. The task also runs if it fails.
+     * @param task Task that configures the device.
+     * @return Future that completes once the device is configured.
+     */
+    public synchronized <T> CompletableFuture<T> submitAfter(String name, CompletableFuture<?> dependency, Supplier<T> task) {
+        PendingDevice device = new PendingDevice(name);
+        CompletableFuture<T> future = dependency.handleAsync((result, error) -> {
+            device.startNanos = System.nanoTime();
+            try {
+                return task.get();
+            } finally {
+                device.completeNanos = System.nanoTime();
+            }
+        }, executor);
+        device.future = future;
+        devices.add(device);
+        return future;
+    }
+
+    /**
+     * Wait for all submitted devices to finish configuring and print a per-device report.
+     * Devices that fail, do not finish in time, or take longer than the slow threshold are reported as warnings.
+     * @param timeoutSeconds Maximum total time to wait.
+     * @return True if every device was configured successfully in time.
+     */
+    public synchronized boolean awaitAll(double timeoutSeconds) {
+        long deadline = System.nanoTime() + (long) (timeoutSeconds * 1.0E9);
+        boolean allConfigured = true;
+        StringBuilder report = new StringBuilder("Device initialization report:\n");
+
+        for (PendingDevice device : devices) {
+            String status;
+            try {
+                Object result = device.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                double seconds = (device.completeNanos - device.startNanos) * 1.0E-9;
+                if (result instanceof ConfigResult && !((ConfigResult) result).success) {
+                    status = "MISSING (" + result + ")";
+                    allConfigured = false;
+                } else if (seconds > SLOW_DEVICE_THRESHOLD_SECONDS) {
+                    status = String.format("SLOW (%.3f s)", seconds);
+                } else {
+                    status = String.format("ok (%.3f s)", seconds);
+                }
+            } catch (TimeoutException e) {
+                status = "MISSING (not configured within " + timeoutSeconds + " s)";
+                allConfigured = false;
+            } catch (ExecutionException e) {
+                status = "MISSING (" + e.getCause() + ")";
+                allConfigured = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status = "MISSING (interrupted)";
+                allConfigured = false;
+            }
+            if (!status.startsWith("ok")) {
+                DriverStation.reportWarning(device.name + ": " + status, false);
+            }
+            report.append("  ").append(device.name).append(": ").append(status).append('\n');
+        }
+
+        System.out.print(report);
+        devices.clear();
+        return allConfigured;
+    }
+}
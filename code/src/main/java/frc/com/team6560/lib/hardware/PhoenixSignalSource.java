@@ -0,0 +1,26 @@
+package frc.com.team6560.lib.hardware;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Implemented by device wrappers that can provide Phoenix 6 status signals for high-rate sampling,
+ * so that signals from several devices can be waited on together with BaseStatusSignal.waitForAll().
+ * The sampling thread owns these signals: it refreshes them, and the wrapper reads them without refreshing.
+ */
+public interface PhoenixSignalSource {
+
+    /**
+     * Gets the signals sampled at a high rate, such as positions and the velocities used to latency-compensate them.
+     * @return Phoenix 6 status signals, or an empty array if the device is not a Phoenix 6 device.
+     */
+    BaseStatusSignal[] getHighRateSignals();
+
+    /**
+     * Checks whether every value sampled from the device comes from getHighRateSignals(), so that sampling
+     * can be synchronized to their updates.
+     * @return True if no sampled value is read from outside the signals.
+     */
+    default boolean isFullySignalSampled() {
+        return getHighRateSignals().length > 0;
+    }
+}
@@ -1,10 +1,27 @@
 package frc.com.team6560.lib.hardware.motors;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Generic interface for interacting with with motors. 
+ * Hardware implementations only apply their configuration, including factory defaults, when build() is called;
+ * TalonFXMotor throws if control is requested before then, rather than running with stale configuration from flash.
+ * Configuration setters such as setBrakeMode() and the soft limits only update that configuration before build(), and
+ * afterwards are applied once the configuration started by build() has finished, so that it cannot overwrite them.
  */
 public interface MotorIO {
 
+    /**
+     * Refreshes the input snapshot from the motor controller. Call once per loop before reading values.
+     */
+    void updateInputs();
+
+    /**
+     * Gets the input snapshot taken during the last call to updateInputs().
+     * @return The most recent motor inputs.
+     */
+    MotorInputs getInputs();
+
     /**
      * Gets the current duty cycle rate in terms of percentage of total output.
      * @return Percentage of duty cycle motor is currently running at.
@@ -53,6 +70,25 @@ public interface MotorIO {
      */
     void setVelocity(double targetVelocity);
 
+    /**
+     * Sets the motor to an open-loop voltage.
+     * @param volts The voltage to apply.
+     */
+    void setVoltage(double volts);
+
+    /**
+     * Sets motor position to target using PID.
+     * @param targetRotations The target position in mechanism rotations.
+     */
+    void setPosition(double targetRotations);
+
+    /**
+     * Sets motor position to target following a motion profile generated on the motor controller,
+     * limited by the configured cruise velocity, acceleration and jerk, with feedforward applied.
+     * @param targetRotations The target position in mechanism rotations.
+     */
+    void setPositionProfiled(double targetRotations);
+
     /**
      * Sets the current position of the motor to a specified value.
      * @param positionUnits The desired current position in mechanism rotations.
@@ -91,4 +127,42 @@ public interface MotorIO {
      */
     void stop();
 
+    /**
+     * Sets how often each motor signal is sent over the CAN bus. Signals set to OFF are no longer updated.
+     * @param profile Rate tier of each signal.
+     */
+    void setSignalProfile(MotorSignalProfile profile);
+
+    /**
+     * Gets the signal profile applied to the motor.
+     * @return Signal profile, or null if the motor uses vendor default rates.
+     */
+    MotorSignalProfile getSignalProfile();
+
+    /**
+     * Gets a future that completes once configuration started by build() has finished, so that further configuration
+     * can be chained after it rather than racing it.
+     * @return Configuration future, already complete if there is no configuration in progress.
+     */
+    CompletableFuture<?> getConfigFuture();
+
+    /**
+     * Gets the estimated number of status frames per second the motor controller sends over the CAN bus,
+     * based on its signal profile or vendor defaults.
+     * @return Estimated status frames per second.
+     */
+    double getEstimatedStatusFramesPerSecond();
+
+    /**
+     * Gets the number of control requests sent to the motor controller.
+     * @return Number of sent control frames.
+     */
+    long getSentControlFrames();
+
+    /**
+     * Gets the number of control requests dropped by the setpoint filter.
+     * @return Number of suppressed control frames.
+     */
+    long getSuppressedControlFrames();
+
 }
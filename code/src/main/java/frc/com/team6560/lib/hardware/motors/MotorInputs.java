@@ -0,0 +1,52 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * Snapshot of motor sensor values, filled once per loop by {@link MotorIO#updateInputs()}.
+ * MotorIO getters read from this snapshot so that repeated reads within a loop never touch the CAN bus.
+ * Logged with AdvantageKit, so that in replay every getter returns the logged value.
+ */
+public class MotorInputs implements LoggableInputs {
+    public boolean connected = false;
+
+    public double dutyCyclePercent = 0.0;
+    public double velocityRPM = 0.0;
+    public double positionRotations = 0.0;
+    public double appliedVolts = 0.0;
+    public double currentSupplyAmps = 0.0;
+    public double currentStatorAmps = 0.0;
+
+    /** Robot time in seconds at which the snapshot was taken. */
+    public double timestampSeconds = 0.0;
+
+    /** Age in seconds of the sampled values at the time the snapshot was taken. */
+    public double latencySeconds = 0.0;
+
+    @Override
+    public void toLog(LogTable table) {
+        table.put("Connected", connected);
+        table.put("DutyCyclePercent", dutyCyclePercent);
+        table.put("VelocityRPM", velocityRPM);
+        table.put("PositionRotations", positionRotations);
+        table.put("AppliedVolts", appliedVolts);
+        table.put("CurrentSupplyAmps", currentSupplyAmps);
+        table.put("CurrentStatorAmps", currentStatorAmps);
+        table.put("TimestampSeconds", timestampSeconds);
+        table.put("LatencySeconds", latencySeconds);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+        connected = table.get("Connected", connected);
+        dutyCyclePercent = table.get("DutyCyclePercent", dutyCyclePercent);
+        velocityRPM = table.get("VelocityRPM", velocityRPM);
+        positionRotations = table.get("PositionRotations", positionRotations);
+        appliedVolts = table.get("AppliedVolts", appliedVolts);
+        currentSupplyAmps = table.get("CurrentSupplyAmps", currentSupplyAmps);
+        currentStatorAmps = table.get("CurrentStatorAmps", currentStatorAmps);
+        timestampSeconds = table.get("TimestampSeconds", timestampSeconds);
+        latencySeconds = table.get("LatencySeconds", latencySeconds);
+    }
+}
@@ -0,0 +1,91 @@
+package frc.com.team6560.lib.hardware.motors;
+
+/**
+ * Config class describing how often each motor signal is sent over the CAN bus.
+ * Each signal is assigned a rate tier: HIGH for closed-loop feedback, LOW for telemetry, or OFF for signals that are never read.
+ */
+public class MotorSignalProfile {
+
+    public enum Rate {
+        HIGH(100.0),
+        LOW(10.0),
+        OFF(0.0);
+
+        public final double frequencyHz;
+
+        Rate(double frequencyHz) {
+            this.frequencyHz = frequencyHz;
+        }
+
+        /**
+         * Get the faster of two rates.
+         * @param a First rate.
+         * @param b Second rate.
+         * @return Rate with the higher frequency.
+         */
+        public static Rate max(Rate a, Rate b) {
+            return a.frequencyHz >= b.frequencyHz ? a : b;
+        }
+    }
+
+    /** Profile for closed-loop velocity mechanisms such as flywheels. */
+    public static final MotorSignalProfile VELOCITY_CONTROL = new Builder()
+        .setVelocity(Rate.HIGH)
+        .setPosition(Rate.OFF)
+        .build();
+
+    /** Profile for open-loop mechanisms such as intakes and transfers, which only need telemetry. */
+    public static final MotorSignalProfile OPEN_LOOP = new Builder()
+        .setPosition(Rate.OFF)
+        .build();
+
+    /** Profile for closed-loop position mechanisms such as arms and elevators. */
+    public static final MotorSignalProfile POSITION_CONTROL = new Builder()
+        .setPosition(Rate.HIGH)
+        .setVelocity(Rate.HIGH)
+        .build();
+
+    public final Rate dutyCycle;
+    public final Rate velocity;
+    public final Rate position;
+    public final Rate appliedVolts;
+    public final Rate supplyCurrent;
+    public final Rate statorCurrent;
+
+    /**
+     * Private constructor to enforce usage of builder.
+     * @param builder Builder to initialize class.
+     */
+    private MotorSignalProfile(Builder builder) {
+        this.dutyCycle = builder.dutyCycle;
+        this.velocity = builder.velocity;
+        this.position = builder.position;
+        this.appliedVolts = builder.appliedVolts;
+        this.supplyCurrent = builder.supplyCurrent;
+        this.statorCurrent = builder.statorCurrent;
+    }
+
+    /**
+     * Builder for MotorSignalProfile. All signals default to the LOW tier.
+     */
+    public static class Builder {
+
+        private Rate dutyCycle = Rate.LOW;
+        private Rate velocity = Rate.LOW;
+        private Rate position = Rate.LOW;
+        private Rate appliedVolts = Rate.LOW;
+        private Rate supplyCurrent = Rate.LOW;
+        private Rate statorCurrent = Rate.LOW;
+
+        public Builder setDutyCycle(Rate rate) { this.dutyCycle = rate; return this; }
+        public Builder setVelocity(Rate rate) { this.velocity = rate; return this; }
+        public Builder setPosition(Rate rate) { this.position = rate; return this; }
+        public Builder setAppliedVolts(Rate rate) { this.appliedVolts = rate; return this; }
+        public Builder setSupplyCurrent(Rate rate) { this.supplyCurrent = rate; return this; }
+        public Builder setStatorCurrent(Rate rate) { this.statorCurrent = rate; return this; }
+
+        public MotorSignalProfile build() {
+            return new MotorSignalProfile(this);
+        }
+    }
+}
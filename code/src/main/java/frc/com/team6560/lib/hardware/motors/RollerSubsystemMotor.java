@@ -29,6 +29,13 @@ public class RollerSubsystemMotor {
         this.mode = mode;
     }
 
+    public RollerSubsystemMotor(SimMotor motor, double forwardTarget, double reverseTarget, MotorMode mode) {
+        this.motor = motor;
+        this.forwardTarget = forwardTarget;
+        this.reverseTarget = reverseTarget;
+        this.mode = mode;
+    }
+
     // Accessor methods 
 
     public MotorIO getMotor() {
@@ -0,0 +1,90 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import frc.com.team6560.lib.time.RobotTime;
+
+/**
+ * Tracks the last control request sent to a motor controller and drops repeated requests.
+ * A repeated request is still sent once the keepalive interval has passed so that controller safety timeouts do not trip.
+ * Filtering is disabled by default, in which case every request is sent and only counted.
+ */
+public class SetpointFilter {
+
+    public enum RequestType {
+        DUTY_CYCLE,
+        VELOCITY,
+        VOLTAGE,
+        POSITION,
+        POSITION_PROFILED,
+        NEUTRAL
+    }
+
+    private boolean enabled;
+    private double keepaliveSeconds;
+
+    private RequestType lastType;
+    private double lastValue;
+    private double lastSentSeconds;
+
+    private long sentFrames;
+    private long suppressedFrames;
+
+    public SetpointFilter() {
+        this.enabled = false;
+        this.keepaliveSeconds = 0.0;
+        this.lastType = null;
+        this.lastValue = 0.0;
+        this.lastSentSeconds = 0.0;
+        this.sentFrames = 0;
+        this.suppressedFrames = 0;
+    }
+
+    /**
+     * Enable filtering of repeated requests.
+     * @param keepaliveSeconds Maximum time between two sent requests, even if the setpoint has not changed.
+     */
+    public void enable(double keepaliveSeconds) {
+        if (keepaliveSeconds <= 0.0) {
+            throw new IllegalArgumentException("Keepalive interval must be positive");
+        }
+        this.enabled = true;
+        this.keepaliveSeconds = keepaliveSeconds;
+    }
+
+    /**
+     * Decide whether a request needs to be sent and update counters accordingly.
+     * @param type Control mode of the request.
+     * @param value Setpoint of the request.
+     * @return True if the request should be sent to the motor controller.
+     */
+    public boolean shouldSend(RequestType type, double value) {
+        double now = RobotTime.getTimestampSeconds();
+        if (enabled && type == lastType && value == lastValue && now - lastSentSeconds < keepaliveSeconds) {
+            suppressedFrames++;
+            return false;
+        }
+        lastType = type;
+        lastValue = value;
+        lastSentSeconds = now;
+        sentFrames++;
+        return true;
+    }
+
+    /**
+     * Forget the last sent request so that the next request is always sent.
+     */
+    public void reset() {
+        lastType = null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getSentFrames() {
+        return sentFrames;
+    }
+
+    public long getSuppressedFrames() {
+        return suppressedFrames;
+    }
+}
@@ -0,0 +1,553 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+
+import frc.com.team6560.lib.time.RobotTime;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Class representing a simulated motor implementation of the MotorIO interface, backed by a WPILib DCMotorSim.
+ * Supports the same configuration as the hardware wrappers, with a simulated onboard PID controller,
+ * so that subsystems can be run and measured without hardware.
+ * The simulation is advanced by one period every time updateInputs() is called.
+ */
+public class SimMotor implements MotorIO {
+    public static final double DEFAULT_PERIOD_SECONDS = 0.02;
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    private static final double DEFAULT_MOMENT_OF_INERTIA = 0.001; // kg m^2
+
+    private final int CANId;
+    private final DCMotor gearbox;
+    private double gearing;
+    private double momentOfInertia;
+    private double periodSeconds;
+    private DCMotorSim sim;
+
+    private double openLoopRampRate;
+    private double kP;
+    private double kI;
+    private double kD;
+    private double kF;
+    private double kS;
+    private double kV;
+    private double kA;
+    private double kG;
+    private TrapezoidProfile motionProfile;
+    private double currentLimit;
+    private double forwardSoftLimit;
+    private double reverseSoftLimit;
+    private boolean brakeMode;
+    private boolean isReversed;
+    private MotorSignalProfile signalProfile;
+
+    private SetpointFilter.RequestType controlMode;
+    private double setpoint;
+    private double appliedVolts;
+    private double statorCurrent;
+    private double errorSum;
+    private double lastError;
+    private boolean hasLastError;
+    private TrapezoidProfile.State profileState;
+    private final TrapezoidProfile.State profileGoal = new TrapezoidProfile.State();
+
+    private final MotorInputs inputs = new MotorInputs();
+    private final SetpointFilter setpointFilter = new SetpointFilter();
+
+    /**
+     * Constructor to initialize a simulated motor.
+     * @param CANId CAN ID of the motor being simulated, used to identify it in reports.
+     * @param gearbox Model of the motor(s) driving the mechanism, e.g. DCMotor.getFalcon500(1).
+     */
+    public SimMotor(int CANId, DCMotor gearbox) {
+        this.CANId = CANId;
+        this.gearbox = gearbox;
+        this.gearing = 1.0;
+        this.momentOfInertia = DEFAULT_MOMENT_OF_INERTIA;
+        this.periodSeconds = DEFAULT_PERIOD_SECONDS;
+        this.sim = new DCMotorSim(gearbox, gearing, momentOfInertia);
+
+        this.openLoopRampRate = 0.0;
+        this.motionProfile = null;
+        this.currentLimit = Double.POSITIVE_INFINITY;
+        this.forwardSoftLimit = Double.POSITIVE_INFINITY;
+        this.reverseSoftLimit = Double.NEGATIVE_INFINITY;
+        this.brakeMode = false;
+        this.isReversed = false;
+        this.signalProfile = null;
+
+        this.controlMode = SetpointFilter.RequestType.NEUTRAL;
+        this.setpoint = 0.0;
+        this.appliedVolts = 0.0;
+        this.statorCurrent = 0.0;
+    }
+
+    /**
+     * Initialize motor with gear reduction between motor and mechanism.
+     * @param gearing Motor rotations per mechanism rotation.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withGearing(double gearing) {
+        if (gearing <= 0.0) {
+            throw new IllegalArgumentException("Gearing must be positive");
+        }
+        this.gearing = gearing;
+        return this;
+    }
+
+    /**
+     * Initialize motor with moment of inertia of the mechanism.
+     * @param momentOfInertia Moment of inertia in kg m^2.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withMomentOfInertia(double momentOfInertia) {
+        if (momentOfInertia <= 0.0) {
+            throw new IllegalArgumentException("Moment of inertia must be positive");
+        }
+        this.momentOfInertia = momentOfInertia;
+        return this;
+    }
+
+    /**
+     * Initialize motor with time the simulation advances by on every call to updateInputs().
+     * @param periodSeconds Simulation period in seconds.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withSimulationPeriod(double periodSeconds) {
+        if (periodSeconds <= 0.0) {
+            throw new IllegalArgumentException("Simulation period must be positive");
+        }
+        this.periodSeconds = periodSeconds;
+        return this;
+    }
+
+    /**
+     * Initialize motor with open-loop ramp rate configuration.
+     * @param rampRate The ramp rate in seconds to go from 0 to full output.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withOpenLoopRampConfig(double rampRate) {
+        this.openLoopRampRate = rampRate;
+        return this;
+    }
+
+    /**
+     * Initialize motor with custom PID values. Output is in units of duty cycle, as on the SparkMax.
+     * @param kP proportional constant.
+     * @param kI integral constant.
+     * @param kD derivative constant.
+     * @param kF feedforward constant.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withPIDProfile(double kP, double kI, double kD, double kF) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kF = kF;
+        return this;
+    }
+
+    /**
+     * Initialize motor with motion profile constraints used by setPositionProfiled().
+     * The simulated profile is trapezoidal, so jerk is not limited.
+     * @param cruiseVelocity Maximum velocity in RPM.
+     * @param acceleration Maximum acceleration in RPM per second.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withMotionProfile(double cruiseVelocity, double acceleration) {
+        this.motionProfile = new TrapezoidProfile(new TrapezoidProfile.Constraints(cruiseVelocity / 60.0, acceleration / 60.0));
+        return this;
+    }
+
+    /**
+     * Initialize motor with closed-loop feedforward, applied on top of PID output.
+     * @param kS Static friction voltage, applied in the direction of motion.
+     * @param kV Volts per RPM of target velocity.
+     * @param kA Volts per RPM per second of target acceleration.
+     * @param kG Constant gravity compensation voltage.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withFeedforward(double kS, double kV, double kA, double kG) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        this.kG = kG;
+        return this;
+    }
+
+    /**
+     * Initialize motor with set current limit.
+     * @param currentLimit limit in amps.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withCurrentLimit(int currentLimit) {
+        this.currentLimit = currentLimit;
+        return this;
+    }
+
+    /**
+     * Initialize motor with set forward soft limit.
+     * @param maxRotations Forward soft limit in rotations.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withForwardSoftLimit(float maxRotations) {
+        this.forwardSoftLimit = maxRotations;
+        return this;
+    }
+
+    /**
+     * Initialize motor with set reverse soft limit.
+     * @param maxRotations Backward soft limit in rotations.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withReverseSoftLimit(float maxRotations) {
+        this.reverseSoftLimit = maxRotations;
+        return this;
+    }
+
+    /**
+     * Initialize motor in a reversed orientation.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withReversedMotor() {
+        this.setReversed(true);
+        return this;
+    }
+
+    /**
+     * Initialize motor with a setpoint filter that drops control requests identical to the last one sent.
+     * @param keepaliveSeconds Interval after which an unchanged request is resent anyway.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withSetpointFilter(double keepaliveSeconds) {
+        setpointFilter.enable(keepaliveSeconds);
+        return this;
+    }
+
+    /**
+     * Initialize motor with a signal profile. Only used to estimate CAN bus usage of the simulated motor.
+     * @param profile Rate tier of each signal.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withSignalProfile(MotorSignalProfile profile) {
+        this.signalProfile = profile;
+        return this;
+    }
+
+    /**
+     * Initialize motor with brake mode as default.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withBrakeMode() {
+        this.brakeMode = true;
+        return this;
+    }
+
+    /**
+     * Initialize motor with coast mode as default.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor withCoastMode() {
+        this.brakeMode = false;
+        return this;
+    }
+
+    /**
+     * Create the simulated mechanism using the configured gearing and moment of inertia. Call after full initialization.
+     * @return SimMotor for chainability.
+     */
+    public SimMotor build() {
+        this.sim = new DCMotorSim(gearbox, gearing, momentOfInertia);
+        return this;
+    }
+
+    // Simulation
+
+    /**
+     * Advance the simulation, applying the current control request.
+     * Called by updateInputs(), but can also be called directly to run the simulation at a different rate.
+     * @param dtSeconds Time to advance by in seconds.
+     */
+    public void simulate(double dtSeconds) {
+        double direction = isReversed ? -1.0 : 1.0;
+        double positionRotations = direction * sim.getAngularPositionRotations();
+        double velocityRPM = direction * sim.getAngularVelocityRPM();
+        double backEmfVolts = velocityRPM / 60.0 * 2.0 * Math.PI * gearing / gearbox.KvRadPerSecPerVolt;
+
+        double volts;
+        switch (controlMode) {
+            case DUTY_CYCLE:
+                volts = setpoint * NOMINAL_VOLTAGE;
+                if (openLoopRampRate > 0.0) {
+                    double maxStep = NOMINAL_VOLTAGE * dtSeconds / openLoopRampRate;
+                    volts = MathUtil.clamp(volts, appliedVolts - maxStep, appliedVolts + maxStep);
+                }
+                break;
+            case VOLTAGE:
+                volts = setpoint;
+                break;
+            case VELOCITY:
+                volts = calculatePID(setpoint, velocityRPM, dtSeconds) * NOMINAL_VOLTAGE
+                    + kS * Math.signum(setpoint) + kV * setpoint + kG;
+                break;
+            case POSITION:
+                volts = calculatePID(setpoint, positionRotations, dtSeconds) * NOMINAL_VOLTAGE + kG;
+                break;
+            case POSITION_PROFILED:
+                double lastVelocity = profileState.velocity;
+                profileState = motionProfile.calculate(dtSeconds, profileState, profileGoal);
+                double targetVelocityRPM = profileState.velocity * 60.0;
+                double targetAccelerationRPM = (profileState.velocity - lastVelocity) / dtSeconds * 60.0;
+                volts = calculatePID(profileState.position, positionRotations, dtSeconds) * NOMINAL_VOLTAGE
+                    + kS * Math.signum(targetVelocityRPM) + kV * targetVelocityRPM + kA * targetAccelerationRPM + kG;
+                break;
+            default:
+                // Brake mode shorts the motor leads. Coast mode leaves them open, so no current flows.
+                volts = brakeMode ? 0.0 : backEmfVolts;
+                break;
+        }
+
+        if (controlMode != SetpointFilter.RequestType.NEUTRAL) {
+            if ((positionRotations >= forwardSoftLimit && volts > 0.0) || (positionRotations <= reverseSoftLimit && volts < 0.0)) {
+                volts = brakeMode ? 0.0 : backEmfVolts;
+            }
+            double maxCurrentVolts = currentLimit * gearbox.rOhms;
+            volts = MathUtil.clamp(volts, backEmfVolts - maxCurrentVolts, backEmfVolts + maxCurrentVolts);
+        }
+        volts = MathUtil.clamp(volts, -NOMINAL_VOLTAGE, NOMINAL_VOLTAGE);
+
+        appliedVolts = volts;
+        statorCurrent = (volts - backEmfVolts) / gearbox.rOhms;
+        sim.setInputVoltage(direction * volts);
+        sim.update(dtSeconds);
+    }
+
+    /**
+     * Calculate output of the simulated onboard PID controller.
+     * @param target Target position or velocity.
+     * @param measurement Measured position or velocity.
+     * @param dtSeconds Time since last calculation.
+     * @return Output in units of duty cycle.
+     */
+    private double calculatePID(double target, double measurement, double dtSeconds) {
+        double error = target - measurement;
+        errorSum += error * dtSeconds;
+        double errorRate = hasLastError ? (error - lastError) / dtSeconds : 0.0;
+        lastError = error;
+        hasLastError = true;
+        return kP * error + kI * errorSum + kD * errorRate + kF * target;
+    }
+
+    /**
+     * Set control request and reset PID state if the control mode changes.
+     * @param mode Control mode.
+     * @param value Setpoint in units of the control mode.
+     */
+    private void setControl(SetpointFilter.RequestType mode, double value) {
+        if (mode != controlMode) {
+            errorSum = 0.0;
+            hasLastError = false;
+        }
+        controlMode = mode;
+        setpoint = value;
+    }
+
+    // Accessor methods
+
+    /**
+     * Gets a name identifying the motor in reports.
+     * @return Device name including CAN ID.
+     */
+    public String getName() {
+        return "SimMotor " + CANId;
+    }
+
+    @Override
+    public void updateInputs() {
+        simulate(periodSeconds);
+        double direction = isReversed ? -1.0 : 1.0;
+        inputs.connected = true;
+        inputs.dutyCyclePercent = appliedVolts / NOMINAL_VOLTAGE;
+        inputs.velocityRPM = direction * sim.getAngularVelocityRPM();
+        inputs.positionRotations = direction * sim.getAngularPositionRotations();
+        inputs.appliedVolts = appliedVolts;
+        inputs.currentStatorAmps = statorCurrent;
+        inputs.currentSupplyAmps = statorCurrent * appliedVolts / NOMINAL_VOLTAGE;
+        inputs.timestampSeconds = RobotTime.getTimestampSeconds();
+        inputs.latencySeconds = 0.0;
+    }
+
+    @Override
+    public MotorInputs getInputs() {
+        return inputs;
+    }
+
+    @Override
+    public double getDutyCyclePercent() {
+        return inputs.dutyCyclePercent;
+    }
+
+    @Override
+    public double getVelocityRPM() {
+        return inputs.velocityRPM;
+    }
+
+    @Override
+    public double getPositionRotations() {
+        return inputs.positionRotations;
+    }
+
+    @Override
+    public double getAppliedVolts() {
+        return inputs.appliedVolts;
+    }
+
+    @Override
+    public double getCurrentSupplyAmps() {
+        return inputs.currentSupplyAmps;
+    }
+
+    /**
+     * Gets the current flowing through the motor windings.
+     * @return The current in stator amps.
+     */
+    public double getCurrentStatorAmps() {
+        return inputs.currentStatorAmps;
+    }
+
+    // Setter methods
+
+    @Override
+    public void setReversed(boolean reversed) {
+        this.isReversed = reversed;
+        setpointFilter.reset();
+    }
+
+    @Override
+    public void setOpenLoopDutyCycle(double dutyCycle) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.DUTY_CYCLE, dutyCycle)) {
+            setControl(SetpointFilter.RequestType.DUTY_CYCLE, dutyCycle);
+        }
+    }
+
+    @Override
+    public void setVelocity(double targetVelocity) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.VELOCITY, targetVelocity)) {
+            setControl(SetpointFilter.RequestType.VELOCITY, targetVelocity);
+        }
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.VOLTAGE, volts)) {
+            setControl(SetpointFilter.RequestType.VOLTAGE, volts);
+        }
+    }
+
+    @Override
+    public void setPosition(double targetRotations) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.POSITION, targetRotations)) {
+            setControl(SetpointFilter.RequestType.POSITION, targetRotations);
+        }
+    }
+
+    @Override
+    public void setPositionProfiled(double targetRotations) {
+        if (motionProfile == null) {
+            throw new IllegalStateException("Motion profile is not configured.");
+        }
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.POSITION_PROFILED, targetRotations)) {
+            if (controlMode != SetpointFilter.RequestType.POSITION_PROFILED) {
+                // Start the profile from the current state of the mechanism.
+                profileState = new TrapezoidProfile.State(getPositionRotations(), getVelocityRPM() / 60.0);
+            }
+            profileGoal.position = targetRotations;
+            profileGoal.velocity = 0.0;
+            setControl(SetpointFilter.RequestType.POSITION_PROFILED, targetRotations);
+        }
+    }
+
+    @Override
+    public void setCurrentPosition(double position) {
+        double direction = isReversed ? -1.0 : 1.0;
+        sim.setState(direction * position * 2.0 * Math.PI, sim.getAngularVelocityRadPerSec());
+        errorSum = 0.0;
+        hasLastError = false;
+    }
+
+    @Override
+    public void setCurrentPositionAsZero() {
+        setCurrentPosition(0.0);
+    }
+
+    @Override
+    public void setBrakeMode() {
+        this.brakeMode = true;
+    }
+
+    @Override
+    public void setCoastMode() {
+        this.brakeMode = false;
+    }
+
+    @Override
+    public void setForwardSoftLimit(float maxRotations) {
+        this.forwardSoftLimit = maxRotations;
+    }
+
+    @Override
+    public void setReverseSoftLimit(float maxRotations) {
+        this.reverseSoftLimit = maxRotations;
+    }
+
+    @Override
+    public void stop() {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.NEUTRAL, 0.0)) {
+            setControl(SetpointFilter.RequestType.NEUTRAL, 0.0);
+        }
+    }
+
+    @Override
+    public void setSignalProfile(MotorSignalProfile profile) {
+        this.signalProfile = profile;
+    }
+
+    @Override
+    public MotorSignalProfile getSignalProfile() {
+        return signalProfile;
+    }
+
+    @Override
+    public CompletableFuture<?> getConfigFuture() {
+        // Simulated motors are configured synchronously.
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public double getEstimatedStatusFramesPerSecond() {
+        MotorSignalProfile profile = signalProfile;
+        if (profile == null) {
+            // Estimated as a TalonFX, the more bus-heavy of the supported controllers.
+            return TalonFXMotor.DEFAULT_STATUS_FRAMES_PER_SECOND;
+        }
+        return profile.dutyCycle.frequencyHz
+            + profile.velocity.frequencyHz
+            + profile.position.frequencyHz
+            + profile.appliedVolts.frequencyHz
+            + profile.supplyCurrent.frequencyHz
+            + profile.statorCurrent.frequencyHz;
+    }
+
+    @Override
+    public long getSentControlFrames() {
+        return setpointFilter.getSentFrames();
+    }
+
+    @Override
+    public long getSuppressedControlFrames() {
+        return setpointFilter.getSuppressedFrames();
+    }
+}
@@ -0,0 +1,104 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkBase.SoftLimitDirection;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.SparkPIDController;
+
+/**
+ * Collected configuration for a SparkMax motor controller, applied in a single pass by SparkMaxMotor.build().
+ * Fields left null keep the controller's current value.
+ */
+public class SparkMaxConfiguration {
+    public boolean restoreFactoryDefaults = false;
+
+    public Double openLoopRampRate = null;
+
+    public Double kP = null;
+    public Double kI = null;
+    public Double kD = null;
+    public Double kF = null;
+
+    public Double smartMotionMaxVelocity = null;
+    public Double smartMotionMaxAccel = null;
+
+    public Integer smartCurrentLimit = null;
+
+    public Float forwardSoftLimit = null;
+    public Float reverseSoftLimit = null;
+
+    public IdleMode idleMode = null;
+
+    /**
+     * Copy configuration, so that it can be applied on another thread while this one is still being modified.
+     * @return Copy of configuration.
+     */
+    public SparkMaxConfiguration copy() {
+        SparkMaxConfiguration copy = new SparkMaxConfiguration();
+        copy.restoreFactoryDefaults = restoreFactoryDefaults;
+        copy.openLoopRampRate = openLoopRampRate;
+        copy.kP = kP;
+        copy.kI = kI;
+        copy.kD = kD;
+        copy.kF = kF;
+        copy.smartMotionMaxVelocity = smartMotionMaxVelocity;
+        copy.smartMotionMaxAccel = smartMotionMaxAccel;
+        copy.smartCurrentLimit = smartCurrentLimit;
+        copy.forwardSoftLimit = forwardSoftLimit;
+        copy.reverseSoftLimit = reverseSoftLimit;
+        copy.idleMode = idleMode;
+        return copy;
+    }
+
+    /**
+     * Apply configuration to a SparkMax. Every setting is attempted even if an earlier one fails.
+     * @param sparkMax Target motor controller.
+     * @param pidController PID controller of target motor controller.
+     * @return First error encountered, or kOk if every setting was applied.
+     */
+    REVLibError applyTo(CANSparkMax sparkMax, SparkPIDController pidController) {
+        REVLibError result = REVLibError.kOk;
+        if (restoreFactoryDefaults) {
+            result = firstError(result, sparkMax.restoreFactoryDefaults());
+        }
+        if (openLoopRampRate != null) {
+            result = firstError(result, sparkMax.setOpenLoopRampRate(openLoopRampRate));
+        }
+        if (kP != null) {
+            result = firstError(result, pidController.setP(kP));
+        }
+        if (kI != null) {
+            result = firstError(result, pidController.setI(kI));
+        }
+        if (kD != null) {
+            result = firstError(result, pidController.setD(kD));
+        }
+        if (kF != null) {
+            result = firstError(result, pidController.setFF(kF));
+        }
+        if (smartMotionMaxVelocity != null) {
+            result = firstError(result, pidController.setSmartMotionMaxVelocity(smartMotionMaxVelocity, 0));
+        }
+        if (smartMotionMaxAccel != null) {
+            result = firstError(result, pidController.setSmartMotionMaxAccel(smartMotionMaxAccel, 0));
+        }
+        if (smartCurrentLimit != null) {
+            result = firstError(result, sparkMax.setSmartCurrentLimit(smartCurrentLimit));
+        }
+        if (forwardSoftLimit != null) {
+            result = firstError(result, sparkMax.setSoftLimit(SoftLimitDirection.kForward, forwardSoftLimit));
+        }
+        if (reverseSoftLimit != null) {
+            result = firstError(result, sparkMax.setSoftLimit(SoftLimitDirection.kReverse, reverseSoftLimit));
+        }
+        if (idleMode != null) {
+            result = firstError(result, sparkMax.setIdleMode(idleMode));
+        }
+        return result;
+    }
+
+    private static REVLibError firstError(REVLibError current, REVLibError next) {
+        return current == REVLibError.kOk ? next : current;
+    }
+}
@@ -3,17 +3,46 @@ package frc.com.team6560.lib.hardware.motors;
 import com.revrobotics.CANSparkBase;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
 import com.revrobotics.CANSparkBase.SoftLimitDirection;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+import com.revrobotics.REVLibError;
+
+import java.util.concurrent.CompletableFuture;
+
+import frc.com.team6560.lib.hardware.ConfigResult;
+import frc.com.team6560.lib.hardware.DeviceInitializer;
+import frc.com.team6560.lib.time.RobotTime;
 
 /**
  * Class representing a SparkMax motor implementation of the MotorIO interface.
  * Provides methods to control the motor and read its state.
  */
 public class SparkMaxMotor implements MotorIO {
+    private static final int CONFIG_TIMEOUT_MS = 250;
+    private static final int DEFAULT_CAN_TIMEOUT_MS = 20;
+    private static final int CONFIG_MAX_ATTEMPTS = 3;
+    private static final int DISABLED_FRAME_PERIOD_MS = 65535;
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    // Sum of REV default periodic frame rates (status 0-6 at 10, 20, 20, 50, 20, 200 and 200 ms).
+    public static final double DEFAULT_STATUS_FRAMES_PER_SECOND = 280.0;
+
     private CANSparkMax sparkMax; 
     private RelativeEncoder encoder; 
+    private SparkPIDController pidController;
     private boolean isReversed;
+    private double kS;
+    private double kG;
+    private final SparkMaxConfiguration config;
+    private volatile ConfigResult configResult;
+    private CompletableFuture<ConfigResult> configFuture;
+    private boolean built;
+    private volatile MotorSignalProfile signalProfile;
+
+    private final MotorInputs inputs = new MotorInputs();
+    private final SetpointFilter setpointFilter = new SetpointFilter();
 
     /**
      * Constructor to initialize a brushless SparkMax motor with a CAN ID.
@@ -21,9 +50,17 @@ public class SparkMaxMotor implements MotorIO {
      */
     public SparkMaxMotor(int CANId) {
         this.sparkMax = new CANSparkMax(CANId, MotorType.kBrushless);
-        this.sparkMax.restoreFactoryDefaults();
         this.encoder = sparkMax.getEncoder(); 
+        this.pidController = sparkMax.getPIDController();
         this.isReversed = false;
+        this.kS = 0.0;
+        this.kG = 0.0;
+        this.config = new SparkMaxConfiguration();
+        this.config.restoreFactoryDefaults = true;
+        this.configResult = null;
+        this.configFuture = CompletableFuture.completedFuture(null);
+        this.built = false;
+        this.signalProfile = null;
     }
 
     /**
@@ -34,7 +71,15 @@ public class SparkMaxMotor implements MotorIO {
     public SparkMaxMotor(int CANId, MotorType motorType) {
         this.sparkMax = new CANSparkMax(CANId, motorType);
         this.encoder = sparkMax.getEncoder(); 
+        this.pidController = sparkMax.getPIDController();
         this.isReversed = false;
+        this.kS = 0.0;
+        this.kG = 0.0;
+        this.config = new SparkMaxConfiguration();
+        this.configResult = null;
+        this.configFuture = CompletableFuture.completedFuture(null);
+        this.built = false;
+        this.signalProfile = null;
     }
 
     /**
@@ -43,7 +88,7 @@ public class SparkMaxMotor implements MotorIO {
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withOpenLoopRampConfig(double rampRate) {
-        sparkMax.setOpenLoopRampRate(rampRate); 
+        config.openLoopRampRate = rampRate;
         return this; 
     }
 
@@ -56,10 +101,39 @@ public class SparkMaxMotor implements MotorIO {
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withPIDProfile(double kP, double kI, double kD, double kF) {
-        sparkMax.getPIDController().setP(kP);
-        sparkMax.getPIDController().setI(kI);
-        sparkMax.getPIDController().setD(kD);
-        sparkMax.getPIDController().setFF(kF);
+        config.kP = kP;
+        config.kI = kI;
+        config.kD = kD;
+        config.kF = kF;
+        return this;
+    }
+
+    /**
+     * Initialize motor with Smart Motion constraints used by setPositionProfiled().
+     * Smart Motion generates trapezoidal profiles, so jerk is not limited.
+     * @param cruiseVelocity Maximum velocity in RPM.
+     * @param acceleration Maximum acceleration in RPM per second.
+     * @return SparkMaxMotor for chainability.
+     */
+    public SparkMaxMotor withMotionProfile(double cruiseVelocity, double acceleration) {
+        config.smartMotionMaxVelocity = cruiseVelocity;
+        config.smartMotionMaxAccel = acceleration;
+        return this;
+    }
+
+    /**
+     * Initialize motor with feedforward for setPositionProfiled(). kV replaces the kF constant of the PID profile,
+     * and kS and kG are sent as an arbitrary feedforward voltage with each request.
+     * Smart Motion does not expose the profile acceleration, so no acceleration feedforward is applied.
+     * @param kS Static friction voltage, applied in the direction of motion.
+     * @param kV Volts per RPM of target velocity.
+     * @param kG Constant gravity compensation voltage.
+     * @return SparkMaxMotor for chainability.
+     */
+    public SparkMaxMotor withFeedforward(double kS, double kV, double kG) {
+        this.kS = kS;
+        this.kG = kG;
+        config.kF = kV / NOMINAL_VOLTAGE;
         return this;
     }
 
@@ -69,7 +143,7 @@ public class SparkMaxMotor implements MotorIO {
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withCurrentLimit(int currentLimit) {
-        sparkMax.setSmartCurrentLimit(currentLimit);
+        config.smartCurrentLimit = currentLimit;
         return this;
     }
 
@@ -79,7 +153,7 @@ public class SparkMaxMotor implements MotorIO {
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withForwardSoftLimit(float maxRotations) {
-        this.setForwardSoftLimit(maxRotations);
+        config.forwardSoftLimit = maxRotations;
         return this;
     }
 
@@ -89,7 +163,7 @@ public class SparkMaxMotor implements MotorIO {
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withReverseSoftLimit(float maxRotations) {
-        this.setReverseSoftLimit(maxRotations);
+        config.reverseSoftLimit = maxRotations;
         return this;
     }
 
@@ -103,12 +177,32 @@ public class SparkMaxMotor implements MotorIO {
     }
 
 
+    /**
+     * Initialize motor with a setpoint filter that drops control requests identical to the last one sent.
+     * @param keepaliveSeconds Interval after which an unchanged request is resent anyway.
+     * @return SparkMaxMotor for chainability.
+     */
+    public SparkMaxMotor withSetpointFilter(double keepaliveSeconds) {
+        setpointFilter.enable(keepaliveSeconds);
+        return this;
+    }
+
+    /**
+     * Initialize motor with a signal profile, applied when build() is called.
+     * @param profile Rate tier of each signal.
+     * @return SparkMaxMotor for chainability.
+     */
+    public SparkMaxMotor withSignalProfile(MotorSignalProfile profile) {
+        this.signalProfile = profile;
+        return this;
+    }
+
     /**
      * Initialize motor with brake mode as default.
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withBrakeMode() {
-        this.setBrakeMode();
+        config.idleMode = CANSparkBase.IdleMode.kBrake;
         return this;
     }
 
@@ -117,35 +211,118 @@ public class SparkMaxMotor implements MotorIO {
      * @return SparkMaxMotor for chainability.
      */
     public SparkMaxMotor withCoastMode() {
-        this.setBrakeMode();
+        config.idleMode = CANSparkBase.IdleMode.kCoast;
+        return this;
+    }
+
+    /**
+     * Apply all configuration collected by the builder methods in a single pass, retrying on failure.
+     * Configuration runs in the background on the DeviceInitializer; call after full initialization.
+     * @return SparkMaxMotor for chainability.
+     */
+    public SparkMaxMotor build() {
+        built = true;
+        SparkMaxConfiguration snapshot = config.copy();
+        configFuture = DeviceInitializer.getInstance().submit(getName(), () -> applyConfiguration(snapshot));
         return this;
     }
 
+    /**
+     * Wait for configuration started by build() to finish.
+     * @return Configuration result.
+     */
+    public ConfigResult awaitConfiguration() {
+        return configFuture.join();
+    }
+
+    /**
+     * Apply a configuration change made by a setter. Before build(), the change is only kept in the configuration that
+     * build() applies. Afterwards, it is applied once configuration started by build() and earlier changes have
+     * finished, so that the full configuration cannot overwrite it.
+     * @param apply Applies the change.
+     */
+    private void applyAfterBuild(Runnable apply) {
+        if (built) {
+            configFuture = configFuture.whenComplete((result, error) -> apply.run());
+        }
+    }
+
+    private ConfigResult applyConfiguration(SparkMaxConfiguration snapshot) {
+        long start = System.nanoTime();
+        sparkMax.setCANTimeout(CONFIG_TIMEOUT_MS);
+        REVLibError status;
+        int attempts = 0;
+        do {
+            attempts++;
+            status = snapshot.applyTo(sparkMax, pidController);
+        } while (status != REVLibError.kOk && attempts < CONFIG_MAX_ATTEMPTS);
+        if (status == REVLibError.kOk && signalProfile != null) {
+            status = applySignalProfile(signalProfile);
+        }
+        sparkMax.setCANTimeout(DEFAULT_CAN_TIMEOUT_MS);
+        configResult = new ConfigResult(getName(), status == REVLibError.kOk, attempts, (System.nanoTime() - start) * 1.0E-9, status.toString());
+        return configResult;
+    }
+
     // Accessor methods
 
+    /**
+     * Gets a name identifying the motor in reports.
+     * @return Device name including CAN ID.
+     */
+    public String getName() {
+        return "SparkMax " + sparkMax.getDeviceId();
+    }
+
+    /**
+     * Gets the result of the last configuration started by build().
+     * @return Configuration result, or null if configuration has not finished.
+     */
+    public ConfigResult getConfigResult() {
+        return configResult;
+    }
+
+    @Override
+    public void updateInputs() {
+        inputs.dutyCyclePercent = sparkMax.get();
+        inputs.velocityRPM = encoder.getVelocity();
+        inputs.positionRotations = encoder.getPosition();
+        inputs.appliedVolts = sparkMax.getAppliedOutput() * sparkMax.getBusVoltage();
+        inputs.currentSupplyAmps = sparkMax.getOutputCurrent();
+        inputs.currentStatorAmps = inputs.currentSupplyAmps; // SparkMax only reports a single output current
+        inputs.connected = sparkMax.getLastError() == REVLibError.kOk;
+        inputs.timestampSeconds = RobotTime.getTimestampSeconds();
+        inputs.latencySeconds = 0.0; // REVLib does not expose frame timestamps
+    }
+
+    @Override
+    public MotorInputs getInputs() {
+        return inputs;
+    }
+
     @Override
     public double getDutyCyclePercent() {
-        return sparkMax.get();
+        return inputs.dutyCyclePercent;
     }
 
     @Override
     public double getVelocityRPM() {
-        return encoder.getVelocity(); 
+        return inputs.velocityRPM;
     }
 
     @Override
     public double getPositionRotations() {
-        return encoder.getPosition(); 
+        return inputs.positionRotations;
     }
 
     @Override
     public double getAppliedVolts() {
-        return sparkMax.getAppliedOutput() * sparkMax.getBusVoltage(); 
+        return inputs.appliedVolts;
     }
 
     @Override
     public double getCurrentSupplyAmps() {
-        return sparkMax.getOutputCurrent(); 
+        return inputs.currentSupplyAmps;
     }
 
     // Setter methods
@@ -153,11 +330,14 @@ public class SparkMaxMotor implements MotorIO {
     @Override
     public void setReversed(boolean reversed) {
         this.isReversed = reversed;
+        setpointFilter.reset();
     }
 
     @Override
     public void setOpenLoopDutyCycle(double dutyCycle) {
-        sparkMax.set(isReversed ? -dutyCycle : dutyCycle); 
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.DUTY_CYCLE, dutyCycle)) {
+            sparkMax.set(isReversed ? -dutyCycle : dutyCycle); 
+        }
     }
 
     @Override
@@ -172,31 +352,151 @@ public class SparkMaxMotor implements MotorIO {
 
     @Override
     public void setVelocity(double targetVelocity) {
-        sparkMax.getPIDController().setReference(isReversed ? -targetVelocity : targetVelocity, CANSparkMax.ControlType.kVelocity);
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.VELOCITY, targetVelocity)) {
+            pidController.setReference(isReversed ? -targetVelocity : targetVelocity, CANSparkMax.ControlType.kVelocity);
+        }
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.VOLTAGE, volts)) {
+            pidController.setReference(isReversed ? -volts : volts, CANSparkMax.ControlType.kVoltage);
+        }
+    }
+
+    @Override
+    public void setPosition(double targetRotations) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.POSITION, targetRotations)) {
+            pidController.setReference(isReversed ? -targetRotations : targetRotations, CANSparkMax.ControlType.kPosition);
+        }
+    }
+
+    @Override
+    public void setPositionProfiled(double targetRotations) {
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.POSITION_PROFILED, targetRotations)) {
+            double target = isReversed ? -targetRotations : targetRotations;
+            double arbFeedforward = kS * Math.signum(target - inputs.positionRotations) + (isReversed ? -kG : kG);
+            pidController.setReference(target, CANSparkMax.ControlType.kSmartMotion, 0, arbFeedforward, ArbFFUnits.kVoltage);
+        }
     }
 
     @Override
     public void setBrakeMode() {
-        sparkMax.setIdleMode(CANSparkBase.IdleMode.kBrake);
+        config.idleMode = CANSparkBase.IdleMode.kBrake;
+        applyAfterBuild(() -> sparkMax.setIdleMode(CANSparkBase.IdleMode.kBrake));
     }
 
     @Override
     public void setCoastMode() {
-        sparkMax.setIdleMode(CANSparkBase.IdleMode.kCoast);
+        config.idleMode = CANSparkBase.IdleMode.kCoast;
+        applyAfterBuild(() -> sparkMax.setIdleMode(CANSparkBase.IdleMode.kCoast));
     }
 
     @Override
     public void setForwardSoftLimit(float maxRotations) {
-        sparkMax.setSoftLimit(SoftLimitDirection.kForward, maxRotations);
+        config.forwardSoftLimit = maxRotations;
+        applyAfterBuild(() -> sparkMax.setSoftLimit(SoftLimitDirection.kForward, maxRotations));
     }
 
     @Override
     public void setReverseSoftLimit(float maxRotations) {
-        sparkMax.setSoftLimit(SoftLimitDirection.kReverse, maxRotations);
+        config.reverseSoftLimit = maxRotations;
+        applyAfterBuild(() -> sparkMax.setSoftLimit(SoftLimitDirection.kReverse, maxRotations));
     }
 
     @Override
     public void stop() {
-        sparkMax.stopMotor();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.NEUTRAL, 0.0)) {
+            sparkMax.stopMotor();
+        }
+    }
+
+    @Override
+    public void setSignalProfile(MotorSignalProfile profile) {
+        this.signalProfile = profile;
+        applySignalProfile(profile);
+    }
+
+    @Override
+    public MotorSignalProfile getSignalProfile() {
+        return signalProfile;
+    }
+
+    @Override
+    public CompletableFuture<?> getConfigFuture() {
+        return configFuture;
+    }
+
+    /**
+     * Set periodic frame periods from profile. Signals share frames on the SparkMax, so each frame is sent at the
+     * fastest rate of the signals it carries. Frames for sensors this class never reads are disabled.
+     * @param profile Rate tier of each signal.
+     * @return First error encountered, or kOk.
+     */
+    private REVLibError applySignalProfile(MotorSignalProfile profile) {
+        MotorSignalProfile.Rate[] frameRates = statusFrameRates(profile);
+
+        REVLibError result = REVLibError.kOk;
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus0, framePeriodMs(frameRates[0])));
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus1, framePeriodMs(frameRates[1])));
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus2, framePeriodMs(frameRates[2])));
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus3, DISABLED_FRAME_PERIOD_MS));
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus4, DISABLED_FRAME_PERIOD_MS));
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus5, DISABLED_FRAME_PERIOD_MS));
+        result = firstError(result, sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus6, DISABLED_FRAME_PERIOD_MS));
+        return result;
+    }
+
+    /**
+     * Get rate of each status frame read by this class.
+     * @param profile Rate tier of each signal.
+     * @return Rates of status frames 0, 1 and 2.
+     */
+    private static MotorSignalProfile.Rate[] statusFrameRates(MotorSignalProfile profile) {
+        return new MotorSignalProfile.Rate[] {
+            // Status 0: applied output. Kept alive at the LOW rate since it also carries faults.
+            MotorSignalProfile.Rate.max(
+                MotorSignalProfile.Rate.LOW,
+                MotorSignalProfile.Rate.max(profile.dutyCycle, profile.appliedVolts)
+            ),
+            // Status 1: velocity, bus voltage and output current.
+            MotorSignalProfile.Rate.max(
+                MotorSignalProfile.Rate.max(profile.velocity, profile.appliedVolts),
+                MotorSignalProfile.Rate.max(profile.supplyCurrent, profile.statorCurrent)
+            ),
+            // Status 2: position.
+            profile.position
+        };
+    }
+
+    private static int framePeriodMs(MotorSignalProfile.Rate rate) {
+        return rate == MotorSignalProfile.Rate.OFF ? DISABLED_FRAME_PERIOD_MS : (int) (1000.0 / rate.frequencyHz);
+    }
+
+    private static REVLibError firstError(REVLibError current, REVLibError next) {
+        return current == REVLibError.kOk ? next : current;
+    }
+
+    @Override
+    public double getEstimatedStatusFramesPerSecond() {
+        MotorSignalProfile profile = signalProfile;
+        if (profile == null) {
+            return DEFAULT_STATUS_FRAMES_PER_SECOND;
+        }
+        double framesPerSecond = 0.0;
+        for (MotorSignalProfile.Rate rate : statusFrameRates(profile)) {
+            framesPerSecond += rate.frequencyHz;
+        }
+        return framesPerSecond;
+    }
+
+    @Override
+    public long getSentControlFrames() {
+        return setpointFilter.getSentFrames();
+    }
+
+    @Override
+    public long getSuppressedControlFrames() {
+        return setpointFilter.getSuppressedFrames();
     }
 }
@@ -1,20 +1,63 @@
 package frc.com.team6560.lib.hardware.motors;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.OpenLoopRampsConfigs;
-import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.SoftwareLimitSwitchConfigs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.PositionVoltage;
 import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import frc.com.team6560.lib.hardware.ConfigResult;
+import frc.com.team6560.lib.hardware.DeviceInitializer;
+import frc.com.team6560.lib.time.RobotTime;
+
 /**
  * Class representing a TalonFX motor implementation of the MotorIO interface.
  * Provides methods to control the motor and read its state.
  */
 public class TalonFXMotor implements MotorIO {
+    private static final double CONFIG_TIMEOUT_SECONDS = 0.25;
+    private static final int CONFIG_MAX_ATTEMPTS = 3;
+    // Approximate status frame rate of the signals read by this class at Phoenix 6 default update frequencies.
+    public static final double DEFAULT_STATUS_FRAMES_PER_SECOND = 300.0;
+
     private TalonFX talonFX; 
+    // Only modified on the caller's thread. Other threads apply snapshots of it.
+    private final TalonFXConfiguration config;
+    private volatile ConfigResult configResult;
+    private CompletableFuture<ConfigResult> configFuture;
+    private boolean built;
+
+    private final StatusSignal<Double> dutyCycleSignal;
+    private final StatusSignal<Double> velocitySignal;
+    private final StatusSignal<Double> positionSignal;
+    private final StatusSignal<Double> motorVoltageSignal;
+    private final StatusSignal<Double> supplyCurrentSignal;
+    private final StatusSignal<Double> statorCurrentSignal;
+    private volatile BaseStatusSignal[] activeSignals;
+    private volatile MotorSignalProfile signalProfile;
+
+    private final MotorInputs inputs = new MotorInputs();
+    private final SetpointFilter setpointFilter = new SetpointFilter();
+
+    // Control requests are reused between calls to keep the control path allocation-free.
+    private final DutyCycleOut dutyCycleRequest = new DutyCycleOut(0.0);
+    private final VelocityVoltage velocityRequest = new VelocityVoltage(0.0);
+    private final VoltageOut voltageRequest = new VoltageOut(0.0);
+    private final PositionVoltage positionRequest = new PositionVoltage(0.0);
+    private final MotionMagicVoltage motionMagicRequest = new MotionMagicVoltage(0.0);
 
     /**
      * Constructor to initialize the TalonFX motor with a TalonFX object.
@@ -22,7 +65,26 @@ public class TalonFXMotor implements MotorIO {
      */
     public TalonFXMotor(int CANId) {
         this.talonFX = new TalonFX(CANId);
-        talonFX.getConfigurator().apply(new TalonFXConfiguration());
+        this.config = new TalonFXConfiguration();
+        this.configResult = null;
+        this.configFuture = CompletableFuture.completedFuture(null);
+        this.built = false;
+
+        this.dutyCycleSignal = talonFX.getDutyCycle();
+        this.velocitySignal = talonFX.getVelocity();
+        this.positionSignal = talonFX.getPosition();
+        this.motorVoltageSignal = talonFX.getMotorVoltage();
+        this.supplyCurrentSignal = talonFX.getSupplyCurrent();
+        this.statorCurrentSignal = talonFX.getStatorCurrent();
+        this.activeSignals = new BaseStatusSignal[] {
+            dutyCycleSignal,
+            velocitySignal,
+            positionSignal,
+            motorVoltageSignal,
+            supplyCurrentSignal,
+            statorCurrentSignal
+        };
+        this.signalProfile = null;
     }
 
     /**
@@ -31,9 +93,7 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withOpenLoopRampConfig(double rampPeriod) {
-        var config = new OpenLoopRampsConfigs();
-        config.DutyCycleOpenLoopRampPeriod = rampPeriod;
-        talonFX.getConfigurator().apply(config);
+        config.OpenLoopRamps.DutyCycleOpenLoopRampPeriod = rampPeriod;
         return this;
     }
 
@@ -45,11 +105,39 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withPIDProfile(double kP, double kI, double kD) {
-        var config = new Slot0Configs();
-        config.kP = kP;
-        config.kI = kI;
-        config.kD = kD;
-        talonFX.getConfigurator().apply(config);
+        config.Slot0.kP = kP;
+        config.Slot0.kI = kI;
+        config.Slot0.kD = kD;
+        return this;
+    }
+
+    /**
+     * Initialize motor with Motion Magic constraints used by setPositionProfiled().
+     * @param cruiseVelocity Maximum velocity in RPM.
+     * @param acceleration Maximum acceleration in RPM per second.
+     * @param jerk Maximum jerk in RPM per second squared, or 0 for a trapezoidal profile.
+     * @return TalonFXMotor for chainability.
+     */
+    public TalonFXMotor withMotionProfile(double cruiseVelocity, double acceleration, double jerk) {
+        config.MotionMagic.MotionMagicCruiseVelocity = cruiseVelocity / 60;
+        config.MotionMagic.MotionMagicAcceleration = acceleration / 60;
+        config.MotionMagic.MotionMagicJerk = jerk / 60;
+        return this;
+    }
+
+    /**
+     * Initialize motor with closed-loop feedforward, applied on top of PID output.
+     * @param kS Static friction voltage, applied in the direction of motion.
+     * @param kV Volts per RPM of target velocity.
+     * @param kA Volts per RPM per second of target acceleration.
+     * @param kG Constant gravity compensation voltage.
+     * @return TalonFXMotor for chainability.
+     */
+    public TalonFXMotor withFeedforward(double kS, double kV, double kA, double kG) {
+        config.Slot0.kS = kS;
+        config.Slot0.kV = kV * 60;
+        config.Slot0.kA = kA * 60;
+        config.Slot0.kG = kG;
         return this;
     }
 
@@ -59,10 +147,8 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withCurrentLimit(double currentLimit) {
-        var config = new CurrentLimitsConfigs();
-        config.SupplyCurrentLimit = currentLimit;
-        config.StatorCurrentLimitEnable = true;
-        talonFX.getConfigurator().apply(config);
+        config.CurrentLimits.SupplyCurrentLimit = currentLimit;
+        config.CurrentLimits.SupplyCurrentLimitEnable = true;
         return this;
     }
 
@@ -72,7 +158,8 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withForwardSoftLimit(float maxRotations) {
-        this.setForwardSoftLimit(maxRotations);
+        config.SoftwareLimitSwitch.ForwardSoftLimitEnable = true;
+        config.SoftwareLimitSwitch.ForwardSoftLimitThreshold = maxRotations;
         return this;
     }
 
@@ -82,7 +169,8 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withReverseSoftLimit(float maxRotations) {
-        this.setReverseSoftLimit(maxRotations);
+        config.SoftwareLimitSwitch.ReverseSoftLimitEnable = true;
+        config.SoftwareLimitSwitch.ReverseSoftLimitThreshold = maxRotations;
         return this;
     }
 
@@ -91,7 +179,27 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withReversedMotor() {
-        this.setReversed(true);
+        config.MotorOutput.Inverted = InvertedValue.Clockwise_Positive;
+        return this;
+    }
+
+    /**
+     * Initialize motor with a setpoint filter that drops control requests identical to the last one sent.
+     * @param keepaliveSeconds Interval after which an unchanged request is resent anyway.
+     * @return TalonFXMotor for chainability.
+     */
+    public TalonFXMotor withSetpointFilter(double keepaliveSeconds) {
+        setpointFilter.enable(keepaliveSeconds);
+        return this;
+    }
+
+    /**
+     * Initialize motor with a signal profile, applied when build() is called.
+     * @param profile Rate tier of each signal.
+     * @return TalonFXMotor for chainability.
+     */
+    public TalonFXMotor withSignalProfile(MotorSignalProfile profile) {
+        this.signalProfile = profile;
         return this;
     }
 
@@ -100,7 +208,7 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withBrakeMode() {
-        this.setBrakeMode();
+        config.MotorOutput.NeutralMode = NeutralModeValue.Brake;
         return this;
     }
 
@@ -109,35 +217,144 @@ public class TalonFXMotor implements MotorIO {
      * @return TalonFXMotor for chainability.
      */
     public TalonFXMotor withCoastMode() {
-        this.setBrakeMode();
+        config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
         return this;
     }
 
+    /**
+     * Apply all configuration collected by the builder methods in a single call, retrying on failure.
+     * Configuration runs in the background on the DeviceInitializer; call after full initialization.
+     * @return TalonFXMotor for chainability.
+     */
+    public TalonFXMotor build() {
+        built = true;
+        TalonFXConfiguration snapshot = copyOf(config);
+        configFuture = DeviceInitializer.getInstance().submit(getName(), () -> applyConfiguration(snapshot));
+        return this;
+    }
+
+    /**
+     * Wait for configuration started by build() to finish.
+     * @return Configuration result.
+     */
+    public ConfigResult awaitConfiguration() {
+        return configFuture.join();
+    }
+
+    /**
+     * Throw if build() has not been called, since the motor would otherwise run with whatever configuration is stored
+     * in its flash.
+     */
+    private void requireBuilt() {
+        if (!built) {
+            throw new IllegalStateException(getName() + " must be built before control is requested");
+        }
+    }
+
+    /**
+     * Apply a configuration change made by a setter. Before build(), the change is only kept in the configuration that
+     * build() applies. Afterwards, it is applied once configuration started by build() and earlier changes have
+     * finished, so that the full configuration cannot overwrite it.
+     * @param apply Applies a snapshot of the changed configuration.
+     */
+    private void applyAfterBuild(Runnable apply) {
+        if (built) {
+            configFuture = configFuture.whenComplete((result, error) -> apply.run());
+        }
+    }
+
+    private static TalonFXConfiguration copyOf(TalonFXConfiguration configs) {
+        TalonFXConfiguration copy = new TalonFXConfiguration();
+        copy.deserialize(configs.serialize());
+        return copy;
+    }
+
+    private static MotorOutputConfigs copyOf(MotorOutputConfigs configs) {
+        MotorOutputConfigs copy = new MotorOutputConfigs();
+        copy.deserialize(configs.serialize());
+        return copy;
+    }
+
+    private static SoftwareLimitSwitchConfigs copyOf(SoftwareLimitSwitchConfigs configs) {
+        SoftwareLimitSwitchConfigs copy = new SoftwareLimitSwitchConfigs();
+        copy.deserialize(configs.serialize());
+        return copy;
+    }
+
+    private ConfigResult applyConfiguration(TalonFXConfiguration snapshot) {
+        long start = System.nanoTime();
+        StatusCode status;
+        int attempts = 0;
+        do {
+            attempts++;
+            status = talonFX.getConfigurator().apply(snapshot, CONFIG_TIMEOUT_SECONDS);
+        } while (!status.isOK() && attempts < CONFIG_MAX_ATTEMPTS);
+        if (status.isOK() && signalProfile != null) {
+            status = applySignalProfile(signalProfile);
+        }
+        configResult = new ConfigResult(getName(), status.isOK(), attempts, (System.nanoTime() - start) * 1.0E-9, status.toString());
+        return configResult;
+    }
+
     // Accessor methods
 
+    /**
+     * Gets a name identifying the motor in reports.
+     * @return Device name including CAN ID.
+     */
+    public String getName() {
+        return "TalonFX " + talonFX.getDeviceID();
+    }
+
+    /**
+     * Gets the result of the last configuration started by build().
+     * @return Configuration result, or null if configuration has not finished.
+     */
+    public ConfigResult getConfigResult() {
+        return configResult;
+    }
+
+    @Override
+    public void updateInputs() {
+        inputs.connected = BaseStatusSignal.refreshAll(activeSignals).isOK();
+        inputs.dutyCyclePercent = dutyCycleSignal.getValueAsDouble();
+        inputs.velocityRPM = velocitySignal.getValueAsDouble() * 60.0;
+        inputs.positionRotations = positionSignal.getValueAsDouble();
+        inputs.appliedVolts = motorVoltageSignal.getValueAsDouble();
+        inputs.currentSupplyAmps = supplyCurrentSignal.getValueAsDouble();
+        inputs.currentStatorAmps = statorCurrentSignal.getValueAsDouble();
+        inputs.timestampSeconds = RobotTime.getTimestampSeconds();
+        inputs.latencySeconds = velocitySignal.getTimestamp().getLatency();
+    }
+
+    @Override
+    public MotorInputs getInputs() {
+        return inputs;
+    }
+
     @Override
     public double getDutyCyclePercent() {
-        return talonFX.get();
+        return inputs.dutyCyclePercent;
     }
 
     @Override
     public double getVelocityRPM() {
-        return talonFX.getVelocity().getValueAsDouble() * 60.0;
+        return inputs.velocityRPM;
     }
 
     @Override
     public double getPositionRotations() {
-        return talonFX.getPosition().getValueAsDouble(); 
+        return inputs.positionRotations;
     }
 
     @Override
     public double getAppliedVolts() {
-        return talonFX.getMotorVoltage().getValueAsDouble(); 
+        return inputs.appliedVolts;
     }
 
     @Override
     public double getCurrentSupplyAmps() {
-        return talonFX.getSupplyCurrent().getValueAsDouble(); 
+        return inputs.currentSupplyAmps;
     }
 
     /**
@@ -145,19 +362,24 @@ public class TalonFXMotor implements MotorIO {
      * @return current as a double.
      */
     public double getCurrentStatorAmps() {
-        return talonFX.getStatorCurrent().getValueAsDouble(); 
+        return inputs.currentStatorAmps;
     }
 
     // Setter methods
 
     @Override
     public void setReversed(boolean reversed) {
-        talonFX.setInverted(reversed);
+        config.MotorOutput.Inverted = reversed ? InvertedValue.Clockwise_Positive : InvertedValue.CounterClockwise_Positive;
+        MotorOutputConfigs motorOutput = copyOf(config.MotorOutput);
+        applyAfterBuild(() -> talonFX.getConfigurator().apply(motorOutput));
     }
 
     @Override
     public void setOpenLoopDutyCycle(double dutyCycle) {
-        talonFX.set(dutyCycle); // Duty cycle ranges from -1.0 to 1.0
+        requireBuilt();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.DUTY_CYCLE, dutyCycle)) {
+            talonFX.setControl(dutyCycleRequest.withOutput(dutyCycle)); // Duty cycle ranges from -1.0 to 1.0
+        }
     }
 
     @Override
@@ -172,37 +394,133 @@ public class TalonFXMotor implements MotorIO {
 
     @Override
     public void setVelocity(double targetVelocity) {
-        talonFX.setControl(new VelocityVoltage(targetVelocity / 60));
+        requireBuilt();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.VELOCITY, targetVelocity)) {
+            talonFX.setControl(velocityRequest.withVelocity(targetVelocity / 60));
+        }
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+        requireBuilt();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.VOLTAGE, volts)) {
+            talonFX.setControl(voltageRequest.withOutput(volts));
+        }
+    }
+
+    @Override
+    public void setPosition(double targetRotations) {
+        requireBuilt();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.POSITION, targetRotations)) {
+            talonFX.setControl(positionRequest.withPosition(targetRotations));
+        }
+    }
+
+    @Override
+    public void setPositionProfiled(double targetRotations) {
+        requireBuilt();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.POSITION_PROFILED, targetRotations)) {
+            talonFX.setControl(motionMagicRequest.withPosition(targetRotations));
+        }
     }
 
     @Override
     public void setBrakeMode() {
-        talonFX.setNeutralMode(NeutralModeValue.Brake); 
+        config.MotorOutput.NeutralMode = NeutralModeValue.Brake;
+        MotorOutputConfigs motorOutput = copyOf(config.MotorOutput);
+        applyAfterBuild(() -> talonFX.getConfigurator().apply(motorOutput));
     }
 
     @Override
     public void setCoastMode() {
-        talonFX.setNeutralMode(NeutralModeValue.Coast);
+        config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
+        MotorOutputConfigs motorOutput = copyOf(config.MotorOutput);
+        applyAfterBuild(() -> talonFX.getConfigurator().apply(motorOutput));
     }
 
     @Override
     public void setForwardSoftLimit(float maxRotations) {
-        var config = new SoftwareLimitSwitchConfigs();
-        config.ForwardSoftLimitEnable = true;
-        config.ForwardSoftLimitThreshold = maxRotations;
-        talonFX.getConfigurator().apply(config);
+        withForwardSoftLimit(maxRotations);
+        SoftwareLimitSwitchConfigs softLimits = copyOf(config.SoftwareLimitSwitch);
+        applyAfterBuild(() -> talonFX.getConfigurator().apply(softLimits));
     }
 
     @Override
     public void setReverseSoftLimit(float maxRotations) {
-        var config = new SoftwareLimitSwitchConfigs();
-        config.ReverseSoftLimitEnable = true;
-        config.ReverseSoftLimitThreshold = maxRotations;
-        talonFX.getConfigurator().apply(config);
+        withReverseSoftLimit(maxRotations);
+        SoftwareLimitSwitchConfigs softLimits = copyOf(config.SoftwareLimitSwitch);
+        applyAfterBuild(() -> talonFX.getConfigurator().apply(softLimits));
     }
 
     @Override
     public void stop() {
-        talonFX.stopMotor();
+        if (setpointFilter.shouldSend(SetpointFilter.RequestType.NEUTRAL, 0.0)) {
+            talonFX.stopMotor();
+        }
+    }
+
+    @Override
+    public void setSignalProfile(MotorSignalProfile profile) {
+        this.signalProfile = profile;
+        applySignalProfile(profile);
+    }
+
+    @Override
+    public MotorSignalProfile getSignalProfile() {
+        return signalProfile;
+    }
+
+    @Override
+    public CompletableFuture<?> getConfigFuture() {
+        return configFuture;
+    }
+
+    /**
+     * Set update frequencies of all signals in profile and disable any signal that is not used.
+     * @param profile Rate tier of each signal.
+     * @return Status of the last failed call, or OK.
+     */
+    private StatusCode applySignalProfile(MotorSignalProfile profile) {
+        StatusSignal<?>[] signals = { dutyCycleSignal, velocitySignal, positionSignal, motorVoltageSignal, supplyCurrentSignal, statorCurrentSignal };
+        MotorSignalProfile.Rate[] rates = { profile.dutyCycle, profile.velocity, profile.position, profile.appliedVolts, profile.supplyCurrent, profile.statorCurrent };
+
+        StatusCode result = StatusCode.OK;
+        List<BaseStatusSignal> enabled = new ArrayList<>();
+        for (int i = 0; i < signals.length; i++) {
+            if (rates[i] != MotorSignalProfile.Rate.OFF) {
+                StatusCode status = signals[i].setUpdateFrequency(rates[i].frequencyHz, CONFIG_TIMEOUT_SECONDS);
+                result = status.isOK() ? result : status;
+                enabled.add(signals[i]);
+            }
+        }
+        // Signals without an explicit update frequency are disabled.
+        StatusCode status = talonFX.optimizeBusUtilization(CONFIG_TIMEOUT_SECONDS);
+        result = status.isOK() ? result : status;
+
+        activeSignals = enabled.toArray(new BaseStatusSignal[0]);
+        return result;
+    }
+
+    @Override
+    public double getEstimatedStatusFramesPerSecond() {
+        MotorSignalProfile profile = signalProfile;
+        if (profile == null) {
+            return DEFAULT_STATUS_FRAMES_PER_SECOND;
+        }
+        // Phoenix 6 packs related signals into shared status frames, which are sent at the fastest rate requested for
+        // any of their signals. Like SparkMaxMotor, count frames rather than signals.
+        return MotorSignalProfile.Rate.max(profile.position, profile.velocity).frequencyHz
+            + MotorSignalProfile.Rate.max(profile.dutyCycle, profile.appliedVolts).frequencyHz
+            + MotorSignalProfile.Rate.max(profile.supplyCurrent, profile.statorCurrent).frequencyHz;
+    }
+
+    @Override
+    public long getSentControlFrames() {
+        return setpointFilter.getSentFrames();
+    }
+
+    @Override
+    public long getSuppressedControlFrames() {
+        return setpointFilter.getSuppressedFrames();
     }
 }
@@ -9,6 +9,7 @@ public class DigitalInputSensor {
     
     private DigitalInput sensor;
     private boolean reverseOutput;
+    private final DigitalInputSensorInputs inputs = new DigitalInputSensorInputs();
 
     /**
      * Initialize digital input sensor.
@@ -17,6 +18,7 @@ public class DigitalInputSensor {
     public DigitalInputSensor(int DIO_Port) {
         sensor = new DigitalInput(DIO_Port);
         reverseOutput = false;
+        updateInputs();
     }
 
     /**
@@ -25,15 +27,31 @@ public class DigitalInputSensor {
      */
     public DigitalInputSensor withReversedOutput() {
         reverseOutput = true;
+        updateInputs();
         return this;
     }
 
     /**
-     * Get sensor value
+     * Refreshes the input snapshot from the sensor. Call once per loop before reading values.
+     */
+    public void updateInputs() {
+        inputs.value = reverseOutput ? !sensor.get() : sensor.get();
+    }
+
+    /**
+     * Gets the input snapshot taken during the last call to updateInputs().
+     * @return The most recent sensor inputs.
+     */
+    public DigitalInputSensorInputs getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Get sensor value from the last call to updateInputs().
      * @return Sensor reading
      */
     public boolean get() {
-        return reverseOutput ? !sensor.get() : sensor.get();
+        return inputs.value;
     }
 
 }
@@ -0,0 +1,23 @@
+package frc.com.team6560.lib.hardware.sensors;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * Snapshot of digital input sensor value, filled once per loop by {@link DigitalInputSensor#updateInputs()}.
+ * Logged with AdvantageKit, so that in replay the sensor returns the logged value.
+ */
+public class DigitalInputSensorInputs implements LoggableInputs {
+    /** Sensor reading, with reversed output already applied. */
+    public boolean value = false;
+
+    @Override
+    public void toLog(LogTable table) {
+        table.put("Value", value);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+        value = table.get("Value", value);
+    }
+}
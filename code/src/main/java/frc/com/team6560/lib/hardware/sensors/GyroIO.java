@@ -0,0 +1,20 @@
+package frc.com.team6560.lib.hardware.sensors;
+
+/**
+ * Generic interface for interacting with gyroscopes.
+ */
+public interface GyroIO {
+
+    /**
+     * Gets the yaw of the robot, counterclockwise positive. Drivetrain odometry samples this on its own thread,
+     * so main loop code should read the sampled yaw from GenericSwerve.getYawRadians() instead.
+     * @return Yaw in radians.
+     */
+    double getYawRadians();
+
+    /**
+     * Sets the current yaw of the robot to a specified value.
+     * @param yawRadians Yaw in radians, counterclockwise positive.
+     */
+    void setYaw(double yawRadians);
+}
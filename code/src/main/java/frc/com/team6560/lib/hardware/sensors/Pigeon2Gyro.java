@@ -0,0 +1,46 @@
+package frc.com.team6560.lib.hardware.sensors;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.Pigeon2;
+
+import frc.com.team6560.lib.hardware.PhoenixSignalSource;
+
+/**
+ * Class representing a Pigeon 2 implementation of the GyroIO interface.
+ * Yaw signals are refreshed by the odometry thread of the drivetrain using this gyro, so getYawRadians() does not
+ * refresh them.
+ */
+public class Pigeon2Gyro implements GyroIO, PhoenixSignalSource {
+
+    private final Pigeon2 pigeon;
+    private final StatusSignal<Double> yawSignal;
+    private final StatusSignal<Double> yawRateSignal;
+    private final BaseStatusSignal[] highRateSignals;
+
+    /**
+     * Initialize Pigeon 2 gyro.
+     * @param CANId The device's CAN ID.
+     */
+    public Pigeon2Gyro(int CANId) {
+        this.pigeon = new Pigeon2(CANId);
+        this.yawSignal = pigeon.getYaw();
+        this.yawRateSignal = pigeon.getAngularVelocityZWorld();
+        this.highRateSignals = new BaseStatusSignal[] { yawSignal, yawRateSignal };
+    }
+
+    @Override
+    public double getYawRadians() {
+        return Math.toRadians(BaseStatusSignal.getLatencyCompensatedValue(yawSignal, yawRateSignal));
+    }
+
+    @Override
+    public void setYaw(double yawRadians) {
+        pigeon.setYaw(Math.toDegrees(yawRadians));
+    }
+
+    @Override
+    public BaseStatusSignal[] getHighRateSignals() {
+        return highRateSignals;
+    }
+}
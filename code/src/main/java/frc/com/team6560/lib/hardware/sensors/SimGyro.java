@@ -0,0 +1,33 @@
+package frc.com.team6560.lib.hardware.sensors;
+
+/**
+ * Class representing a simulated implementation of the GyroIO interface.
+ * Yaw is integrated from the angular velocity of the drivetrain, so it can also stand in for a gyro on robots without one.
+ */
+public class SimGyro implements GyroIO {
+
+    private volatile double yawRadians;
+
+    public SimGyro() {
+        this.yawRadians = 0.0;
+    }
+
+    /**
+     * Advance the simulated yaw.
+     * @param angularVelocity Angular velocity of the drivetrain in radians per second, counterclockwise positive.
+     * @param dtSeconds Time to advance by in seconds.
+     */
+    public void update(double angularVelocity, double dtSeconds) {
+        yawRadians += angularVelocity * dtSeconds;
+    }
+
+    @Override
+    public double getYawRadians() {
+        return yawRadians;
+    }
+
+    @Override
+    public void setYaw(double yawRadians) {
+        this.yawRadians = yawRadians;
+    }
+}
@@ -5,6 +5,9 @@ import com.ctre.phoenix.led.CANdle;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
+import frc.com.team6560.lib.hardware.CanBusMonitor;
+import frc.com.team6560.lib.util.NetworkTable.TelemetryLevel;
+
 import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
 
 /**
@@ -13,18 +16,23 @@ import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
 public class Lights extends SubsystemBase {
     
     private static final double DEFAULT_BRIGHTNESS = 0.7;
+    // Approximate rate of CANdle status frames at Phoenix 5 defaults.
+    private static final double CANDLE_STATUS_FRAMES_PER_SECOND = 10.0;
 
     private final CANdle candle;
+    private long sentControlFrames;
 
     /**
-     * Initialize LED light subsystem. Displays current consumed by CANdle on Shuffleboard.
+     * Initialize LED light subsystem. Displays current consumed by CANdle on Shuffleboard and registers CANdle with the CAN bus monitor.
      * @param name Subsystem name to display on Shuffleboard
      * @param canID CAN ID for Phoenix CANdle
      */
     public Lights(String name, int canID) {
         this.candle = new CANdle(canID);
+        this.sentControlFrames = 0;
         candle.configBrightnessScalar(DEFAULT_BRIGHTNESS);
-        ntDispTab(name).add("CANDle current", this::getCurrent);
+        ntDispTab(name, TelemetryLevel.DEBUG).add("CANDle current", this::getCurrent);
+        CanBusMonitor.getInstance().register(name, "CANdle", () -> CANDLE_STATUS_FRAMES_PER_SECOND, () -> sentControlFrames);
     }
 
     /**
@@ -44,6 +52,7 @@ public class Lights extends SubsystemBase {
             throw new IllegalArgumentException("Brightness value must be in range [0, 1]");
         }
         candle.configBrightnessScalar(brightness);
+        sentControlFrames++;
     }
 
     /**
@@ -52,6 +61,7 @@ public class Lights extends SubsystemBase {
      */
     public void setColor(Color color){
         candle.setLEDs((int)(color.red *255),(int)(color.green *255), (int)(color.blue *255));
+        sentControlFrames++;
     }
 
     /**
@@ -64,7 +74,8 @@ public class Lights extends SubsystemBase {
         if (r < 0 || r > 255 || g < 0 || g > 255 || b < 0 || b > 255) {
             throw new IllegalArgumentException("Color values must be in range [0, 255]");       
         }
-        candle.setLEDs(r, g, b);      
+        candle.setLEDs(r, g, b);
+        sentControlFrames++;
     }
 
 }
@@ -0,0 +1,190 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+
+import frc.com.team6560.lib.controls.GenericControlsIO;
+
+import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
+
+/**
+ * Generic pose estimator which fuses swerve odometry and gyro yaw from GenericSwerve with vision measurements.
+ * Every odometry sample taken by the drivetrain's odometry thread is applied in order, and vision measurements are
+ * applied at their capture time, correcting for latency.
+ * Must be created after the GenericSwerve it uses, so that odometry samples are collected before they are read each loop.
+ */
+public class GenericPoseEstimator extends SubsystemBase {
+
+    private static final double DEFAULT_STATE_STD_DEV_METERS = 0.1;
+    private static final double DEFAULT_STATE_STD_DEV_RADIANS = 0.1;
+    private static final double DEFAULT_VISION_STD_DEV_METERS = 0.9;
+    private static final double DEFAULT_VISION_STD_DEV_RADIANS = 0.9;
+    // Two seconds of history at the maximum odometry frequency.
+    private static final int POSE_HISTORY_CAPACITY = 512;
+
+    private final GenericSwerve swerve;
+    private final SwerveDrivePoseEstimator poseEstimator;
+
+    // Reused for every odometry sample. Only the immutable Rotation2d of each position is replaced.
+    private final SwerveModulePosition[] samplePositions;
+
+    private final PoseHistoryBuffer poseHistory;
+
+    private Pose2d pose;
+
+    /**
+     * Initialize pose estimator with default standard deviations.
+     * @param name Subsystem name to display on Shuffleboard.
+     * @param swerve Drivetrain supplying odometry samples.
+     */
+    public GenericPoseEstimator(String name, GenericSwerve swerve) {
+        this(
+            name,
+            swerve,
+            DEFAULT_STATE_STD_DEV_METERS,
+            DEFAULT_STATE_STD_DEV_RADIANS,
+            DEFAULT_VISION_STD_DEV_METERS,
+            DEFAULT_VISION_STD_DEV_RADIANS
+        );
+    }
+
+    /**
+     * Initialize pose estimator.
+     * @param name Subsystem name to display on Shuffleboard.
+     * @param swerve Drivetrain supplying odometry samples.
+     * @param stateStdDevMeters Standard deviation of odometry x and y, in meters.
+     * @param stateStdDevRadians Standard deviation of odometry heading, in radians.
+     * @param visionStdDevMeters Default standard deviation of vision x and y, in meters.
+     * @param visionStdDevRadians Default standard deviation of vision heading, in radians.
+     */
+    public GenericPoseEstimator(String name, GenericSwerve swerve, double stateStdDevMeters, double stateStdDevRadians, double visionStdDevMeters, double visionStdDevRadians) {
+        this.swerve = swerve;
+        this.samplePositions = new SwerveModulePosition[swerve.getModulePositions().length];
+        for (int i = 0; i < samplePositions.length; i++) {
+            samplePositions[i] = new SwerveModulePosition();
+        }
+        this.poseEstimator = new SwerveDrivePoseEstimator(
+            swerve.getKinematics(),
+            new Rotation2d(swerve.getYawRadians()),
+            swerve.getModulePositions(),
+            new Pose2d(),
+            VecBuilder.fill(stateStdDevMeters, stateStdDevMeters, stateStdDevRadians),
+            VecBuilder.fill(visionStdDevMeters, visionStdDevMeters, visionStdDevRadians)
+        );
+        this.pose = poseEstimator.getEstimatedPosition();
+        this.poseHistory = new PoseHistoryBuffer(POSE_HISTORY_CAPACITY);
+
+        ntDispTab(name)
+            .add("X (m)", () -> pose.getX())
+            .add("Y (m)", () -> pose.getY())
+            .add("Heading (deg)", () -> pose.getRotation().getDegrees())
+            .addStruct("Pose", Pose2d.struct, () -> pose);
+    }
+
+    @Override
+    public void periodic() {
+        for (int i = 0; i < swerve.getOdometrySampleCount(); i++) {
+            OdometrySample sample = swerve.getOdometrySample(i);
+            for (int j = 0; j < samplePositions.length; j++) {
+                samplePositions[j].distanceMeters = sample.drivePositionsMeters[j];
+                samplePositions[j].angle = new Rotation2d(sample.steerAnglesRadians[j]);
+            }
+            Pose2d samplePose = poseEstimator.updateWithTime(sample.timestampSeconds, new Rotation2d(sample.yawRadians), samplePositions);
+            poseHistory.add(sample.timestampSeconds, samplePose.getX(), samplePose.getY(), samplePose.getRotation().getRadians());
+        }
+        pose = poseEstimator.getEstimatedPosition();
+    }
+
+    // Accessors
+
+    /**
+     * Get estimated pose of robot on the field.
+     * @return Estimated pose.
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * Get interpolated estimated pose at a past time, as it was estimated at that time.
+     * Safe to call from any thread.
+     * @param timestampSeconds FPGA time to look up, in seconds.
+     * @param out Array of length 3 filled with x (meters), y (meters) and heading (radians).
+     * @return False if the time is older than the pose history, in which case out is unchanged.
+     */
+    public boolean getPoseAt(double timestampSeconds, double[] out) {
+        return poseHistory.sample(timestampSeconds, out);
+    }
+
+    /**
+     * Get history of estimated poses, for sharing with other threads.
+     * @return Pose history buffer.
+     */
+    public PoseHistoryBuffer getPoseHistory() {
+        return poseHistory;
+    }
+
+    // Modifiers
+
+    /**
+     * Add a vision measurement using the default vision standard deviations.
+     * @param visionPose Robot pose measured by vision.
+     * @param timestampSeconds FPGA time at which the measurement was captured, in seconds.
+     */
+    public void addVisionMeasurement(Pose2d visionPose, double timestampSeconds) {
+        poseEstimator.addVisionMeasurement(visionPose, timestampSeconds);
+    }
+
+    /**
+     * Add a vision measurement with its own standard deviations, for example scaled by target distance.
+     * @param visionPose Robot pose measured by vision.
+     * @param timestampSeconds FPGA time at which the measurement was captured, in seconds.
+     * @param stdDevMeters Standard deviation of measured x and y, in meters.
+     * @param stdDevRadians Standard deviation of measured heading, in radians.
+     */
+    public void addVisionMeasurement(Pose2d visionPose, double timestampSeconds, double stdDevMeters, double stdDevRadians) {
+        poseEstimator.addVisionMeasurement(visionPose, timestampSeconds, VecBuilder.fill(stdDevMeters, stdDevMeters, stdDevRadians));
+    }
+
+    /**
+     * Reset estimated pose to a given pose.
+     * @param newPose Pose to reset to.
+     */
+    public void resetGlobalPose(Pose2d newPose) {
+        poseEstimator.resetPosition(new Rotation2d(swerve.getYawRadians()), swerve.getModulePositions(), newPose);
+        pose = poseEstimator.getEstimatedPosition();
+        poseHistory.clear();
+    }
+
+    /**
+     * Reset estimated heading to zero, keeping the estimated position.
+     */
+    public void resetHeading() {
+        resetGlobalPose(new Pose2d(pose.getTranslation(), new Rotation2d()));
+    }
+
+    /**
+     * Bind driveResetGlobalPose() to reset pose to the origin and driveResetYaw() to reset heading.
+     * @param controls Controls to bind.
+     */
+    public void bindResetControls(GenericControlsIO controls) {
+        bindResetControls(controls, new Pose2d());
+    }
+
+    /**
+     * Bind driveResetGlobalPose() to reset pose to a given pose and driveResetYaw() to reset heading.
+     * Resets also work while the robot is disabled.
+     * @param controls Controls to bind.
+     * @param resetPose Pose to reset to.
+     */
+    public void bindResetControls(GenericControlsIO controls, Pose2d resetPose) {
+        new Trigger(controls::driveResetGlobalPose).onTrue(Commands.runOnce(() -> resetGlobalPose(resetPose)).ignoringDisable(true));
+        new Trigger(controls::driveResetYaw).onTrue(Commands.runOnce(this::resetHeading).ignoringDisable(true));
+    }
+}
@@ -1,32 +1,46 @@
 package frc.com.team6560.lib.subsystems.drivetrain;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInLayouts;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
-import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardLayout;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 import com.swervedrivespecialties.swervelib.SdsModuleConfigurations;
+import com.swervedrivespecialties.swervelib.MechanicalConfiguration;
 import com.swervedrivespecialties.swervelib.MkModuleConfiguration;
 import com.swervedrivespecialties.swervelib.MkSwerveModuleBuilder;
-import com.swervedrivespecialties.swervelib.SwerveModule;
 import com.swervedrivespecialties.swervelib.MotorType;
 
-import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.ctre.phoenix6.hardware.TalonFX;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkMax;
+import org.littletonrobotics.junction.Logger;
 
-import java.util.function.Function;
+import frc.com.team6560.lib.hardware.CanBusMonitor;
+import frc.com.team6560.lib.hardware.DeviceInitializer;
+import frc.com.team6560.lib.hardware.motors.SparkMaxMotor;
+import frc.com.team6560.lib.hardware.motors.TalonFXMotor;
+import frc.com.team6560.lib.hardware.sensors.GyroIO;
+import frc.com.team6560.lib.hardware.sensors.SimGyro;
+import frc.com.team6560.lib.util.NetworkTable.TelemetryLevel;
+import frc.com.team6560.lib.util.NetworkTable.TelemetryPublisher;
+
+import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
 
 /**
  * Generic swerve drive class that can be initialized with varying wheelbases, CAN IDs, and motor types.
+ * Module positions and gyro yaw are sampled on a dedicated odometry thread at the rate set in the config.
+ * Uses simulated swerve modules and gyro when running in simulation.
  */
 public class GenericSwerve extends SubsystemBase {
 
@@ -37,6 +51,11 @@ public class GenericSwerve extends SubsystemBase {
         BACK_RIGHT;
     }
 
+    public enum DriveMode {
+        OPEN_LOOP,
+        CLOSED_LOOP
+    }
+
     public static final SwerveModuleState[] DEFAULT_MODULE_STATES = new SwerveModuleState[] {
         new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)),
         new SwerveModuleState(0.0, Rotation2d.fromDegrees(-45.0)),
@@ -44,43 +63,141 @@ public class GenericSwerve extends SubsystemBase {
         new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0))
     };
 
+    // Angles of DEFAULT_MODULE_STATES in radians.
+    private static final double[] DEFAULT_MODULE_ANGLES = new double[] {
+        Math.toRadians(45.0),
+        Math.toRadians(-45.0),
+        Math.toRadians(-45.0),
+        Math.toRadians(45.0)
+    };
+
+    // Approximate rate of CANcoder status frames at Phoenix 6 defaults.
+    private static final double CANCODER_STATUS_FRAMES_PER_SECOND = 100.0;
+
     private final double maxVoltage;
 
     private final MotorType driveMotorType;
     private final MotorType steerMotorType;
 
+    // MK4i L2 gearing with the wheel diameter from the config, which may have been measured.
+    private final MechanicalConfiguration mechanicalConfiguration;
+    private final double driveCurrentLimit;
+    private final double driveBaseRadius;
+    // Drive voltage needed to produce one newton of force at the wheel, ignoring back-EMF.
+    private final double voltsPerNewton;
+
     private final SwerveDriveKinematics mKinematics;
+    private final SwerveKinematics kinematics;
+    private final SwerveSetpointGenerator setpointGenerator;
 
     private final double maxVelocity;
     private final double maxAngularVelocity;
 
-    private SwerveModule[] modules;
-
-    private ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Drivetrain");
+    private DriveMode driveMode;
+    private final double driveKP;
+    private final double driveKS;
+    private final double driveKV;
+    private final double driveKA;
+
+    private SwerveModuleIO[] modules;
+    private final long[] sentControlFrames;
+
+    private final GyroIO gyro;
+    private final OdometryThread odometryThread;
+    private final OdometrySample[] odometrySamples;
+    private final OdometryInputs odometryInputs;
+    private int odometrySampleCount;
+    private double yawRadians;
+
+    // Buffers reused every loop so that the kinematics path does not allocate.
+    private final double[] targetSpeeds;
+    private final double[] targetAngles;
+    private final double[] driveVoltages;
+    private final double[] measuredSpeeds;
+    private final double[] measuredAngles;
+    private final double[] measuredChassisSpeeds;
+    private final double[] setpointChassisSpeeds;
+    private final double[] previousTargetSpeeds;
+    private final double[] commandedVelocities;
+    private final double[] commandedAngles;
+    private final double[] velocityErrors;
+    private final double[] moduleForcesX;
+    private final double[] moduleForcesY;
+    private final double[] forceFeedforwards;
+    private boolean useForceFeedforward;
+    private final SwerveModuleState[] moduleStates;
+    private final SwerveModulePosition[] modulePositions;
+    private final String[] moduleLogKeys;
+    // Telemetry values, updated only when published.
+    private final SwerveModuleState[] setpointStates;
+    private final ChassisSpeeds measuredChassisSpeedsTelemetry;
 
     /**
      * Initialize a generic swerve drivetrian using a config and maximum voltage.
+     * Without a gyro, yaw is integrated from the measured module states.
      * @param config SwerveConfig which includes CAN IDs, wheelbase size, and motor types and offsets.
      * @param maxVoltage Maximum global voltage.
      */
     public GenericSwerve(SwerveConfig config, double maxVoltage) {
+        this(config, maxVoltage, new SimGyro());
+    }
+
+    /**
+     * Initialize a generic swerve drivetrian using a config, maximum voltage and gyro.
+     * @param config SwerveConfig which includes CAN IDs, wheelbase size, and motor types and offsets.
+     * @param maxVoltage Maximum global voltage.
+     * @param gyro Gyro used for odometry. Replaced by a simulated gyro in simulation.
+     */
+    public GenericSwerve(SwerveConfig config, double maxVoltage, GyroIO gyro) {
 
         this.maxVoltage = maxVoltage;
 
         this.driveMotorType = config.driveMotorType;
         this.steerMotorType = config.steerMotorType;
 
+        this.mechanicalConfiguration = new MechanicalConfiguration(
+            config.wheelDiameter,
+            SdsModuleConfigurations.MK4I_L2.getDriveReduction(),
+            SdsModuleConfigurations.MK4I_L2.isDriveInverted(),
+            SdsModuleConfigurations.MK4I_L2.getSteerReduction(),
+            SdsModuleConfigurations.MK4I_L2.isSteerInverted()
+        );
+        this.driveCurrentLimit = config.driveCurrentLimit;
+        this.driveBaseRadius = Math.hypot(config.trackwidth / 2.0, config.wheelbase / 2.0);
+        DCMotor driveMotorModel = (driveMotorType == MotorType.NEO) ? DCMotor.getNEO(1) : DCMotor.getFalcon500(1);
+        this.voltsPerNewton = config.wheelDiameter / 2.0 * mechanicalConfiguration.getDriveReduction()
+            / driveMotorModel.KtNMPerAmp * driveMotorModel.rOhms;
+
         this.mKinematics = new SwerveDriveKinematics(
             new Translation2d(config.trackwidth / 2.0, config.wheelbase / 2.0),
             new Translation2d(config.trackwidth / 2.0, -config.wheelbase / 2.0),
             new Translation2d(-config.trackwidth / 2.0, config.wheelbase / 2.0),
             new Translation2d(-config.trackwidth / 2.0, -config.wheelbase / 2.0)     
         );
+        this.kinematics = new SwerveKinematics(
+            new double[] { config.trackwidth / 2.0, config.trackwidth / 2.0, -config.trackwidth / 2.0, -config.trackwidth / 2.0 },
+            new double[] { config.wheelbase / 2.0, -config.wheelbase / 2.0, config.wheelbase / 2.0, -config.wheelbase / 2.0 }
+        );
 
         this.maxVelocity = config.maxVelocity;
         this.maxAngularVelocity = config.maxAngularVelocity;
 
-        this.modules = new SwerveModule[] {
+        this.driveMode = DriveMode.OPEN_LOOP;
+        this.driveKP = config.driveKP;
+        this.driveKS = config.driveKS;
+        this.driveKV = config.driveKV;
+        this.driveKA = config.driveKA;
+
+        this.setpointGenerator = new SwerveSetpointGenerator(
+            kinematics,
+            maxVelocity,
+            config.maxModuleAcceleration,
+            config.maxSteerVelocity,
+            TimedRobot.kDefaultPeriod
+        );
+
+        // Modules are configured concurrently since each one blocks on motor and encoder configuration.
+        List<CompletableFuture<SwerveModuleIO>> moduleFutures = List.of(
             createSwerveModule(
                 "FL Module", 
                 config.FLDriveCanID,
@@ -109,90 +226,464 @@ public class GenericSwerve extends SubsystemBase {
                 config.BREncoderCanID,
                 config.offsets.BROffset
             )
-        };
+        );
+
+        this.modules = new SwerveModuleIO[moduleFutures.size()];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = moduleFutures.get(i).join();
+        }
 
+        // Shuffleboard is not thread-safe, so module layouts are built here on the main thread once modules exist.
+        // They cannot be removed once built, so they follow the telemetry level at construction.
+        if (TelemetryPublisher.getInstance().isEnabled(TelemetryLevel.DEBUG)) {
+            String[] layoutNames = { "FL Module", "FR Module", "BL Module", "BR Module" };
+            for (int i = 0; i < modules.length; i++) {
+                if (modules[i] instanceof SdsSwerveModuleIO) {
+                    addModuleLayout(layoutNames[i], (SdsSwerveModuleIO) modules[i]);
+                }
+            }
+        }
+
+        // Each module carries a drive motor, a steer motor and a CANcoder.
+        this.sentControlFrames = new long[modules.length];
+        double moduleStatusFramesPerSecond = getDefaultStatusFramesPerSecond(driveMotorType)
+            + getDefaultStatusFramesPerSecond(steerMotorType)
+            + CANCODER_STATUS_FRAMES_PER_SECOND;
+        for (int i = 0; i < modules.length; i++) {
+            int index = i;
+            CanBusMonitor.getInstance().register(
+                "Drivetrain",
+                SwerveModuleIndex.values()[i] + " Module",
+                () -> moduleStatusFramesPerSecond,
+                () -> sentControlFrames[index]
+            );
+        }
+
+        this.targetSpeeds = new double[modules.length];
+        this.targetAngles = new double[modules.length];
+        this.driveVoltages = new double[modules.length];
+        this.measuredSpeeds = new double[modules.length];
+        this.measuredAngles = new double[modules.length];
+        this.measuredChassisSpeeds = new double[3];
+        this.setpointChassisSpeeds = new double[3];
+        this.previousTargetSpeeds = new double[modules.length];
+        this.commandedVelocities = new double[modules.length];
+        this.commandedAngles = new double[modules.length];
+        this.velocityErrors = new double[modules.length];
+        this.moduleForcesX = new double[modules.length];
+        this.moduleForcesY = new double[modules.length];
+        this.forceFeedforwards = new double[modules.length];
+        this.useForceFeedforward = false;
+        this.moduleStates = new SwerveModuleState[modules.length];
+        this.modulePositions = new SwerveModulePosition[modules.length];
+        this.moduleLogKeys = new String[modules.length];
+        this.setpointStates = new SwerveModuleState[modules.length];
+        this.measuredChassisSpeedsTelemetry = new ChassisSpeeds();
+        for (int i = 0; i < modules.length; i++) {
+            moduleStates[i] = new SwerveModuleState();
+            modulePositions[i] = new SwerveModulePosition();
+            setpointStates[i] = new SwerveModuleState();
+            moduleLogKeys[i] = "Drivetrain/Module/" + SwerveModuleIndex.values()[i];
+            targetAngles[i] = DEFAULT_MODULE_ANGLES[i];
+        }
+        setpointGenerator.reset(0.0, 0.0, 0.0, targetAngles);
+
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setDriveVelocityPID(config.driveKP, config.driveKI, config.driveKD);
+            int index = i;
+            ntDispTab("Drivetrain", TelemetryLevel.VERBOSE)
+                .add(SwerveModuleIndex.values()[i] + " Velocity Error (m/s)", () -> velocityErrors[index])
+                .add(SwerveModuleIndex.values()[i] + " Force Feedforward (V)", () -> forceFeedforwards[index]);
+        }
+        ntDispTab("Drivetrain", TelemetryLevel.DEBUG)
+            .add("Drive Mode", () -> driveMode.toString())
+            .addStructArray("Module States", SwerveModuleState.struct, this::getModuleStates)
+            .addStructArray("Module Setpoints", SwerveModuleState.struct, this::getSetpointStates)
+            .addStruct("Chassis Speeds", ChassisSpeeds.struct, this::getMeasuredChassisSpeedsTelemetry);
+
+        this.gyro = RobotBase.isSimulation() ? new SimGyro() : gyro;
+        this.odometryThread = new OdometryThread(modules, this.gyro, config.odometryFrequency);
+        this.odometrySamples = new OdometrySample[odometryThread.getCapacity()];
+        for (int i = 0; i < odometrySamples.length; i++) {
+            odometrySamples[i] = new OdometrySample(modules.length);
+        }
+        this.odometryInputs = new OdometryInputs(odometrySamples.length, modules.length);
+        this.odometrySampleCount = 0;
+        this.yawRadians = 0.0;
+        // In simulation, modules only move when updated by the main loop, so samples are taken there instead.
+        // Either way, one sample is taken now so that sampled values are available before the first loop.
+        if (RobotBase.isReal()) {
+            odometryThread.start();
+        } else {
+            odometryThread.sample();
+        }
+        for (SwerveModuleIO module : modules) {
+            module.updateInputs();
+        }
+        drainOdometrySamples();
+    }
+
+    /**
+     * Get estimated status frame rate of a swerve motor at vendor default rates.
+     * @param motorType Type of motor.
+     * @return Estimated status frames per second.
+     */
+    private static double getDefaultStatusFramesPerSecond(MotorType motorType) {
+        return (motorType == MotorType.NEO) ? SparkMaxMotor.DEFAULT_STATUS_FRAMES_PER_SECOND : TalonFXMotor.DEFAULT_STATUS_FRAMES_PER_SECOND;
     }
 
     /**
      * Create swerve module using given motor and encoder IDs and offset.
-     * @param subTabName Name of shuffleboard sub-tab for module.
+     * @param subTabName Name of module, used in the device initialization report.
      * @param driveMotorId Module drive motor ID.
      * @param steerMotorId Module steer motor ID.
      * @param steerEncoderId Module encoder ID.
      * @param steerOffset Steer offset for module.
-     * @return SDS swerve module with given parameters.
+     * @return Future of swerve module with given parameters, completed once the module is configured.
      */
-    private SwerveModule createSwerveModule(String subTabName, int driveMotorId, int steerMotorId, int steerEncoderId, double steerOffset) {
-        return new MkSwerveModuleBuilder(MkModuleConfiguration.getDefaultSteerNEO())
-            .withLayout(shuffleboardTab.getLayout(subTabName, BuiltInLayouts.kList)
-                .withSize(2, 4)
-                .withPosition(6, 0)
-            )
-            .withGearRatio(SdsModuleConfigurations.MK4I_L2)
+    private CompletableFuture<SwerveModuleIO> createSwerveModule(String subTabName, int driveMotorId, int steerMotorId, int steerEncoderId, double steerOffset) {
+        if (RobotBase.isSimulation()) {
+            return CompletableFuture.completedFuture(new SimSwerveModuleIO(
+                driveMotorId,
+                steerMotorId,
+                driveMotorType,
+                steerMotorType,
+                mechanicalConfiguration.getWheelDiameter(),
+                mechanicalConfiguration.getDriveReduction(),
+                mechanicalConfiguration.getSteerReduction()
+            ));
+        }
+        MkModuleConfiguration moduleConfiguration = MkModuleConfiguration.getDefaultSteerNEO();
+        moduleConfiguration.setDriveCurrentLimit(driveCurrentLimit);
+        // No SDS layout is given, since SDS would add its widgets on the DeviceInitializer thread.
+        MkSwerveModuleBuilder builder = new MkSwerveModuleBuilder(moduleConfiguration)
+            .withGearRatio(mechanicalConfiguration)
             .withDriveMotor(driveMotorType, driveMotorId)
             .withSteerMotor(steerMotorType, steerMotorId)
             .withSteerEncoderPort(steerEncoderId)
-            .withSteerOffset(steerOffset)
-            .build();
+            .withSteerOffset(steerOffset);
+        return DeviceInitializer.getInstance().submit(subTabName, () -> new SdsSwerveModuleIO(
+            builder.build(),
+            driveMotorType,
+            steerMotorType,
+            mechanicalConfiguration.getWheelDiameter(),
+            mechanicalConfiguration.getDriveReduction(),
+            mechanicalConfiguration.getSteerReduction()
+        ));
+    }
+
+    /**
+     * Add Shuffleboard layout displaying module angles and velocity, as SDS does when given a layout.
+     * @param name Name of layout.
+     * Angle and velocity come from the module's sampled inputs, since the odometry thread owns its drive signals.
+     * @param module SDS swerve module.
+     */
+    private static void addModuleLayout(String name, SdsSwerveModuleIO module) {
+        ShuffleboardLayout layout = Shuffleboard.getTab("Drivetrain").getLayout(name, BuiltInLayouts.kList)
+            .withSize(2, 4)
+            .withPosition(6, 0);
+        layout.addDouble("Absolute Encoder Angle", () -> Math.toDegrees(module.getModule().getSteerEncoder().getAbsoluteAngle()));
+        layout.addDouble("Current Angle", () -> Math.toDegrees(module.getSteerAngle()));
+        layout.addDouble("Current Velocity", module::getDriveVelocityMetersPerSecond);
+    }
+
+    @Override
+    public void periodic() {
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].updateInputs();
+            Logger.processInputs(moduleLogKeys[i], modules[i].getInputs());
+        }
+        if (gyro instanceof SimGyro) {
+            updateChassisSpeeds();
+            ((SimGyro) gyro).update(measuredChassisSpeeds[2], TimedRobot.kDefaultPeriod);
+        }
+        if (RobotBase.isSimulation()) {
+            odometryThread.sample();
+        }
+        drainOdometrySamples();
+    }
+
+    /**
+     * Collect odometry samples taken since the previous loop, log them, and update the sampled yaw.
+     * In replay, the logged samples replace the ones just taken.
+     */
+    private void drainOdometrySamples() {
+        odometryInputs.fromSamples(odometrySamples, odometryThread.drain(odometrySamples));
+        Logger.processInputs("Drivetrain/Odometry", odometryInputs);
+        odometrySampleCount = odometryInputs.toSamples(odometrySamples);
+        if (odometrySampleCount > 0) {
+            yawRadians = odometrySamples[odometrySampleCount - 1].yawRadians;
+        }
     }
 
     // Accessors
 
     /**
-     * Get linear and angular velocities of chassis.
+     * Get gyro used for odometry.
+     * @return Gyro.
+     */
+    public GyroIO getGyro() {
+        return gyro;
+    }
+
+    /**
+     * Get yaw of the robot from the latest odometry sample. Use this rather than reading the gyro directly,
+     * since the odometry thread owns the gyro's signals.
+     * @return Yaw in radians, counterclockwise positive.
+     */
+    public double getYawRadians() {
+        return yawRadians;
+    }
+
+    /**
+     * Get number of odometry samples taken since the previous loop.
+     * @return Sample count.
+     */
+    public int getOdometrySampleCount() {
+        return odometrySampleCount;
+    }
+
+    /**
+     * Get odometry sample taken since the previous loop. Samples are reused, so copy any values that need to be kept.
+     * @param index Sample index, oldest first, less than getOdometrySampleCount().
+     * @return Odometry sample.
+     */
+    public OdometrySample getOdometrySample(int index) {
+        if (index < 0 || index >= odometrySampleCount) {
+            throw new IllegalArgumentException("Odometry sample index out of range");
+        }
+        return odometrySamples[index];
+    }
+
+    /**
+     * Get number of odometry samples dropped because the main loop did not read them in time.
+     * @return Dropped sample count.
+     */
+    public long getDroppedOdometrySamples() {
+        return odometryThread.getDroppedSamples();
+    }
+
+    /**
+     * Get linear and angular velocities of chassis. Allocates a new object, so that callers such as PathPlanner may keep it.
      * @return ChassisSpeeds object containing chassis velocities.
      */
     public ChassisSpeeds getChassisSpeeds() {
-        return mKinematics.toChassisSpeeds(getModuleStates());
+        return getChassisSpeeds(new ChassisSpeeds());
     }
 
     /**
-     * Get position of each swerve module.
+     * Get linear and angular velocities of chassis without allocating.
+     * @param out ChassisSpeeds object to write chassis velocities into.
+     * @return The given object.
+     */
+    public ChassisSpeeds getChassisSpeeds(ChassisSpeeds out) {
+        updateChassisSpeeds();
+        out.vxMetersPerSecond = measuredChassisSpeeds[0];
+        out.vyMetersPerSecond = measuredChassisSpeeds[1];
+        out.omegaRadiansPerSecond = measuredChassisSpeeds[2];
+        return out;
+    }
+
+    /**
+     * Calculate chassis speeds from measured module speeds and angles into preallocated buffers.
+     */
+    private void updateChassisSpeeds() {
+        for (int i = 0; i < modules.length; i++) {
+            measuredSpeeds[i] = modules[i].getDriveVelocityMetersPerSecond();
+            measuredAngles[i] = modules[i].getSteerAngle();
+        }
+        kinematics.toChassisSpeeds(measuredSpeeds, measuredAngles, measuredChassisSpeeds);
+    }
+
+    /**
+     * Get position of each swerve module. The returned array is reused between calls.
+     * Rotation2d is immutable, so a new one is allocated for each module whose angle has changed.
      * @return List of swerve module positions.
      */
     public SwerveModulePosition[] getModulePositions() {
-        return getModuleData(SwerveModule::getPosition, SwerveModulePosition.class);
+        for (int i = 0; i < modules.length; i++) {
+            modulePositions[i].distanceMeters = modules[i].getDrivePositionMeters();
+            modulePositions[i].angle = updateRotation(modulePositions[i].angle, modules[i].getSteerAngle());
+        }
+        return modulePositions;
     }
     
     /**
-     * Get state of each swerve module.
+     * Get state of each swerve module. The returned array is reused between calls.
+     * Rotation2d is immutable, so a new one is allocated for each module whose angle has changed.
      * @return List of swerve module states.
      */
     public SwerveModuleState[] getModuleStates() {
-        return getModuleData(SwerveModule::getState, SwerveModuleState.class);
+        for (int i = 0; i < modules.length; i++) {
+            moduleStates[i].speedMetersPerSecond = modules[i].getDriveVelocityMetersPerSecond();
+            moduleStates[i].angle = updateRotation(moduleStates[i].angle, modules[i].getSteerAngle());
+        }
+        return moduleStates;
     }
 
     /**
-     * Generic method to retrieve a specific property of each swerve module.
-     * @param <T> Type of property to be extracted from swerve module
-     * @param extractor a function that extracts a property of type T from a given SwerveModule.
-     * @param type Type T used for creating array of appropriate type.
-     * @return Extracted properties of each swerve module, with each element corresponding to a module.
+     * Get last commanded state of each module, after flipping. Reuses a preallocated array for telemetry.
      */
-    private <T> T[] getModuleData(Function<SwerveModule, T> extractor, Class<T> type) {
-        @SuppressWarnings("unchecked")
-        T[] data = (T[]) java.lang.reflect.Array.newInstance(type, modules.length);
+    private SwerveModuleState[] getSetpointStates() {
         for (int i = 0; i < modules.length; i++) {
-            data[i] = extractor.apply(modules[i]);
+            setpointStates[i].speedMetersPerSecond = commandedVelocities[i];
+            setpointStates[i].angle = updateRotation(setpointStates[i].angle, commandedAngles[i]);
         }
-        return data;
+        return setpointStates;
+    }
+
+    /**
+     * Get measured chassis speeds. Reuses a preallocated object for telemetry.
+     */
+    private ChassisSpeeds getMeasuredChassisSpeedsTelemetry() {
+        return getChassisSpeeds(measuredChassisSpeedsTelemetry);
+    }
+
+    /**
+     * Get rotation for an angle, reusing the previous rotation if the angle has not changed.
+     * @param previous Previous rotation.
+     * @param radians New angle in radians.
+     * @return Rotation representing new angle.
+     */
+    private static Rotation2d updateRotation(Rotation2d previous, double radians) {
+        return (previous.getRadians() == radians) ? previous : new Rotation2d(radians);
+    }
+
+    /**
+     * Get kinematics of drivetrain, for use with WPILib classes such as pose estimators.
+     * @return WPILib swerve drive kinematics.
+     */
+    public SwerveDriveKinematics getKinematics() {
+        return mKinematics;
+    }
+
+    /**
+     * Get maximum velocity of each module.
+     * @return Maximum velocity in m/s.
+     */
+    public double getMaxVelocity() {
+        return maxVelocity;
+    }
+
+    /**
+     * Get kinematics operating on primitive arrays, for use by other drivetrain classes.
+     * @return Swerve kinematics.
+     */
+    SwerveKinematics getSwerveKinematics() {
+        return kinematics;
+    }
+
+    /**
+     * Get wheel diameter used for odometry.
+     * @return Wheel diameter in meters.
+     */
+    public double getWheelDiameter() {
+        return mechanicalConfiguration.getWheelDiameter();
+    }
+
+    /**
+     * Get distance from center of robot to each module.
+     * @return Drive base radius in meters.
+     */
+    public double getDriveBaseRadius() {
+        return driveBaseRadius;
+    }
+
+    /**
+     * Get stator current of a module's drive motor.
+     * @param module Module index.
+     * @return Drive current in amps.
+     */
+    public double getDriveCurrentAmps(SwerveModuleIndex module) {
+        return modules[module.ordinal()].getDriveCurrentAmps();
+    }
+
+    /**
+     * Get drive mode used by drive() and setChassisState().
+     * @return Drive mode.
+     */
+    public DriveMode getDriveMode() {
+        return driveMode;
+    }
+
+    /**
+     * Get difference between the velocity commanded to a module in the previous loop and the velocity measured in this
+     * loop, which is the response to that command. In CLOSED_LOOP mode, commanded velocities include cosine
+     * compensation for steering error.
+     * @param module Module index.
+     * @return Velocity error in m/s.
+     */
+    public double getVelocityError(SwerveModuleIndex module) {
+        return velocityErrors[module.ordinal()];
     }
 
     // Modifiers
 
+    /**
+     * Set drive mode used by drive() and setChassisState().
+     * Open-loop mode scales drive voltage with target speed. Closed-loop mode runs each drive motor's onboard velocity
+     * control using the drive gains from the config, which keeps wheel speed independent of battery voltage and load.
+     * @param mode Drive mode.
+     * @throws IllegalStateException If closed-loop drive gains are not configured.
+     */
+    public void setDriveMode(DriveMode mode) throws IllegalStateException {
+        if (mode == DriveMode.CLOSED_LOOP && driveKP == 0.0 && driveKV == 0.0) {
+            throw new IllegalStateException("Closed-loop drive gains are not configured.");
+        }
+        this.driveMode = mode;
+    }
+
     /**
      * Activate motors using given chassis speeds.
+     * Module setpoints are limited by the module acceleration and steering velocity limits in the config, so the
+     * drivetrain may take several loops to reach the requested speeds.
      * @param chassisSpeeds Object containing linear and angular velocities of drivetrain as a whole.
      */
     public void drive(ChassisSpeeds chassisSpeeds) {
-        SwerveModuleState[] speeds = DEFAULT_MODULE_STATES;
-        if (chassisSpeeds.vxMetersPerSecond != 0.0 || 
-            chassisSpeeds.vyMetersPerSecond != 0.0 || 
-            chassisSpeeds.omegaRadiansPerSecond != 0.0) {
-            speeds = mKinematics.toSwerveModuleStates(chassisSpeeds);
-            SwerveDriveKinematics.desaturateWheelSpeeds(speeds, maxVelocity);
+        useForceFeedforward = false;
+        generateAndApply(chassisSpeeds);
+    }
+
+    /**
+     * Activate motors using given chassis speeds, adding a feedforward for the force each module must apply.
+     * Used when following trajectories which carry accelerations, so that the drivetrain does not lag behind on
+     * high-acceleration segments. Replaces the kA term of the closed-loop feedforward.
+     * @param chassisSpeeds Object containing linear and angular velocities of drivetrain as a whole.
+     * @param forcesX Robot-relative forward force each module applies to the ground, in newtons.
+     * @param forcesY Robot-relative leftward force each module applies to the ground, in newtons.
+     */
+    public void drive(ChassisSpeeds chassisSpeeds, double[] forcesX, double[] forcesY) {
+        for (int i = 0; i < modules.length; i++) {
+            moduleForcesX[i] = forcesX[i];
+            moduleForcesY[i] = forcesY[i];
         }
-        setChassisState(speeds);
+        useForceFeedforward = true;
+        generateAndApply(chassisSpeeds);
+    }
+
+    /**
+     * Generate module setpoints for given chassis speeds and apply them.
+     * @param chassisSpeeds Object containing linear and angular velocities of drivetrain as a whole.
+     */
+    private void generateAndApply(ChassisSpeeds chassisSpeeds) {
+        setpointGenerator.generate(
+            chassisSpeeds.vxMetersPerSecond,
+            chassisSpeeds.vyMetersPerSecond,
+            chassisSpeeds.omegaRadiansPerSecond,
+            targetSpeeds,
+            targetAngles
+        );
+        if (setpointGenerator.isAtRest() &&
+            chassisSpeeds.vxMetersPerSecond == 0.0 &&
+            chassisSpeeds.vyMetersPerSecond == 0.0 &&
+            chassisSpeeds.omegaRadiansPerSecond == 0.0) {
+            for (int i = 0; i < modules.length; i++) {
+                targetSpeeds[i] = 0.0;
+                targetAngles[i] = DEFAULT_MODULE_ANGLES[i];
+            }
+            setpointGenerator.reset(0.0, 0.0, 0.0, targetAngles);
+        }
+        applyModuleTargets(targetSpeeds, targetAngles);
     }
 
     /**
@@ -200,15 +691,15 @@ public class GenericSwerve extends SubsystemBase {
      * @param states States of swerve modules.
      */
     public void setChassisState(SwerveModuleState[] states) {
-        double[] driveVoltages = new double[modules.length];
-        double[] angles = new double[modules.length];
-        
+        useForceFeedforward = false;
         for (int i = 0; i < states.length; i++) {
-            driveVoltages[i] = states[i].speedMetersPerSecond / maxVelocity * maxVoltage;
-            angles[i] = states[i].angle.getRadians();
+            targetSpeeds[i] = states[i].speedMetersPerSecond;
+            targetAngles[i] = states[i].angle.getRadians();
         }
-        
-        applyChassisStates(driveVoltages, angles);
+        kinematics.toChassisSpeeds(targetSpeeds, targetAngles, setpointChassisSpeeds);
+        setpointGenerator.reset(setpointChassisSpeeds[0], setpointChassisSpeeds[1], setpointChassisSpeeds[2], targetAngles);
+
+        applyModuleTargets(targetSpeeds, targetAngles);
     }
 
     /**
@@ -216,30 +707,89 @@ public class GenericSwerve extends SubsystemBase {
      * @param rotations Module angles in degrees.
      */
     public void setChassisState(double[] rotations) {
-        double[] driveVoltages = new double[modules.length];
-        double[] angles = new double[modules.length];
-        
         for (int i = 0; i < modules.length; i++) {
             driveVoltages[i] = 0.0;
-            angles[i] = Rotation2d.fromDegrees(rotations[i]).getRadians();
+            targetAngles[i] = Math.toRadians(rotations[i]);
         }
-        
-        applyChassisStates(driveVoltages, angles);
+        setpointGenerator.reset(0.0, 0.0, 0.0, targetAngles);
+
+        applyChassisStates(driveVoltages, targetAngles);
+    }
+
+    /**
+     * Run all drive motors at a given voltage with modules facing forward, for characterization.
+     * @param volts Drive motor voltage.
+     */
+    public void setDriveVoltage(double volts) {
+        for (int i = 0; i < modules.length; i++) {
+            driveVoltages[i] = volts;
+            targetAngles[i] = 0.0;
+        }
+        setpointGenerator.reset(0.0, 0.0, 0.0, targetAngles);
+
+        applyChassisStates(driveVoltages, targetAngles);
     }
 
     /**
      * Stop all swerve modules.
      */
     public void stopModules() {
-        double[] driveVoltages = new double[modules.length];
-        double[] angles = new double[modules.length];
-        
         for (int i = 0; i < modules.length; i++) {
             driveVoltages[i] = 0.0;
-            angles[i] = modules[i].getSteerAngle();
+            targetAngles[i] = modules[i].getSteerAngle();
         }
+        setpointGenerator.reset(0.0, 0.0, 0.0, targetAngles);
 
-        applyChassisStates(driveVoltages, angles);
+        applyChassisStates(driveVoltages, targetAngles);
+    }
+
+    /**
+     * Drive modules at target speeds and angles using the current drive mode.
+     * Modules are flipped here rather than in the module, so that velocity errors are measured in the direction the
+     * wheel actually turns.
+     * @param speeds Module speeds in m/s.
+     * @param angles Module angles in radians.
+     */
+    private void applyModuleTargets(double[] speeds, double[] angles) {
+        for (int i = 0; i < modules.length; i++) {
+            double speed = speeds[i];
+            double angle = angles[i];
+            double acceleration = (speeds[i] - previousTargetSpeeds[i]) / TimedRobot.kDefaultPeriod;
+            previousTargetSpeeds[i] = speeds[i];
+
+            double steerError = MathUtil.angleModulus(angle - modules[i].getSteerAngle());
+            if (Math.abs(steerError) > Math.PI / 2.0) {
+                angle += Math.PI;
+                speed = -speed;
+                acceleration = -acceleration;
+                steerError = MathUtil.angleModulus(steerError + Math.PI);
+            }
+            angle = MathUtil.angleModulus(angle);
+
+            // Measured velocity is the response to the previous loop's command, so compare before replacing it.
+            velocityErrors[i] = commandedVelocities[i] - modules[i].getDriveVelocityMetersPerSecond();
+
+            // Only the component of the module force along the direction the wheel is driven can be applied.
+            forceFeedforwards[i] = useForceFeedforward
+                ? voltsPerNewton * (moduleForcesX[i] * Math.cos(angle) + moduleForcesY[i] * Math.sin(angle))
+                : 0.0;
+
+            if (driveMode == DriveMode.CLOSED_LOOP) {
+                // Only drive with the component of the target velocity along the direction the wheel currently faces.
+                double velocity = speed * Math.cos(steerError);
+                double feedforward = driveKS * Math.signum(velocity) + driveKV * velocity
+                    + (useForceFeedforward ? forceFeedforwards[i] : driveKA * acceleration);
+                modules[i].setDriveVelocity(velocity, feedforward, angle);
+                commandedVelocities[i] = velocity;
+                // The SDS steer command also sends an open-loop drive frame, which the velocity request replaces.
+                sentControlFrames[i] += 3;
+            } else {
+                modules[i].set(speed / maxVelocity * maxVoltage + forceFeedforwards[i], angle);
+                commandedVelocities[i] = speed;
+                sentControlFrames[i] += 2;
+            }
+            commandedAngles[i] = angle;
+        }
     }
 
     /**
@@ -250,6 +800,13 @@ public class GenericSwerve extends SubsystemBase {
     private void applyChassisStates(double driveVoltages[], double angles[]) {
         for (int i = 0; i < modules.length; i++) {
             modules[i].set(driveVoltages[i], angles[i]);
+            // Drive and steer motors each receive a control frame.
+            sentControlFrames[i] += 2;
+            previousTargetSpeeds[i] = 0.0;
+            velocityErrors[i] = commandedVelocities[i] - modules[i].getDriveVelocityMetersPerSecond();
+            commandedVelocities[i] = 0.0;
+            commandedAngles[i] = angles[i];
+            forceFeedforwards[i] = 0.0;
         }
     }
 
@@ -258,31 +815,8 @@ public class GenericSwerve extends SubsystemBase {
      * @param brake True if braking, false if coasting.
      */
     public void setMotorBrakeMode(boolean brake) {
-
-        IdleMode SPARK_MAX_BREAK_MODE = IdleMode.kBrake;
-        IdleMode SPARK_MAX_COAST_MODE = IdleMode.kCoast;
-
-        NeutralModeValue TALONFX_BREAK_MODE = NeutralModeValue.Brake;
-        NeutralModeValue TALONFX_COAST_MODE = NeutralModeValue.Coast;
-
-        if (steerMotorType == MotorType.NEO) {
-            for (SwerveModule module : modules) {
-                ((CANSparkMax) module.getSteerMotor()).setIdleMode(SPARK_MAX_COAST_MODE);
-            }
-        } else {
-            for (SwerveModule module : modules) {
-                ((TalonFX) module.getSteerMotor()).setNeutralMode(TALONFX_COAST_MODE);
-            }
-        }
-
-        if (driveMotorType == MotorType.NEO) {
-            for (SwerveModule module : modules) {
-                ((CANSparkMax) module.getDriveMotor()).setIdleMode(brake ? SPARK_MAX_BREAK_MODE : SPARK_MAX_COAST_MODE);
-            }
-        } else {
-            for (SwerveModule module : modules) {
-                ((TalonFX) module.getDriveMotor()).setNeutralMode(brake ? TALONFX_BREAK_MODE : TALONFX_COAST_MODE);
-            }
+        for (SwerveModuleIO module : modules) {
+            module.setBrakeMode(brake);
         }
     }
 
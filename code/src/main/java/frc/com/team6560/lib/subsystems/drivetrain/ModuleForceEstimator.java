@@ -0,0 +1,123 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve.SwerveModuleIndex;
+import frc.com.team6560.lib.time.RobotTime;
+
+/**
+ * Estimates the force each swerve module must apply from the change in successive commanded chassis speeds, for
+ * path followers which only output velocities.
+ * Commanded speeds usually include the path follower's feedback correction, which differentiating amplifies, so the
+ * estimated accelerations are clamped and low-pass filtered. The feedforward therefore lags sharp acceleration changes.
+ * Robot mass is assumed to be shared evenly between modules, and the centripetal force of each module rotating about
+ * the robot center is ignored.
+ */
+public class ModuleForceEstimator {
+
+    // Speeds commanded further apart than this are treated as separate commands rather than a trajectory.
+    private static final double MAX_COMMAND_PERIOD_SECONDS = 0.1;
+
+    // Above what the wheels can transmit, so only differentiation noise is clamped.
+    private static final double MAX_LINEAR_ACCELERATION = 15.0; // m/s^2
+    private static final double MAX_ANGULAR_ACCELERATION = 40.0; // rad/s^2
+    private static final double ACCELERATION_TIME_CONSTANT_SECONDS = 0.06;
+
+    private final GenericSwerve swerve;
+    private final SwerveKinematics kinematics;
+    private final double massPerModule;
+
+    private final double[] forcesX;
+    private final double[] forcesY;
+
+    private boolean hasPrevious;
+    private double previousTimestamp;
+    private double previousVx;
+    private double previousVy;
+    private double previousOmega;
+    private double filteredAx;
+    private double filteredAy;
+    private double filteredAlpha;
+
+    /**
+     * Initialize force estimator.
+     * @param swerve Drivetrain to drive.
+     * @param robotMassKg Mass of robot including bumpers and battery, in kilograms.
+     */
+    public ModuleForceEstimator(GenericSwerve swerve, double robotMassKg) {
+        if (robotMassKg <= 0.0) {
+            throw new IllegalArgumentException("Robot mass must be positive");
+        }
+        this.swerve = swerve;
+        this.kinematics = swerve.getSwerveKinematics();
+        this.massPerModule = robotMassKg / kinematics.getModuleCount();
+        this.forcesX = new double[kinematics.getModuleCount()];
+        this.forcesY = new double[kinematics.getModuleCount()];
+        this.hasPrevious = false;
+    }
+
+    /**
+     * Get forward force estimated for a module by the most recent drive().
+     * @param module Module index.
+     * @return Robot-relative forward force in newtons.
+     */
+    public double getForceX(SwerveModuleIndex module) {
+        return forcesX[module.ordinal()];
+    }
+
+    /**
+     * Get leftward force estimated for a module by the most recent drive().
+     * @param module Module index.
+     * @return Robot-relative leftward force in newtons.
+     */
+    public double getForceY(SwerveModuleIndex module) {
+        return forcesY[module.ordinal()];
+    }
+
+    /**
+     * Drive with given robot-relative chassis speeds, adding module force feedforward estimated from the change
+     * since the previously commanded speeds. Can be used as the output of a path follower.
+     * @param chassisSpeeds Robot-relative chassis speeds, including any feedback correction from the path follower.
+     */
+    public void drive(ChassisSpeeds chassisSpeeds) {
+        double now = RobotTime.getTimestampSeconds();
+        double dt = now - previousTimestamp;
+        boolean continuous = hasPrevious && dt > 0.0 && dt <= MAX_COMMAND_PERIOD_SECONDS;
+
+        if (continuous) {
+            double vx = chassisSpeeds.vxMetersPerSecond;
+            double vy = chassisSpeeds.vyMetersPerSecond;
+            double omega = chassisSpeeds.omegaRadiansPerSecond;
+            // The robot frame rotates, so robot-relative acceleration is dv/dt + omega x v.
+            double ax = (vx - previousVx) / dt - omega * vy;
+            double ay = (vy - previousVy) / dt + omega * vx;
+            double alpha = MathUtil.clamp((omega - previousOmega) / dt, -MAX_ANGULAR_ACCELERATION, MAX_ANGULAR_ACCELERATION);
+            double acceleration = Math.hypot(ax, ay);
+            if (acceleration > MAX_LINEAR_ACCELERATION) {
+                ax *= MAX_LINEAR_ACCELERATION / acceleration;
+                ay *= MAX_LINEAR_ACCELERATION / acceleration;
+            }
+            double gain = dt / (ACCELERATION_TIME_CONSTANT_SECONDS + dt);
+            filteredAx += gain * (ax - filteredAx);
+            filteredAy += gain * (ay - filteredAy);
+            filteredAlpha += gain * (alpha - filteredAlpha);
+        } else {
+            filteredAx = 0.0;
+            filteredAy = 0.0;
+            filteredAlpha = 0.0;
+        }
+        for (int i = 0; i < forcesX.length; i++) {
+            forcesX[i] = massPerModule * (filteredAx - filteredAlpha * kinematics.getModuleY(i));
+            forcesY[i] = massPerModule * (filteredAy + filteredAlpha * kinematics.getModuleX(i));
+        }
+
+        hasPrevious = true;
+        previousTimestamp = now;
+        previousVx = chassisSpeeds.vxMetersPerSecond;
+        previousVy = chassisSpeeds.vyMetersPerSecond;
+        previousOmega = chassisSpeeds.omegaRadiansPerSecond;
+
+        swerve.drive(chassisSpeeds, forcesX, forcesY);
+    }
+}
@@ -0,0 +1,85 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import java.util.Arrays;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * Odometry samples collected in one loop, logged with AdvantageKit so that odometry is replayed exactly.
+ * Module values are stored sample by sample, in SwerveModuleIndex order within each sample.
+ */
+public class OdometryInputs implements LoggableInputs {
+    public int sampleCount = 0;
+    public final double[] timestampsSeconds;
+    public final double[] yawsRadians;
+    public final double[] drivePositionsMeters;
+    public final double[] steerAnglesRadians;
+
+    private final int moduleCount;
+
+    /**
+     * Create empty odometry inputs.
+     * @param capacity Maximum number of samples per loop.
+     * @param moduleCount Number of swerve modules.
+     */
+    public OdometryInputs(int capacity, int moduleCount) {
+        this.moduleCount = moduleCount;
+        this.timestampsSeconds = new double[capacity];
+        this.yawsRadians = new double[capacity];
+        this.drivePositionsMeters = new double[capacity * moduleCount];
+        this.steerAnglesRadians = new double[capacity * moduleCount];
+    }
+
+    /**
+     * Copy samples into these inputs.
+     * @param samples Samples to copy, oldest first.
+     * @param count Number of samples to copy.
+     */
+    public void fromSamples(OdometrySample[] samples, int count) {
+        sampleCount = count;
+        for (int i = 0; i < count; i++) {
+            timestampsSeconds[i] = samples[i].timestampSeconds;
+            yawsRadians[i] = samples[i].yawRadians;
+            System.arraycopy(samples[i].drivePositionsMeters, 0, drivePositionsMeters, i * moduleCount, moduleCount);
+            System.arraycopy(samples[i].steerAnglesRadians, 0, steerAnglesRadians, i * moduleCount, moduleCount);
+        }
+    }
+
+    /**
+     * Copy these inputs into samples.
+     * @param samples Samples to copy into, with room for every sample.
+     * @return Number of samples copied.
+     */
+    public int toSamples(OdometrySample[] samples) {
+        for (int i = 0; i < sampleCount; i++) {
+            samples[i].timestampSeconds = timestampsSeconds[i];
+            samples[i].yawRadians = yawsRadians[i];
+            System.arraycopy(drivePositionsMeters, i * moduleCount, samples[i].drivePositionsMeters, 0, moduleCount);
+            System.arraycopy(steerAnglesRadians, i * moduleCount, samples[i].steerAnglesRadians, 0, moduleCount);
+        }
+        return sampleCount;
+    }
+
+    @Override
+    public void toLog(LogTable table) {
+        table.put("TimestampsSeconds", Arrays.copyOf(timestampsSeconds, sampleCount));
+        table.put("YawsRadians", Arrays.copyOf(yawsRadians, sampleCount));
+        table.put("DrivePositionsMeters", Arrays.copyOf(drivePositionsMeters, sampleCount * moduleCount));
+        table.put("SteerAnglesRadians", Arrays.copyOf(steerAnglesRadians, sampleCount * moduleCount));
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+        double[] timestamps = table.get("TimestampsSeconds", new double[0]);
+        sampleCount = Math.min(timestamps.length, timestampsSeconds.length);
+        System.arraycopy(timestamps, 0, timestampsSeconds, 0, sampleCount);
+        copyLogged(table.get("YawsRadians", new double[0]), yawsRadians, sampleCount);
+        copyLogged(table.get("DrivePositionsMeters", new double[0]), drivePositionsMeters, sampleCount * moduleCount);
+        copyLogged(table.get("SteerAnglesRadians", new double[0]), steerAnglesRadians, sampleCount * moduleCount);
+    }
+
+    private static void copyLogged(double[] logged, double[] out, int length) {
+        System.arraycopy(logged, 0, out, 0, Math.min(logged.length, length));
+    }
+}
@@ -0,0 +1,30 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+/**
+ * Timestamped sample of drive positions, steer angles and gyro yaw taken by the odometry thread.
+ * Samples are preallocated and overwritten every loop, so copy any values that need to be kept.
+ */
+public class OdometrySample {
+    /** Time at which the sample was taken, in seconds of FPGA time. */
+    public double timestampSeconds;
+
+    /** Gyro yaw in radians. */
+    public double yawRadians;
+
+    /** Distance driven by each module in meters, in SwerveModuleIndex order. */
+    public final double[] drivePositionsMeters;
+
+    /** Steer angle of each module in radians, in SwerveModuleIndex order. */
+    public final double[] steerAnglesRadians;
+
+    /**
+     * Create an empty sample.
+     * @param moduleCount Number of swerve modules.
+     */
+    public OdometrySample(int moduleCount) {
+        this.timestampSeconds = 0.0;
+        this.yawRadians = 0.0;
+        this.drivePositionsMeters = new double[moduleCount];
+        this.steerAnglesRadians = new double[moduleCount];
+    }
+}
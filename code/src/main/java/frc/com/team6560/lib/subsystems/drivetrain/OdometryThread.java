@@ -0,0 +1,235 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import edu.wpi.first.wpilibj.Threads;
+
+import frc.com.team6560.lib.hardware.PhoenixSignalSource;
+import frc.com.team6560.lib.hardware.sensors.GyroIO;
+import frc.com.team6560.lib.time.RobotTime;
+
+/**
+ * Samples swerve module positions and gyro yaw on a dedicated thread at a higher rate than the main loop.
+ * If every sampled value of the modules and the gyro comes from Phoenix 6 signals, samples are synchronized to signal
+ * updates using BaseStatusSignal.waitForAll(). Otherwise the thread samples on a fixed period, refreshing any Phoenix 6
+ * signals itself. The thread is the only reader of these signals once started.
+ * Samples are passed to the main loop through a lock-free single-producer single-consumer queue and read with drain().
+ */
+public class OdometryThread {
+
+    // Power of two, so that queue indices can be masked. Holds over 0.25 s of samples at 250 Hz.
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int QUEUE_MASK = QUEUE_CAPACITY - 1;
+
+    private final SwerveModuleIO[] modules;
+    private final GyroIO gyro;
+    private final double frequencyHz;
+    private final BaseStatusSignal[] phoenixSignals;
+    private final boolean synchronizedSampling;
+    private final Thread thread;
+
+    // Queue storage, indexed by sample count modulo capacity. Written only by the producer.
+    private final double[] timestamps;
+    private final double[] yaws;
+    private final double[] drivePositions;
+    private final double[] steerAngles;
+
+    // Total number of samples written by the producer and read by the consumer.
+    private volatile long writeCount;
+    private volatile long readCount;
+
+    private volatile long droppedSamples;
+    private volatile long failedSamples;
+    private volatile boolean running;
+
+    /**
+     * Create odometry thread. Call start() to begin sampling.
+     * @param modules Swerve modules to sample.
+     * @param gyro Gyro to sample.
+     * @param frequencyHz Sampling frequency in Hz.
+     */
+    public OdometryThread(SwerveModuleIO[] modules, GyroIO gyro, double frequencyHz) {
+        this.modules = modules;
+        this.gyro = gyro;
+        this.frequencyHz = frequencyHz;
+        this.phoenixSignals = collectPhoenixSignals(modules, gyro);
+        this.synchronizedSampling = isFullySignalSampled((Object[]) modules) && isFullySignalSampled(gyro);
+
+        this.timestamps = new double[QUEUE_CAPACITY];
+        this.yaws = new double[QUEUE_CAPACITY];
+        this.drivePositions = new double[QUEUE_CAPACITY * modules.length];
+        this.steerAngles = new double[QUEUE_CAPACITY * modules.length];
+
+        this.writeCount = 0;
+        this.readCount = 0;
+        this.droppedSamples = 0;
+        this.failedSamples = 0;
+        this.running = false;
+
+        this.thread = new Thread(this::run, "Odometry");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Get Phoenix 6 signals of all sources that provide them.
+     * @return Signals, empty if no source provides Phoenix 6 signals.
+     */
+    private static BaseStatusSignal[] collectPhoenixSignals(SwerveModuleIO[] modules, GyroIO gyro) {
+        List<BaseStatusSignal> signals = new ArrayList<>();
+        for (SwerveModuleIO module : modules) {
+            addPhoenixSignals(module, signals);
+        }
+        addPhoenixSignals(gyro, signals);
+        return signals.toArray(new BaseStatusSignal[0]);
+    }
+
+    private static void addPhoenixSignals(Object source, List<BaseStatusSignal> signals) {
+        if (source instanceof PhoenixSignalSource) {
+            for (BaseStatusSignal signal : ((PhoenixSignalSource) source).getHighRateSignals()) {
+                signals.add(signal);
+            }
+        }
+    }
+
+    private static boolean isFullySignalSampled(Object... sources) {
+        for (Object source : sources) {
+            if (!(source instanceof PhoenixSignalSource) || !((PhoenixSignalSource) source).isFullySignalSampled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Start sampling on the odometry thread. One sample is taken on the calling thread first,
+     * so that a sample is available to the main loop immediately.
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        if (phoenixSignals.length > 0) {
+            BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, phoenixSignals);
+            BaseStatusSignal.refreshAll(phoenixSignals);
+        }
+        sample();
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Check whether samples are synchronized to Phoenix 6 signal updates.
+     * @return True if sampling uses BaseStatusSignal.waitForAll().
+     */
+    public boolean isSynchronized() {
+        return synchronizedSampling;
+    }
+
+    private void run() {
+        Threads.setCurrentThreadPriority(true, 1);
+        long periodNanos = (long) (1.0E9 / frequencyHz);
+        long nextSampleNanos = System.nanoTime();
+
+        while (running) {
+            boolean synced = false;
+            if (synchronizedSampling) {
+                synced = BaseStatusSignal.waitForAll(2.0 / frequencyHz, phoenixSignals).isOK();
+                if (synced) {
+                    nextSampleNanos = System.nanoTime();
+                } else {
+                    failedSamples++;
+                }
+            }
+            if (!synced) {
+                // Also paces retries after a failed synchronized read, so a disconnected device cannot make the
+                // thread spin at real-time priority.
+                nextSampleNanos += periodNanos;
+                long delay = nextSampleNanos - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                } else {
+                    // Fell behind, so restart the schedule from now instead of sampling in a burst.
+                    nextSampleNanos = System.nanoTime();
+                }
+                if (phoenixSignals.length > 0) {
+                    BaseStatusSignal.refreshAll(phoenixSignals);
+                }
+            }
+            // Signals that failed to update keep their last values.
+            sample();
+        }
+    }
+
+    /**
+     * Take a sample and add it to the queue. Called by the odometry thread, or by the main loop in simulation
+     * where the thread is not started. Phoenix 6 signals must already be refreshed. The sample is dropped if the
+     * queue is full.
+     */
+    public void sample() {
+        long write = writeCount;
+        if (write - readCount >= QUEUE_CAPACITY) {
+            droppedSamples++;
+            return;
+        }
+        int slot = (int) (write & QUEUE_MASK);
+        int offset = slot * modules.length;
+        timestamps[slot] = RobotTime.getRealTimestampSeconds();
+        yaws[slot] = gyro.getYawRadians();
+        for (int i = 0; i < modules.length; i++) {
+            drivePositions[offset + i] = modules[i].sampleDrivePositionMeters();
+            steerAngles[offset + i] = modules[i].sampleSteerAngle();
+        }
+        // Publishing the new count makes the slot visible to the consumer.
+        writeCount = write + 1;
+    }
+
+    /**
+     * Copy all queued samples into preallocated sample objects, oldest first. Call from the main loop only.
+     * @param out Samples to copy into.
+     * @return Number of samples copied.
+     */
+    public int drain(OdometrySample[] out) {
+        long read = readCount;
+        int count = (int) Math.min(writeCount - read, out.length);
+        for (int k = 0; k < count; k++) {
+            int slot = (int) ((read + k) & QUEUE_MASK);
+            int offset = slot * modules.length;
+            OdometrySample sample = out[k];
+            sample.timestampSeconds = timestamps[slot];
+            sample.yawRadians = yaws[slot];
+            System.arraycopy(drivePositions, offset, sample.drivePositionsMeters, 0, modules.length);
+            System.arraycopy(steerAngles, offset, sample.steerAnglesRadians, 0, modules.length);
+        }
+        // Publishing the new count frees the slots for the producer.
+        readCount = read + count;
+        return count;
+    }
+
+    /**
+     * Get capacity of the sample queue.
+     * @return Maximum number of queued samples.
+     */
+    public int getCapacity() {
+        return QUEUE_CAPACITY;
+    }
+
+    /**
+     * Get number of samples dropped because the queue was full.
+     * @return Dropped sample count.
+     */
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    /**
+     * Get number of synchronized reads that timed out or failed.
+     * @return Failed sample count.
+     */
+    public long getFailedSamples() {
+        return failedSamples;
+    }
+}
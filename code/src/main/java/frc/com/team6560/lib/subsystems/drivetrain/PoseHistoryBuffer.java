@@ -0,0 +1,185 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-capacity history of timestamped robot poses which answers "where was the robot at time t" by interpolating
+ * between the two nearest samples.
+ * Samples are stored in primitive arrays so that adding a sample does not allocate, and lookups use a binary search.
+ * Safe for a single writer thread and any number of reader threads: readers retry if the writer modified the buffer
+ * while they were reading it, so the writer is never blocked.
+ */
+public class PoseHistoryBuffer {
+
+    private final int mask;
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+
+    // Odd while the writer is modifying the buffer.
+    private volatile long sequence;
+
+    // Only modified by the writer between sequence increments.
+    private long writeCount;
+    private int size;
+
+    /**
+     * Initialize pose history buffer.
+     * @param capacity Number of samples kept. Must be a power of two.
+     */
+    public PoseHistoryBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Pose history capacity must be a power of two greater than one");
+        }
+        this.mask = capacity - 1;
+        this.timestamps = new double[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.headings = new double[capacity];
+        this.sequence = 0;
+        this.writeCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Add a sample. Must only be called from a single thread.
+     * Samples must be added in order of increasing timestamp; samples older than the newest sample are ignored.
+     * @param timestampSeconds Time at which the pose was measured, from RobotTime.
+     * @param xMeters X position of robot.
+     * @param yMeters Y position of robot.
+     * @param headingRadians Heading of robot.
+     * @return Whether the sample was added.
+     */
+    public boolean add(double timestampSeconds, double xMeters, double yMeters, double headingRadians) {
+        if (size > 0 && timestampSeconds <= timestamps[(int) ((writeCount - 1) & mask)]) {
+            return false;
+        }
+        long seq = sequence;
+        sequence = seq + 1;
+        VarHandle.storeStoreFence();
+
+        int slot = (int) (writeCount & mask);
+        timestamps[slot] = timestampSeconds;
+        xs[slot] = xMeters;
+        ys[slot] = yMeters;
+        headings[slot] = headingRadians;
+        writeCount++;
+        if (size < timestamps.length) {
+            size++;
+        }
+
+        sequence = seq + 2;
+        return true;
+    }
+
+    /**
+     * Remove all samples. Must only be called from the writer thread, for example after the pose has been reset.
+     */
+    public void clear() {
+        long seq = sequence;
+        sequence = seq + 1;
+        VarHandle.storeStoreFence();
+        size = 0;
+        sequence = seq + 2;
+    }
+
+    /**
+     * Get interpolated pose at a given time. Times newer than the newest sample return the newest sample.
+     * @param timestampSeconds Time to look up, from RobotTime.
+     * @param out Array of length 3 filled with x (meters), y (meters) and heading (radians).
+     * @return False if the buffer is empty or the time is older than the oldest sample, in which case out is unchanged.
+     */
+    public boolean sample(double timestampSeconds, double[] out) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            // Read into locals, so that out is only written once the read is known not to be torn.
+            boolean found = false;
+            double x = 0.0;
+            double y = 0.0;
+            double heading = 0.0;
+            int count = size;
+            long end = writeCount;
+            if (count > 0 && count <= timestamps.length) {
+                long start = end - count;
+                int newest = (int) ((end - 1) & mask);
+                if (timestampSeconds >= timestamps[newest]) {
+                    x = xs[newest];
+                    y = ys[newest];
+                    heading = headings[newest];
+                    found = true;
+                } else if (timestampSeconds >= timestamps[(int) (start & mask)]) {
+                    int low = findLastAtOrBefore(start, count, timestampSeconds);
+                    int a = (int) ((start + low) & mask);
+                    int b = (int) ((start + low + 1) & mask);
+                    double span = timestamps[b] - timestamps[a];
+                    double t = (span > 0.0) ? (timestampSeconds - timestamps[a]) / span : 0.0;
+                    t = Math.max(0.0, Math.min(1.0, t));
+
+                    double headingDelta = Math.IEEEremainder(headings[b] - headings[a], 2.0 * Math.PI);
+                    x = xs[a] + (xs[b] - xs[a]) * t;
+                    y = ys[a] + (ys[b] - ys[a]) * t;
+                    heading = Math.IEEEremainder(headings[a] + headingDelta * t, 2.0 * Math.PI);
+                    found = true;
+                }
+            }
+
+            VarHandle.loadLoadFence();
+            if (sequence == before) {
+                if (found) {
+                    out[0] = x;
+                    out[1] = y;
+                    out[2] = heading;
+                }
+                return found;
+            }
+        }
+    }
+
+    /**
+     * Get number of samples currently held.
+     * @return Number of samples.
+     */
+    public int getSize() {
+        while (true) {
+            long before = sequence;
+            int result = size;
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && sequence == before) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Get number of samples the buffer can hold.
+     * @return Capacity.
+     */
+    public int getCapacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * Binary search without synchronization, for a time between the oldest and newest samples.
+     * Results are discarded by sample() if the writer interfered.
+     * @return Index from the oldest sample of the last sample at or before the time, less than count - 1.
+     */
+    private int findLastAtOrBefore(long start, int count, double timestampSeconds) {
+        int low = 0;
+        int high = count - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[(int) ((start + mid) & mask)] <= timestampSeconds) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
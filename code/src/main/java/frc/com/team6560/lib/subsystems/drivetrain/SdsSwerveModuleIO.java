@@ -0,0 +1,260 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+import com.swervedrivespecialties.swervelib.MotorType;
+import com.swervedrivespecialties.swervelib.SwerveModule;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
+
+import frc.com.team6560.lib.hardware.PhoenixSignalSource;
+
+/**
+ * Swerve module implementation of the SwerveModuleIO interface backed by an SDS swerve module.
+ * Falcon drive position and velocity and Falcon steer position are read from Phoenix 6 signals, which are refreshed
+ * only by the odometry thread. The main loop reads the values cached by the last sample.
+ */
+public class SdsSwerveModuleIO implements SwerveModuleIO, PhoenixSignalSource {
+
+    private static final double SPARK_PID_PERIOD_SECONDS = 0.001;
+
+    private final SwerveModule module;
+    private final MotorType driveMotorType;
+    private final MotorType steerMotorType;
+
+    private final double metersPerDriveRotation;
+    private final double radiansPerSteerRotation;
+    private final StatusSignal<Double> drivePositionSignal;
+    private final StatusSignal<Double> driveVelocitySignal;
+    private final StatusSignal<Double> driveCurrentSignal;
+    private final StatusSignal<Double> steerPositionSignal;
+    private final BaseStatusSignal[] highRateSignals;
+
+    // Written by the odometry thread when sampling, read by the main loop in updateInputs().
+    private volatile double sampledDrivePositionMeters;
+    private volatile double sampledDriveVelocityMetersPerSecond;
+    private volatile double sampledSteerAngle;
+    private final VelocityVoltage velocityRequest;
+    private final SwerveModuleInputs inputs = new SwerveModuleInputs();
+
+    /**
+     * Initialize with a configured SDS swerve module.
+     * @param module SDS swerve module.
+     * @param driveMotorType Type of drive motor.
+     * @param steerMotorType Type of steer motor.
+     * @param wheelDiameter Wheel diameter in meters.
+     * @param driveReduction Wheel rotations per drive motor rotation.
+     * @param steerReduction Module rotations per steer motor rotation.
+     */
+    public SdsSwerveModuleIO(SwerveModule module, MotorType driveMotorType, MotorType steerMotorType, double wheelDiameter, double driveReduction, double steerReduction) {
+        this.module = module;
+        this.driveMotorType = driveMotorType;
+        this.steerMotorType = steerMotorType;
+        this.metersPerDriveRotation = driveReduction * wheelDiameter * Math.PI;
+        this.radiansPerSteerRotation = steerReduction * 2.0 * Math.PI;
+
+        if (driveMotorType == MotorType.FALCON) {
+            TalonFX driveMotor = (TalonFX) module.getDriveMotor();
+            this.drivePositionSignal = driveMotor.getPosition();
+            this.driveVelocitySignal = driveMotor.getVelocity();
+            this.driveCurrentSignal = driveMotor.getStatorCurrent();
+            this.velocityRequest = new VelocityVoltage(0.0);
+        } else {
+            this.drivePositionSignal = null;
+            this.driveVelocitySignal = null;
+            this.driveCurrentSignal = null;
+            this.velocityRequest = null;
+        }
+
+        // SDS seeds the Falcon steer sensor with the absolute angle, so its position gives the module angle.
+        if (steerMotorType == MotorType.FALCON) {
+            this.steerPositionSignal = ((TalonFX) module.getSteerMotor()).getPosition();
+        } else {
+            this.steerPositionSignal = null;
+        }
+
+        if (drivePositionSignal != null && steerPositionSignal != null) {
+            this.highRateSignals = new BaseStatusSignal[] { drivePositionSignal, driveVelocitySignal, steerPositionSignal };
+        } else if (drivePositionSignal != null) {
+            this.highRateSignals = new BaseStatusSignal[] { drivePositionSignal, driveVelocitySignal };
+        } else if (steerPositionSignal != null) {
+            this.highRateSignals = new BaseStatusSignal[] { steerPositionSignal };
+        } else {
+            this.highRateSignals = new BaseStatusSignal[0];
+        }
+    }
+
+    /**
+     * Get underlying SDS swerve module.
+     * @return SDS swerve module.
+     */
+    public SwerveModule getModule() {
+        return module;
+    }
+
+    @Override
+    public void updateInputs() {
+        inputs.drivePositionMeters = sampledDrivePositionMeters;
+        inputs.driveVelocityMetersPerSecond = sampledDriveVelocityMetersPerSecond;
+        // Stator current is not sampled by the odometry thread, so the main loop owns its signal.
+        if (driveCurrentSignal == null) {
+            inputs.driveCurrentAmps = ((CANSparkMax) module.getDriveMotor()).getOutputCurrent();
+        } else {
+            inputs.driveCurrentAmps = driveCurrentSignal.refresh().getValueAsDouble();
+        }
+        inputs.steerAngle = sampledSteerAngle;
+    }
+
+    @Override
+    public SwerveModuleInputs getInputs() {
+        return inputs;
+    }
+
+    @Override
+    public SwerveModulePosition getPosition() {
+        return new SwerveModulePosition(inputs.drivePositionMeters, new Rotation2d(inputs.steerAngle));
+    }
+
+    @Override
+    public SwerveModuleState getState() {
+        return new SwerveModuleState(inputs.driveVelocityMetersPerSecond, new Rotation2d(inputs.steerAngle));
+    }
+
+    @Override
+    public double getDrivePositionMeters() {
+        return inputs.drivePositionMeters;
+    }
+
+    @Override
+    public double getDriveVelocityMetersPerSecond() {
+        return inputs.driveVelocityMetersPerSecond;
+    }
+
+    @Override
+    public double getDriveCurrentAmps() {
+        return inputs.driveCurrentAmps;
+    }
+
+    @Override
+    public double getSteerAngle() {
+        return inputs.steerAngle;
+    }
+
+    @Override
+    public double sampleDrivePositionMeters() {
+        double position;
+        if (drivePositionSignal == null) {
+            position = module.getPosition().distanceMeters;
+            sampledDriveVelocityMetersPerSecond = module.getDriveVelocity();
+        } else {
+            position = BaseStatusSignal.getLatencyCompensatedValue(drivePositionSignal, driveVelocitySignal) * metersPerDriveRotation;
+            sampledDriveVelocityMetersPerSecond = driveVelocitySignal.getValueAsDouble() * metersPerDriveRotation;
+        }
+        sampledDrivePositionMeters = position;
+        return position;
+    }
+
+    @Override
+    public double sampleSteerAngle() {
+        double angle;
+        if (steerPositionSignal == null) {
+            angle = module.getSteerAngle();
+        } else {
+            angle = MathUtil.inputModulus(steerPositionSignal.getValueAsDouble() * radiansPerSteerRotation, 0.0, 2.0 * Math.PI);
+        }
+        sampledSteerAngle = angle;
+        return angle;
+    }
+
+    @Override
+    public void set(double driveVoltage, double steerAngle) {
+        module.set(driveVoltage, steerAngle);
+    }
+
+    @Override
+    public void setDriveVelocity(double velocityMetersPerSecond, double feedforwardVolts, double steerAngle) {
+        // Flip here rather than in the SDS module, so that drive velocity and steer angle are flipped together.
+        if (Math.abs(MathUtil.angleModulus(steerAngle - getSteerAngle())) > Math.PI / 2.0) {
+            steerAngle += Math.PI;
+            velocityMetersPerSecond = -velocityMetersPerSecond;
+            feedforwardVolts = -feedforwardVolts;
+        }
+        // SDS modules only steer together with an open-loop drive output, which the velocity request then replaces.
+        module.set(0.0, MathUtil.angleModulus(steerAngle));
+
+        if (driveMotorType == MotorType.FALCON) {
+            ((TalonFX) module.getDriveMotor()).setControl(
+                velocityRequest.withVelocity(velocityMetersPerSecond / metersPerDriveRotation).withFeedForward(feedforwardVolts)
+            );
+        } else {
+            // SDS configures NEO drive encoders to report velocity in meters per second.
+            ((CANSparkMax) module.getDriveMotor()).getPIDController().setReference(
+                velocityMetersPerSecond,
+                CANSparkMax.ControlType.kVelocity,
+                0,
+                feedforwardVolts,
+                ArbFFUnits.kVoltage
+            );
+        }
+    }
+
+    @Override
+    public void setDriveVelocityPID(double kP, double kI, double kD) {
+        if (driveMotorType == MotorType.FALCON) {
+            // Talon gains are per rotor rotation per second.
+            ((TalonFX) module.getDriveMotor()).getConfigurator().apply(
+                new Slot0Configs()
+                    .withKP(kP * metersPerDriveRotation)
+                    .withKI(kI * metersPerDriveRotation)
+                    .withKD(kD * metersPerDriveRotation)
+            );
+        } else {
+            // Spark gains are in duty cycle rather than volts. The Spark also runs its PID every 1 ms without scaling
+            // by time, so its integral gain is per millisecond of accumulated error and its derivative gain is per
+            // change in error over one millisecond.
+            SparkPIDController pidController = ((CANSparkMax) module.getDriveMotor()).getPIDController();
+            pidController.setP(kP / 12.0);
+            pidController.setI(kI / 12.0 * SPARK_PID_PERIOD_SECONDS);
+            pidController.setD(kD / 12.0 / SPARK_PID_PERIOD_SECONDS);
+            pidController.setFF(0.0);
+        }
+    }
+
+    @Override
+    public BaseStatusSignal[] getHighRateSignals() {
+        return highRateSignals;
+    }
+
+    @Override
+    public boolean isFullySignalSampled() {
+        return drivePositionSignal != null && steerPositionSignal != null;
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        if (steerMotorType == MotorType.NEO) {
+            ((CANSparkMax) module.getSteerMotor()).setIdleMode(IdleMode.kCoast);
+        } else {
+            ((TalonFX) module.getSteerMotor()).setNeutralMode(NeutralModeValue.Coast);
+        }
+
+        if (driveMotorType == MotorType.NEO) {
+            ((CANSparkMax) module.getDriveMotor()).setIdleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
+        } else {
+            ((TalonFX) module.getDriveMotor()).setNeutralMode(brake ? NeutralModeValue.Brake : NeutralModeValue.Coast);
+        }
+    }
+}
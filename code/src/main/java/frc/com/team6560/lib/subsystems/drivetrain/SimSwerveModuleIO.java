@@ -0,0 +1,170 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+import com.swervedrivespecialties.swervelib.MotorType;
+
+import frc.com.team6560.lib.hardware.motors.SimMotor;
+
+/**
+ * Swerve module implementation of the SwerveModuleIO interface backed by simulated drive and steer motors.
+ */
+public class SimSwerveModuleIO implements SwerveModuleIO {
+
+    private static final double DRIVE_MOMENT_OF_INERTIA = 0.025; // kg m^2, share of robot mass seen by one wheel
+    private static final double STEER_MOMENT_OF_INERTIA = 0.004; // kg m^2
+    private static final double STEER_KP = 8.0;
+    private static final double STEER_KD = 0.1;
+
+    private final SimMotor driveMotor;
+    private final SimMotor steerMotor;
+    private final double wheelCircumference;
+    private final PIDController driveVelocityController;
+    private final SwerveModuleInputs inputs = new SwerveModuleInputs();
+
+    /**
+     * Initialize a simulated swerve module.
+     * @param driveCanID CAN ID of simulated drive motor.
+     * @param steerCanID CAN ID of simulated steer motor.
+     * @param driveMotorType Type of drive motor.
+     * @param steerMotorType Type of steer motor.
+     * @param wheelDiameter Wheel diameter in meters.
+     * @param driveReduction Wheel rotations per drive motor rotation.
+     * @param steerReduction Module rotations per steer motor rotation.
+     */
+    public SimSwerveModuleIO(int driveCanID, int steerCanID, MotorType driveMotorType, MotorType steerMotorType, double wheelDiameter, double driveReduction, double steerReduction) {
+        this.driveMotor = new SimMotor(driveCanID, getMotorModel(driveMotorType))
+            .withGearing(1.0 / driveReduction)
+            .withMomentOfInertia(DRIVE_MOMENT_OF_INERTIA)
+            .withBrakeMode()
+            .build();
+        this.steerMotor = new SimMotor(steerCanID, getMotorModel(steerMotorType))
+            .withGearing(1.0 / steerReduction)
+            .withMomentOfInertia(STEER_MOMENT_OF_INERTIA)
+            .withPIDProfile(STEER_KP, 0.0, STEER_KD, 0.0)
+            .build();
+        this.wheelCircumference = wheelDiameter * Math.PI;
+        this.driveVelocityController = new PIDController(0.0, 0.0, 0.0);
+    }
+
+    private static DCMotor getMotorModel(MotorType motorType) {
+        return (motorType == MotorType.NEO) ? DCMotor.getNEO(1) : DCMotor.getFalcon500(1);
+    }
+
+    /**
+     * Get simulated drive motor.
+     * @return Drive motor.
+     */
+    public SimMotor getDriveMotor() {
+        return driveMotor;
+    }
+
+    /**
+     * Get simulated steer motor.
+     * @return Steer motor.
+     */
+    public SimMotor getSteerMotor() {
+        return steerMotor;
+    }
+
+    @Override
+    public void updateInputs() {
+        driveMotor.updateInputs();
+        steerMotor.updateInputs();
+        inputs.drivePositionMeters = sampleDrivePositionMeters();
+        inputs.driveVelocityMetersPerSecond = driveMotor.getVelocityRPM() / 60.0 * wheelCircumference;
+        inputs.driveCurrentAmps = driveMotor.getCurrentStatorAmps();
+        inputs.steerAngle = sampleSteerAngle();
+    }
+
+    @Override
+    public SwerveModuleInputs getInputs() {
+        return inputs;
+    }
+
+    @Override
+    public SwerveModulePosition getPosition() {
+        return new SwerveModulePosition(inputs.drivePositionMeters, new Rotation2d(inputs.steerAngle));
+    }
+
+    @Override
+    public SwerveModuleState getState() {
+        return new SwerveModuleState(inputs.driveVelocityMetersPerSecond, new Rotation2d(inputs.steerAngle));
+    }
+
+    @Override
+    public double getDrivePositionMeters() {
+        return inputs.drivePositionMeters;
+    }
+
+    @Override
+    public double getDriveVelocityMetersPerSecond() {
+        return inputs.driveVelocityMetersPerSecond;
+    }
+
+    @Override
+    public double getDriveCurrentAmps() {
+        return inputs.driveCurrentAmps;
+    }
+
+    @Override
+    public double getSteerAngle() {
+        return inputs.steerAngle;
+    }
+
+    @Override
+    public double sampleDrivePositionMeters() {
+        return driveMotor.getPositionRotations() * wheelCircumference;
+    }
+
+    @Override
+    public double sampleSteerAngle() {
+        return MathUtil.inputModulus(steerMotor.getPositionRotations() * 2.0 * Math.PI, 0.0, 2.0 * Math.PI);
+    }
+
+    @Override
+    public void set(double driveVoltage, double steerAngle) {
+        double currentAngle = steerMotor.getPositionRotations() * 2.0 * Math.PI;
+        double delta = MathUtil.angleModulus(steerAngle - currentAngle);
+        if (Math.abs(delta) > Math.PI / 2.0) {
+            delta = MathUtil.angleModulus(delta + Math.PI);
+            driveVoltage = -driveVoltage;
+        }
+        steerMotor.setPosition((currentAngle + delta) / (2.0 * Math.PI));
+        driveMotor.setVoltage(driveVoltage);
+    }
+
+    @Override
+    public void setDriveVelocity(double velocityMetersPerSecond, double feedforwardVolts, double steerAngle) {
+        double currentAngle = steerMotor.getPositionRotations() * 2.0 * Math.PI;
+        double delta = MathUtil.angleModulus(steerAngle - currentAngle);
+        if (Math.abs(delta) > Math.PI / 2.0) {
+            delta = MathUtil.angleModulus(delta + Math.PI);
+            velocityMetersPerSecond = -velocityMetersPerSecond;
+            feedforwardVolts = -feedforwardVolts;
+        }
+        steerMotor.setPosition((currentAngle + delta) / (2.0 * Math.PI));
+        // Simulated motors run velocity control at the loop rate rather than onboard.
+        driveMotor.setVoltage(feedforwardVolts + driveVelocityController.calculate(getDriveVelocityMetersPerSecond(), velocityMetersPerSecond));
+    }
+
+    @Override
+    public void setDriveVelocityPID(double kP, double kI, double kD) {
+        driveVelocityController.setPID(kP, kI, kD);
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        steerMotor.setCoastMode();
+        if (brake) {
+            driveMotor.setBrakeMode();
+        } else {
+            driveMotor.setCoastMode();
+        }
+    }
+}
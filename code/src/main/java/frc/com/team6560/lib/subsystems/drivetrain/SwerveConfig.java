@@ -29,11 +29,28 @@ public class SwerveConfig {
     public final double trackwidth;
     public final double wheelbase;
 
+    public final double wheelDiameter; // m
+    public final double driveFreeSpeedRPM;
+    public final double driveCurrentLimit; // A
+
     public final double maxVelocity; // m/s
     public final double maxAngularVelocity; // rad/s
 
     public final SwerveOffsets offsets;
 
+    public final double odometryFrequency; // Hz
+
+    public final double maxModuleAcceleration; // m/s^2
+    public final double maxSteerVelocity; // rad/s
+
+    // Closed-loop drive gains, in volts per m/s, m/s^2 etc. of wheel motion.
+    public final double driveKP;
+    public final double driveKI;
+    public final double driveKD;
+    public final double driveKS;
+    public final double driveKV;
+    public final double driveKA;
+
     /**
      * Private constructor to enforce usage of builder.
      * @param builder Builder to initialize class.
@@ -55,15 +72,36 @@ public class SwerveConfig {
         this.driveMotorType = builder.driveMotorType;
         this.trackwidth = builder.trackwidth;
         this.wheelbase = builder.wheelbase;
+        this.wheelDiameter = builder.wheelDiameter;
+        this.driveFreeSpeedRPM = builder.driveFreeSpeedRPM;
+        this.driveCurrentLimit = builder.driveCurrentLimit;
+        if (wheelDiameter <= 0.0 || driveFreeSpeedRPM <= 0.0 || driveCurrentLimit <= 0.0) {
+            throw new IllegalArgumentException("Wheel diameter, drive free speed and drive current limit must be positive");
+        }
         this.maxVelocity = calculateMaxVelocity();
         this.maxAngularVelocity = calculateMaxAngularVelocity();
         this.offsets = builder.offsets;
+        this.odometryFrequency = builder.odometryFrequency;
+        if (odometryFrequency < 100.0 || odometryFrequency > 250.0) {
+            throw new IllegalArgumentException("Odometry frequency must be in range [100, 250] Hz");
+        }
+        this.maxModuleAcceleration = builder.maxModuleAcceleration;
+        this.maxSteerVelocity = builder.maxSteerVelocity;
+        if (maxModuleAcceleration <= 0.0 || maxSteerVelocity <= 0.0) {
+            throw new IllegalArgumentException("Module acceleration and steering velocity limits must be positive");
+        }
+        this.driveKP = builder.driveKP;
+        this.driveKI = builder.driveKI;
+        this.driveKD = builder.driveKD;
+        this.driveKS = builder.driveKS;
+        this.driveKV = builder.driveKV;
+        this.driveKA = builder.driveKA;
     }
 
     private double calculateMaxVelocity() {
-        return 6380.0 / 60.0 *
+        return driveFreeSpeedRPM / 60.0 *
             SdsModuleConfigurations.MK4I_L2.getDriveReduction() *
-            SdsModuleConfigurations.MK4I_L2.getWheelDiameter() * Math.PI;
+            wheelDiameter * Math.PI;
     }
 
     private double calculateMaxAngularVelocity() {
@@ -91,7 +129,19 @@ public class SwerveConfig {
         private MotorType driveMotorType = MotorType.FALCON;
         private double trackwidth = 0.57785;
         private double wheelbase = 0.57785;
+        private double wheelDiameter = SdsModuleConfigurations.MK4I_L2.getWheelDiameter();
+        private double driveFreeSpeedRPM = 6380.0;
+        private double driveCurrentLimit = 80.0;
         private SwerveOffsets offsets = new SwerveOffsets(0, 0, 0, 0);
+        private double odometryFrequency = 250.0;
+        private double maxModuleAcceleration = Double.POSITIVE_INFINITY;
+        private double maxSteerVelocity = Double.POSITIVE_INFINITY;
+        private double driveKP = 0.0;
+        private double driveKI = 0.0;
+        private double driveKD = 0.0;
+        private double driveKS = 0.0;
+        private double driveKV = 0.0;
+        private double driveKA = 0.0;
 
         public Builder setFLSteerCanID(int id) { this.FLSteerCanID = id; return this; }
         public Builder setFLDriveCanID(int id) { this.FLDriveCanID = id; return this; }
@@ -109,7 +159,15 @@ public class SwerveConfig {
         public Builder setDriveMotorType(MotorType type) { this.driveMotorType = type; return this; }
         public Builder setTrackwidth(double trackwidth) { this.trackwidth = trackwidth; return this; }
         public Builder setWheelbase(double wheelbase) { this.wheelbase = wheelbase; return this; }
+        public Builder setWheelDiameter(double diameter) { this.wheelDiameter = diameter; return this; }
+        public Builder setDriveFreeSpeedRPM(double rpm) { this.driveFreeSpeedRPM = rpm; return this; }
+        public Builder setDriveCurrentLimit(double amps) { this.driveCurrentLimit = amps; return this; }
         public Builder setOffsets(SwerveOffsets offsets) {this.offsets = offsets; return this; }
+        public Builder setOdometryFrequency(double frequency) { this.odometryFrequency = frequency; return this; }
+        public Builder setMaxModuleAcceleration(double acceleration) { this.maxModuleAcceleration = acceleration; return this; }
+        public Builder setMaxSteerVelocity(double velocity) { this.maxSteerVelocity = velocity; return this; }
+        public Builder setDriveVelocityPID(double kP, double kI, double kD) { this.driveKP = kP; this.driveKI = kI; this.driveKD = kD; return this; }
+        public Builder setDriveFeedforward(double kS, double kV, double kA) { this.driveKS = kS; this.driveKV = kV; this.driveKA = kA; return this; }
 
         public SwerveConfig build() {
             return new SwerveConfig(this);
@@ -0,0 +1,161 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+/**
+ * Swerve drive kinematics operating on primitive arrays, so that converting between chassis speeds and module states
+ * in the main loop does not allocate. Module speeds are in m/s and module angles in radians.
+ */
+public class SwerveKinematics {
+
+    private final int moduleCount;
+    private final double[] moduleX;
+    private final double[] moduleY;
+
+    // Least-squares pseudo-inverse of the inverse kinematics matrix, as rows for vx, vy and omega.
+    private final double[] forwardVx;
+    private final double[] forwardVy;
+    private final double[] forwardOmega;
+
+    /**
+     * Create kinematics for modules at given positions relative to the center of the robot.
+     * @param moduleX X position of each module in meters, forward positive.
+     * @param moduleY Y position of each module in meters, left positive.
+     */
+    public SwerveKinematics(double[] moduleX, double[] moduleY) {
+        if (moduleX.length != moduleY.length || moduleX.length < 2) {
+            throw new IllegalArgumentException("At least two module positions with both X and Y coordinates are required");
+        }
+        this.moduleCount = moduleX.length;
+        this.moduleX = moduleX.clone();
+        this.moduleY = moduleY.clone();
+
+        // Each module contributes rows [1, 0, -y] and [0, 1, x] to the inverse kinematics matrix A.
+        // Forward kinematics is (A^T A)^-1 A^T, where A^T A is symmetric with the entries below.
+        double n = moduleCount;
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double sumSquares = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+            sumSquares += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+        }
+        double[][] normal = {
+            { n, 0.0, -sumY },
+            { 0.0, n, sumX },
+            { -sumY, sumX, sumSquares }
+        };
+        double[][] inverse = invert3x3(normal);
+
+        this.forwardVx = new double[2 * moduleCount];
+        this.forwardVy = new double[2 * moduleCount];
+        this.forwardOmega = new double[2 * moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            double[][] rows = { forwardVx, forwardVy, forwardOmega };
+            for (int r = 0; r < 3; r++) {
+                rows[r][2 * i] = inverse[r][0] - inverse[r][2] * moduleY[i];
+                rows[r][2 * i + 1] = inverse[r][1] + inverse[r][2] * moduleX[i];
+            }
+        }
+    }
+
+    private static double[][] invert3x3(double[][] m) {
+        double c00 = m[1][1] * m[2][2] - m[1][2] * m[2][1];
+        double c01 = m[1][2] * m[2][0] - m[1][0] * m[2][2];
+        double c02 = m[1][0] * m[2][1] - m[1][1] * m[2][0];
+        double determinant = m[0][0] * c00 + m[0][1] * c01 + m[0][2] * c02;
+        if (Math.abs(determinant) < 1.0E-12) {
+            throw new IllegalArgumentException("Module positions do not define a valid drivetrain");
+        }
+        return new double[][] {
+            { c00 / determinant, (m[0][2] * m[2][1] - m[0][1] * m[2][2]) / determinant, (m[0][1] * m[1][2] - m[0][2] * m[1][1]) / determinant },
+            { c01 / determinant, (m[0][0] * m[2][2] - m[0][2] * m[2][0]) / determinant, (m[0][2] * m[1][0] - m[0][0] * m[1][2]) / determinant },
+            { c02 / determinant, (m[0][1] * m[2][0] - m[0][0] * m[2][1]) / determinant, (m[0][0] * m[1][1] - m[0][1] * m[1][0]) / determinant }
+        };
+    }
+
+    /**
+     * Get number of modules.
+     * @return Module count.
+     */
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /**
+     * Get X position of a module.
+     * @param index Module index.
+     * @return X position in meters, forward positive.
+     */
+    public double getModuleX(int index) {
+        return moduleX[index];
+    }
+
+    /**
+     * Get Y position of a module.
+     * @param index Module index.
+     * @return Y position in meters, left positive.
+     */
+    public double getModuleY(int index) {
+        return moduleY[index];
+    }
+
+    /**
+     * Convert chassis speeds to module speeds and angles.
+     * Modules with zero speed keep the angle already in anglesOut, so that wheels do not snap back to zero when stopping.
+     * @param vx Forward velocity in m/s.
+     * @param vy Left velocity in m/s.
+     * @param omega Counterclockwise angular velocity in rad/s.
+     * @param speedsOut Module speeds in m/s.
+     * @param anglesOut Module angles in radians.
+     */
+    public void toModuleStates(double vx, double vy, double omega, double[] speedsOut, double[] anglesOut) {
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = vx - omega * moduleY[i];
+            double moduleVy = vy + omega * moduleX[i];
+            speedsOut[i] = Math.hypot(moduleVx, moduleVy);
+            if (speedsOut[i] > 1.0E-9) {
+                anglesOut[i] = Math.atan2(moduleVy, moduleVx);
+            }
+        }
+    }
+
+    /**
+     * Scale module speeds down uniformly so that none exceeds the maximum speed.
+     * @param speeds Module speeds in m/s, modified in place.
+     * @param maxSpeed Maximum module speed in m/s.
+     */
+    public static void desaturate(double[] speeds, double maxSpeed) {
+        double fastest = 0.0;
+        for (double speed : speeds) {
+            fastest = Math.max(fastest, Math.abs(speed));
+        }
+        if (fastest > maxSpeed) {
+            double scale = maxSpeed / fastest;
+            for (int i = 0; i < speeds.length; i++) {
+                speeds[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Convert module speeds and angles to chassis speeds using a least-squares fit.
+     * @param speeds Module speeds in m/s.
+     * @param angles Module angles in radians.
+     * @param chassisOut Chassis speeds as {vx, vy, omega} in m/s and rad/s.
+     */
+    public void toChassisSpeeds(double[] speeds, double[] angles, double[] chassisOut) {
+        double vx = 0.0;
+        double vy = 0.0;
+        double omega = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = speeds[i] * Math.cos(angles[i]);
+            double moduleVy = speeds[i] * Math.sin(angles[i]);
+            vx += forwardVx[2 * i] * moduleVx + forwardVx[2 * i + 1] * moduleVy;
+            vy += forwardVy[2 * i] * moduleVx + forwardVy[2 * i + 1] * moduleVy;
+            omega += forwardOmega[2 * i] * moduleVx + forwardOmega[2 * i + 1] * moduleVy;
+        }
+        chassisOut[0] = vx;
+        chassisOut[1] = vy;
+        chassisOut[2] = omega;
+    }
+}
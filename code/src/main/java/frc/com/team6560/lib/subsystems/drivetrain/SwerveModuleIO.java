@@ -0,0 +1,103 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Generic interface for interacting with a single swerve module, regardless of whether it is backed by hardware or simulated.
+ */
+public interface SwerveModuleIO {
+
+    /**
+     * Refreshes module state. Call once per loop before reading values.
+     */
+    void updateInputs();
+
+    /**
+     * Gets the input snapshot taken during the last call to updateInputs(), for logging.
+     * Getters below return values from this snapshot, so they are consistent within a loop and follow the logged values in replay.
+     * @return The most recent module inputs.
+     */
+    SwerveModuleInputs getInputs();
+
+    /**
+     * Gets the distance driven and angle of the module.
+     * @return Module position.
+     */
+    SwerveModulePosition getPosition();
+
+    /**
+     * Gets the velocity and angle of the module.
+     * @return Module state.
+     */
+    SwerveModuleState getState();
+
+    /**
+     * Gets the distance driven by the module.
+     * @return Drive distance in meters.
+     */
+    double getDrivePositionMeters();
+
+    /**
+     * Gets the velocity of the module.
+     * @return Drive velocity in meters per second.
+     */
+    double getDriveVelocityMetersPerSecond();
+
+    /**
+     * Gets the stator current of the drive motor.
+     * @return Drive current in amps.
+     */
+    double getDriveCurrentAmps();
+
+    /**
+     * Gets the angle of the module.
+     * @return Steer angle in radians.
+     */
+    double getSteerAngle();
+
+    /**
+     * Reads the distance driven by the module from its sensors and caches it, along with drive velocity, for the next
+     * updateInputs(). Called only by the odometry thread, after it has refreshed any Phoenix 6 signals of the module.
+     * @return Drive distance in meters.
+     */
+    double sampleDrivePositionMeters();
+
+    /**
+     * Reads the angle of the module from its sensors and caches it for the next updateInputs().
+     * Called only by the odometry thread, after it has refreshed any Phoenix 6 signals of the module.
+     * @return Steer angle in radians.
+     */
+    double sampleSteerAngle();
+
+    /**
+     * Sets the drive voltage and steer angle of the module.
+     * If the target angle is more than 90 degrees away, the module turns to the opposite angle and drives in reverse.
+     * @param driveVoltage Drive motor voltage.
+     * @param steerAngle Target steer angle in radians.
+     */
+    void set(double driveVoltage, double steerAngle);
+
+    /**
+     * Sets the drive velocity and steer angle of the module, using the drive motor's onboard velocity control.
+     * If the target angle is more than 90 degrees away, the module turns to the opposite angle and drives in reverse.
+     * @param velocityMetersPerSecond Target drive velocity in meters per second.
+     * @param feedforwardVolts Voltage added to the output of the velocity controller.
+     * @param steerAngle Target steer angle in radians.
+     */
+    void setDriveVelocity(double velocityMetersPerSecond, double feedforwardVolts, double steerAngle);
+
+    /**
+     * Configures the gains of the drive motor's velocity controller.
+     * @param kP Proportional gain in volts per meter per second of error.
+     * @param kI Integral gain in volts per meter of accumulated error.
+     * @param kD Derivative gain in volts per meter per second squared.
+     */
+    void setDriveVelocityPID(double kP, double kI, double kD);
+
+    /**
+     * Sets the drive motor to brake or coast mode. The steer motor is always set to coast.
+     * @param brake True if braking, false if coasting.
+     */
+    void setBrakeMode(boolean brake);
+}
@@ -0,0 +1,32 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * Snapshot of swerve module sensor values, filled once per loop by {@link SwerveModuleIO#updateInputs()}
+ * and logged with AdvantageKit.
+ */
+public class SwerveModuleInputs implements LoggableInputs {
+    public double drivePositionMeters = 0.0;
+    public double driveVelocityMetersPerSecond = 0.0;
+    public double driveCurrentAmps = 0.0;
+    /** Steer angle in radians. */
+    public double steerAngle = 0.0;
+
+    @Override
+    public void toLog(LogTable table) {
+        table.put("DrivePositionMeters", drivePositionMeters);
+        table.put("DriveVelocityMetersPerSecond", driveVelocityMetersPerSecond);
+        table.put("DriveCurrentAmps", driveCurrentAmps);
+        table.put("SteerAngle", steerAngle);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+        drivePositionMeters = table.get("DrivePositionMeters", drivePositionMeters);
+        driveVelocityMetersPerSecond = table.get("DriveVelocityMetersPerSecond", driveVelocityMetersPerSecond);
+        driveCurrentAmps = table.get("DriveCurrentAmps", driveCurrentAmps);
+        steerAngle = table.get("SteerAngle", steerAngle);
+    }
+}
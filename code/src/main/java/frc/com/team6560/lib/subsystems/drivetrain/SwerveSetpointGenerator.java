@@ -0,0 +1,195 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+/**
+ * Generates module setpoints that the drivetrain can actually follow from one loop to the next.
+ * Requested chassis speeds are discretized for the loop period and desaturated, then moved towards from the previous
+ * setpoint only as far as module acceleration and steering rate limits allow. Each module steers towards whichever
+ * of its two equivalent angles is closer, reversing drive direction instead of turning more than 90 degrees.
+ * Operates on preallocated primitive arrays so that generating setpoints every loop does not allocate.
+ */
+public class SwerveSetpointGenerator {
+
+    private static final double SPEED_EPSILON = 1.0E-6;
+    private static final int STEERING_SEARCH_ITERATIONS = 10;
+
+    private final SwerveKinematics kinematics;
+    private final int moduleCount;
+
+    private final double maxModuleSpeed;
+    private final double maxModuleAcceleration;
+    private final double maxSteerVelocity;
+    private final double dt;
+
+    // Previous setpoint.
+    private double previousVx;
+    private double previousVy;
+    private double previousOmega;
+    private final double[] previousAngles;
+
+    // Scratch buffers.
+    private final double[] desiredSpeeds;
+    private final double[] desiredAngles;
+
+    /**
+     * Initialize setpoint generator.
+     * @param kinematics Kinematics of drivetrain.
+     * @param maxModuleSpeed Maximum module speed in m/s.
+     * @param maxModuleAcceleration Maximum change in module velocity in m/s^2. Use Double.POSITIVE_INFINITY for no limit.
+     * @param maxSteerVelocity Maximum module steering rate in rad/s. Use Double.POSITIVE_INFINITY for no limit.
+     * @param dt Loop period in seconds.
+     */
+    public SwerveSetpointGenerator(SwerveKinematics kinematics, double maxModuleSpeed, double maxModuleAcceleration, double maxSteerVelocity, double dt) {
+        if (maxModuleSpeed <= 0.0 || maxModuleAcceleration <= 0.0 || maxSteerVelocity <= 0.0 || dt <= 0.0) {
+            throw new IllegalArgumentException("Setpoint generator limits and period must be positive");
+        }
+        this.kinematics = kinematics;
+        this.moduleCount = kinematics.getModuleCount();
+        this.maxModuleSpeed = maxModuleSpeed;
+        this.maxModuleAcceleration = maxModuleAcceleration;
+        this.maxSteerVelocity = maxSteerVelocity;
+        this.dt = dt;
+        this.previousAngles = new double[moduleCount];
+        this.desiredSpeeds = new double[moduleCount];
+        this.desiredAngles = new double[moduleCount];
+    }
+
+    /**
+     * Generate the next module setpoints towards the requested chassis speeds.
+     * @param vx Requested forward velocity in m/s.
+     * @param vy Requested left velocity in m/s.
+     * @param omega Requested counterclockwise angular velocity in rad/s.
+     * @param speedsOut Module speeds in m/s. May be negative where a module drives in reverse instead of turning around.
+     * @param anglesOut Module angles in radians.
+     */
+    public void generate(double vx, double vy, double omega, double[] speedsOut, double[] anglesOut) {
+        // Discretize, so that translating while rotating over one loop does not drift sideways.
+        double dtheta = omega * dt;
+        double halfDtheta = dtheta / 2.0;
+        double cosMinusOne = Math.cos(dtheta) - 1.0;
+        double halfThetaByTanOfHalfDtheta = (Math.abs(cosMinusOne) < 1.0E-9)
+            ? 1.0 - dtheta * dtheta / 12.0
+            : -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        double targetVx = vx * halfThetaByTanOfHalfDtheta + vy * halfDtheta;
+        double targetVy = vy * halfThetaByTanOfHalfDtheta - vx * halfDtheta;
+        double targetOmega = omega;
+
+        // Desaturate at the chassis level, so that the direction of travel is preserved.
+        kinematics.toModuleStates(targetVx, targetVy, targetOmega, desiredSpeeds, desiredAngles);
+        double fastest = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            fastest = Math.max(fastest, desiredSpeeds[i]);
+        }
+        if (fastest > maxModuleSpeed) {
+            double scale = maxModuleSpeed / fastest;
+            targetVx *= scale;
+            targetVy *= scale;
+            targetOmega *= scale;
+        }
+
+        double deltaVx = targetVx - previousVx;
+        double deltaVy = targetVy - previousVy;
+        double deltaOmega = targetOmega - previousOmega;
+
+        // Module velocity changes linearly along the way to the target, so the acceleration limit has a closed form.
+        double fraction = 1.0;
+        double maxVelocityStep = maxModuleAcceleration * dt;
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleDeltaVx = deltaVx - deltaOmega * kinematics.getModuleY(i);
+            double moduleDeltaVy = deltaVy + deltaOmega * kinematics.getModuleX(i);
+            double moduleDelta = Math.hypot(moduleDeltaVx, moduleDeltaVy);
+            if (moduleDelta * fraction > maxVelocityStep) {
+                fraction = maxVelocityStep / moduleDelta;
+            }
+        }
+
+        // Modules that are already moving cannot change direction faster than they can steer without scrubbing.
+        if (!isSteeringFeasible(fraction, deltaVx, deltaVy, deltaOmega)) {
+            double low = 0.0;
+            double high = fraction;
+            for (int iteration = 0; iteration < STEERING_SEARCH_ITERATIONS; iteration++) {
+                double mid = (low + high) / 2.0;
+                if (isSteeringFeasible(mid, deltaVx, deltaVy, deltaOmega)) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            fraction = low;
+        }
+
+        previousVx += deltaVx * fraction;
+        previousVy += deltaVy * fraction;
+        previousOmega += deltaOmega * fraction;
+
+        for (int i = 0; i < moduleCount; i++) {
+            anglesOut[i] = previousAngles[i];
+        }
+        kinematics.toModuleStates(previousVx, previousVy, previousOmega, speedsOut, anglesOut);
+
+        double maxSteerStep = maxSteerVelocity * dt;
+        for (int i = 0; i < moduleCount; i++) {
+            double speed = speedsOut[i];
+            double error = Math.IEEEremainder(anglesOut[i] - previousAngles[i], 2.0 * Math.PI);
+            if (Math.abs(error) > Math.PI / 2.0) {
+                error -= Math.copySign(Math.PI, error);
+                speed = -speed;
+            }
+            double step = Math.max(-maxSteerStep, Math.min(maxSteerStep, error));
+            // Modules still turning only drive with the component of their speed along the direction they face.
+            speedsOut[i] = speed * Math.cos(error - step);
+            anglesOut[i] = Math.IEEEremainder(previousAngles[i] + step, 2.0 * Math.PI);
+            previousAngles[i] = anglesOut[i];
+        }
+    }
+
+    /**
+     * Check whether moving a fraction of the way to the target keeps every moving module within its steering rate.
+     */
+    private boolean isSteeringFeasible(double fraction, double deltaVx, double deltaVy, double deltaOmega) {
+        double maxSteerStep = maxSteerVelocity * dt;
+        for (int i = 0; i < moduleCount; i++) {
+            double x = kinematics.getModuleX(i);
+            double y = kinematics.getModuleY(i);
+            double fromVx = previousVx - previousOmega * y;
+            double fromVy = previousVy + previousOmega * x;
+            if (Math.hypot(fromVx, fromVy) < SPEED_EPSILON) {
+                continue;
+            }
+            double toVx = fromVx + (deltaVx - deltaOmega * y) * fraction;
+            double toVy = fromVy + (deltaVy + deltaOmega * x) * fraction;
+            if (Math.hypot(toVx, toVy) < SPEED_EPSILON) {
+                continue;
+            }
+            // Reversing drive direction is free, so only the change in angle modulo 180 degrees counts.
+            double change = Math.IEEEremainder(Math.atan2(toVy, toVx) - Math.atan2(fromVy, fromVx), Math.PI);
+            if (Math.abs(change) > maxSteerStep) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the previous setpoint has the chassis at rest.
+     * @return True if all previous chassis speeds are zero.
+     */
+    public boolean isAtRest() {
+        return previousVx == 0.0 && previousVy == 0.0 && previousOmega == 0.0;
+    }
+
+    /**
+     * Reset previous setpoint, for example after modules have been commanded directly.
+     * @param vx Forward velocity of chassis in m/s.
+     * @param vy Left velocity of chassis in m/s.
+     * @param omega Counterclockwise angular velocity of chassis in rad/s.
+     * @param angles Module angles in radians.
+     */
+    public void reset(double vx, double vy, double omega, double[] angles) {
+        previousVx = vx;
+        previousVy = vy;
+        previousOmega = omega;
+        for (int i = 0; i < moduleCount; i++) {
+            previousAngles[i] = angles[i];
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package frc.com.team6560.lib.subsystems.roller;
 
+import frc.com.team6560.lib.hardware.CanBusMonitor;
+import frc.com.team6560.lib.hardware.DeviceInitializer;
+import frc.com.team6560.lib.hardware.motors.MotorIO;
+import frc.com.team6560.lib.hardware.motors.MotorSignalProfile;
 import frc.com.team6560.lib.hardware.motors.RollerSubsystemMotor;
 import frc.com.team6560.lib.hardware.motors.RollerSubsystemMotor.MotorMode;
 import frc.com.team6560.lib.hardware.sensors.DigitalInputSensor;
+import frc.com.team6560.lib.util.NetworkTable.TelemetryLevel;
 
 import java.util.List;
 import java.util.ArrayList;
 
+import org.littletonrobotics.junction.Logger;
+
 import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
@@ -27,6 +34,10 @@ public class BasicRollerSubsystem extends SubsystemBase implements BasicRollerSu
     private DigitalInputSensor digitalInputSensor;
     private SensorMode sensorMode;
 
+    // AdvantageKit input keys, built once so that logging does not concatenate strings every loop.
+    private List<String> motorLogKeys;
+    private String sensorLogKey;
+
     public enum SensorMode {
         DEACTIVATED,
         FORWARD_REQUIRES_SENSOR_ON,
@@ -40,6 +51,8 @@ public class BasicRollerSubsystem extends SubsystemBase implements BasicRollerSu
         this.motors = new ArrayList<>();
         this.digitalInputSensor = null;
         this.sensorMode = SensorMode.DEACTIVATED;
+        this.motorLogKeys = new ArrayList<>();
+        this.sensorLogKey = name + "/Sensor";
     }
 
     /**
@@ -48,6 +61,7 @@ public class BasicRollerSubsystem extends SubsystemBase implements BasicRollerSu
      * @return BasicRollerSubsystem for chainability.
      */
     public BasicRollerSubsystem withMotor(RollerSubsystemMotor motor) {
+        this.motorLogKeys.add(name + "/Motor" + this.motors.size());
         this.motors.add(motor);
         return this; 
     }
@@ -78,7 +92,8 @@ public class BasicRollerSubsystem extends SubsystemBase implements BasicRollerSu
 
     /**
      * Build basic roller subsystem with given motors and sensors. Call after full initialization.
-     * Adds relevant values to ntDispTab.
+     * Adds relevant values to ntDispTab (motor values at the DEBUG telemetry level), applies a default signal profile to motors that do not have one,
+     * and registers motors with the CAN bus monitor.
      */
     public void build() {
         for (int i = 0; i < this.motors.size(); i++) {
@@ -86,10 +101,21 @@ public class BasicRollerSubsystem extends SubsystemBase implements BasicRollerSu
             RollerSubsystemMotor motor = this.motors.get(i);
             MotorMode motorMode = motor.getMode(); 
 
+            if (motor.getMotor().getSignalProfile() == null) {
+                MotorSignalProfile profile = (motorMode == MotorMode.VELOCITY) ? MotorSignalProfile.VELOCITY_CONTROL : MotorSignalProfile.OPEN_LOOP;
+                // Chained after the motor's own configuration, which restores factory defaults and would undo the profile.
+                DeviceInitializer.getInstance().submitAfter(name + " Motor " + i + " signal profile", motor.getMotor().getConfigFuture(), () -> {
+                    motor.getMotor().setSignalProfile(profile);
+                    return null;
+                });
+            }
+
+            CanBusMonitor.getInstance().register(name, "Motor " + i, motor.getMotor());
+
             if (motorMode == MotorMode.DUTY_CYCLE) {
-                ntDispTab(name).add("Motor "+i+" Velocity: ", motor.getMotor()::getVelocityRPM);
+                ntDispTab(name, TelemetryLevel.DEBUG).add("Motor "+i+" Velocity: ", motor.getMotor()::getVelocityRPM);
             } else {
-                ntDispTab(name).add("Motor "+i+" Duty Cycle %: ", motor.getMotor()::getDutyCyclePercent);
+                ntDispTab(name, TelemetryLevel.DEBUG).add("Motor "+i+" Duty Cycle %: ", motor.getMotor()::getDutyCyclePercent);
             }
         }
         if (digitalInputSensor != null) {
@@ -97,6 +123,27 @@ public class BasicRollerSubsystem extends SubsystemBase implements BasicRollerSu
         }
     }
 
+    /**
+     * Get wrapped motors of subsystem, for example for characterization.
+     * @return Motors in the order they were added.
+     */
+    public List<RollerSubsystemMotor> getMotors() {
+        return motors;
+    }
+
+    @Override
+    public void periodic() {
+        for (int i = 0; i < this.motors.size(); i++) {
+            MotorIO motor = this.motors.get(i).getMotor();
+            motor.updateInputs();
+            Logger.processInputs(motorLogKeys.get(i), motor.getInputs());
+        }
+        if (digitalInputSensor != null) {
+            digitalInputSensor.updateInputs();
+            Logger.processInputs(sensorLogKey, digitalInputSensor.getInputs());
+        }
+    }
+
     @Override
     public void run() {
         if (runOK()) {
@@ -8,4 +8,10 @@ public class RobotTime {
         long micros = Logger.getTimestamp();
         return (double) micros * 1.0E-6;
     }
+
+    // Current FPGA time rather than the time at the start of the loop. Safe to call from background threads.
+    public static double getRealTimestampSeconds() {
+        long micros = Logger.getRealTimestamp();
+        return (double) micros * 1.0E-6;
+    }
 }
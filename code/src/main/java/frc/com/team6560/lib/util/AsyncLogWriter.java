@@ -0,0 +1,482 @@
+package frc.com.team6560.lib.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log sink which writes WPILOG files without doing file I/O on the calling thread.
+ * Records are serialized into a preallocated ring buffer by the caller, and a background thread writes them to the
+ * file in batches and periodically syncs it to disk, so a slow USB stick cannot stall the robot loop.
+ * If the writer falls behind and the buffer fills, records are dropped according to the back-pressure policy and
+ * counted, rather than blocking the caller.
+ */
+public class AsyncLogWriter {
+
+    public enum BackPressure {
+        // Discard the oldest buffered records to make room for new ones.
+        DROP_OLDEST,
+        // Reject new low-priority records once the buffer is above the high-water mark, keeping room for high-priority
+        // records. Buffered records are never discarded.
+        DROP_LOW_PRIORITY
+    }
+
+    public enum Priority {
+        LOW,
+        HIGH
+    }
+
+    private static final byte[] FILE_MAGIC = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+    private static final short FILE_VERSION = 0x0100;
+
+    // Every record uses 4-byte entry IDs, 4-byte payload sizes and 8-byte timestamps, so record size depends only on
+    // the payload.
+    private static final byte RECORD_HEADER_BITFIELD = 0x7F;
+    private static final int RECORD_HEADER_BYTES = 1 + 4 + 4 + 8;
+    // Each record in the ring buffer is prefixed with its length, so that whole records can be dropped.
+    private static final int FRAME_PREFIX_BYTES = 4;
+    private static final byte CONTROL_START = 0;
+
+    private final BackPressure backPressure;
+    private final long flushPeriodMillis;
+    private final long syncPeriodMillis;
+    private final int lowPriorityHighWaterBytes;
+
+    private final byte[] buffer;
+    private final int mask;
+    private long head = 0; // total bytes written to the ring buffer
+    private long tail = 0; // total bytes read from the ring buffer
+
+    // Start records are kept apart from the ring buffer so that they are never dropped.
+    private final List<byte[]> pendingStartRecords = new ArrayList<>();
+    private Priority[] entryPriorities = new Priority[16];
+    private int entryCount = 0;
+
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private long writtenRecords = 0;
+    private long droppedOldestRecords = 0;
+    private long droppedLowPriorityRecords = 0;
+    private long droppedOverflowRecords = 0;
+    private volatile boolean writeFailed = false;
+
+    /**
+     * Private constructor to enforce usage of builder.
+     * @param builder Builder to initialize class.
+     * @param path Path of log file.
+     * @throws IOException If log file cannot be created.
+     */
+    private AsyncLogWriter(Builder builder, Path path) throws IOException {
+        if (builder.bufferSizeBytes < 1024) {
+            throw new IllegalArgumentException("Buffer size must be at least 1024 bytes");
+        }
+        if (builder.flushPeriodSeconds <= 0.0 || builder.syncPeriodSeconds <= 0.0) {
+            throw new IllegalArgumentException("Flush and sync periods must be positive");
+        }
+        if (builder.lowPriorityHighWater <= 0.0 || builder.lowPriorityHighWater > 1.0) {
+            throw new IllegalArgumentException("Low priority high-water mark must be between 0 and 1");
+        }
+        this.backPressure = builder.backPressure;
+        this.flushPeriodMillis = Math.max(1, (long) (builder.flushPeriodSeconds * 1000.0));
+        this.syncPeriodMillis = Math.max(1, (long) (builder.syncPeriodSeconds * 1000.0));
+
+        int capacity = Integer.highestOneBit(builder.bufferSizeBytes - 1) << 1;
+        this.buffer = new byte[capacity];
+        this.mask = capacity - 1;
+        this.lowPriorityHighWaterBytes = (int) (capacity * builder.lowPriorityHighWater);
+        this.writeBuffer = ByteBuffer.allocateDirect(capacity);
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(createFileHeader(builder.extraHeader));
+
+        this.writerThread = new Thread(this::runWriter, "AsyncLogWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public static class Builder {
+        private int bufferSizeBytes = 1 << 20;
+        private BackPressure backPressure = BackPressure.DROP_OLDEST;
+        private double lowPriorityHighWater = 0.75;
+        private double flushPeriodSeconds = 0.1;
+        private double syncPeriodSeconds = 1.0;
+        private String extraHeader = "";
+
+        /** Size of ring buffer, rounded up to a power of two. 1 MiB by default. */
+        public Builder setBufferSizeBytes(int bufferSizeBytes) { this.bufferSizeBytes = bufferSizeBytes; return this; }
+        /** Policy applied when the ring buffer is full. DROP_OLDEST by default. */
+        public Builder setBackPressure(BackPressure backPressure) { this.backPressure = backPressure; return this; }
+        /** Fraction of buffer above which DROP_LOW_PRIORITY rejects low-priority records. 0.75 by default. */
+        public Builder setLowPriorityHighWater(double lowPriorityHighWater) { this.lowPriorityHighWater = lowPriorityHighWater; return this; }
+        /** Time between batched writes. 0.1 seconds by default. */
+        public Builder setFlushPeriodSeconds(double flushPeriodSeconds) { this.flushPeriodSeconds = flushPeriodSeconds; return this; }
+        /** Time between syncs of the file to disk. 1 second by default. */
+        public Builder setSyncPeriodSeconds(double syncPeriodSeconds) { this.syncPeriodSeconds = syncPeriodSeconds; return this; }
+        /** Extra header string stored in the file. */
+        public Builder setExtraHeader(String extraHeader) { this.extraHeader = extraHeader; return this; }
+
+        /**
+         * Create log file and start writer thread.
+         * @param path Path of log file. An existing file is overwritten.
+         * @return Log writer.
+         * @throws IOException If log file cannot be created.
+         */
+        public AsyncLogWriter build(Path path) throws IOException {
+            return new AsyncLogWriter(this, path);
+        }
+    }
+
+    private static ByteBuffer createFileHeader(String extraHeader) {
+        byte[] extra = extraHeader.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(FILE_MAGIC.length + 2 + 4 + extra.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(FILE_MAGIC).putShort(FILE_VERSION).putInt(extra.length).put(extra);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Register a double entry.
+     * @param name Entry name, for example "Drivetrain/Gyro Yaw".
+     * @param priority Priority used by DROP_LOW_PRIORITY back-pressure.
+     * @return Entry ID to append values with.
+     */
+    public int addDoubleEntry(String name, Priority priority) {
+        return addEntry(name, "double", priority);
+    }
+
+    /**
+     * Register a boolean entry.
+     * @param name Entry name.
+     * @param priority Priority used by DROP_LOW_PRIORITY back-pressure.
+     * @return Entry ID to append values with.
+     */
+    public int addBooleanEntry(String name, Priority priority) {
+        return addEntry(name, "boolean", priority);
+    }
+
+    /**
+     * Register an integer entry.
+     * @param name Entry name.
+     * @param priority Priority used by DROP_LOW_PRIORITY back-pressure.
+     * @return Entry ID to append values with.
+     */
+    public int addIntegerEntry(String name, Priority priority) {
+        return addEntry(name, "int64", priority);
+    }
+
+    /**
+     * Register a string entry.
+     * @param name Entry name.
+     * @param priority Priority used by DROP_LOW_PRIORITY back-pressure.
+     * @return Entry ID to append values with.
+     */
+    public int addStringEntry(String name, Priority priority) {
+        return addEntry(name, "string", priority);
+    }
+
+    private synchronized int addEntry(String name, String type, Priority priority) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        int payloadSize = 1 + 4 + 4 + nameBytes.length + 4 + typeBytes.length + 4;
+        if (RECORD_HEADER_BYTES + payloadSize > buffer.length) {
+            throw new IllegalArgumentException("Log entry name is too long for buffer: " + name);
+        }
+
+        int entry = ++entryCount;
+        if (entry == entryPriorities.length) {
+            entryPriorities = Arrays.copyOf(entryPriorities, entryPriorities.length * 2);
+        }
+        entryPriorities[entry] = priority;
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadSize).order(ByteOrder.LITTLE_ENDIAN);
+        record.put(RECORD_HEADER_BITFIELD).putInt(0).putInt(payloadSize).putLong(RobotController.getFPGATime());
+        record.put(CONTROL_START).putInt(entry)
+            .putInt(nameBytes.length).put(nameBytes)
+            .putInt(typeBytes.length).put(typeBytes)
+            .putInt(0); // no metadata
+        pendingStartRecords.add(record.array());
+        return entry;
+    }
+
+    /**
+     * Append a value to a double entry, timestamped with the current FPGA time.
+     * @param entry Entry ID.
+     * @param value Value.
+     * @return False if the record was dropped.
+     */
+    public synchronized boolean appendDouble(int entry, double value) {
+        if (!reserve(entry, 8)) {
+            return false;
+        }
+        putLong(Double.doubleToRawLongBits(value));
+        return true;
+    }
+
+    /**
+     * Append a value to a boolean entry, timestamped with the current FPGA time.
+     * @param entry Entry ID.
+     * @param value Value.
+     * @return False if the record was dropped.
+     */
+    public synchronized boolean appendBoolean(int entry, boolean value) {
+        if (!reserve(entry, 1)) {
+            return false;
+        }
+        putByte(value ? 1 : 0);
+        return true;
+    }
+
+    /**
+     * Append a value to an integer entry, timestamped with the current FPGA time.
+     * @param entry Entry ID.
+     * @param value Value.
+     * @return False if the record was dropped.
+     */
+    public synchronized boolean appendInteger(int entry, long value) {
+        if (!reserve(entry, 8)) {
+            return false;
+        }
+        putLong(value);
+        return true;
+    }
+
+    /**
+     * Append a value to a string entry, timestamped with the current FPGA time.
+     * Encoding the string allocates, so prefer numeric entries for values logged every loop.
+     * @param entry Entry ID.
+     * @param value Value.
+     * @return False if the record was dropped.
+     */
+    public synchronized boolean appendString(int entry, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (!reserve(entry, bytes.length)) {
+            return false;
+        }
+        for (byte b : bytes) {
+            putByte(b);
+        }
+        return true;
+    }
+
+    /**
+     * Make room for a record according to the back-pressure policy, then write its frame prefix and record header.
+     * @return False if the record was dropped.
+     */
+    private boolean reserve(int entry, int payloadSize) {
+        if (entry <= 0 || entry > entryCount) {
+            throw new IllegalArgumentException("Unknown log entry " + entry);
+        }
+        if (!running) {
+            return false;
+        }
+        int recordSize = RECORD_HEADER_BYTES + payloadSize;
+        int frameSize = FRAME_PREFIX_BYTES + recordSize;
+        if (frameSize > buffer.length) {
+            droppedOverflowRecords++;
+            return false;
+        }
+
+        if (backPressure == BackPressure.DROP_OLDEST) {
+            while (buffer.length - (head - tail) < frameSize) {
+                tail += FRAME_PREFIX_BYTES + getInt(tail);
+                droppedOldestRecords++;
+            }
+        } else {
+            long used = head - tail;
+            if (entryPriorities[entry] == Priority.LOW && used + frameSize > lowPriorityHighWaterBytes) {
+                droppedLowPriorityRecords++;
+                return false;
+            }
+            if (buffer.length - used < frameSize) {
+                droppedOverflowRecords++;
+                return false;
+            }
+        }
+
+        putInt(recordSize);
+        putByte(RECORD_HEADER_BITFIELD);
+        putInt(entry);
+        putInt(payloadSize);
+        putLong(RobotController.getFPGATime());
+        return true;
+    }
+
+    private void putByte(int value) {
+        buffer[(int) (head & mask)] = (byte) value;
+        head++;
+    }
+
+    private void putInt(int value) {
+        for (int i = 0; i < 4; i++) {
+            putByte(value >>> (8 * i));
+        }
+    }
+
+    private void putLong(long value) {
+        for (int i = 0; i < 8; i++) {
+            putByte((int) (value >>> (8 * i)));
+        }
+    }
+
+    private int getInt(long position) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value |= (buffer[(int) ((position + i) & mask)] & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    /**
+     * Move pending start records and buffered records into the write buffer, without their frame prefixes.
+     * Buffered records are only moved once every pending start record has been, since they may use those entries.
+     * Only copies memory, so callers appending records are held up only briefly.
+     */
+    private synchronized void drain() {
+        writeBuffer.clear();
+        while (!pendingStartRecords.isEmpty() && writeBuffer.remaining() >= pendingStartRecords.get(0).length) {
+            writeBuffer.put(pendingStartRecords.remove(0));
+        }
+        while (pendingStartRecords.isEmpty() && head != tail) {
+            int recordSize = getInt(tail);
+            if (writeBuffer.remaining() < recordSize) {
+                break;
+            }
+            long start = tail + FRAME_PREFIX_BYTES;
+            int offset = (int) (start & mask);
+            int firstPart = Math.min(recordSize, buffer.length - offset);
+            writeBuffer.put(buffer, offset, firstPart);
+            writeBuffer.put(buffer, 0, recordSize - firstPart);
+            tail = start + recordSize;
+            writtenRecords++;
+        }
+        writeBuffer.flip();
+    }
+
+    private void runWriter() {
+        long lastSyncMillis = System.currentTimeMillis();
+        boolean unsynced = false;
+        while (running) {
+            // Woken early by close(). Interrupts are not used, since they would close the file channel.
+            LockSupport.parkNanos(flushPeriodMillis * 1_000_000L);
+            try {
+                drain();
+                while (writeBuffer.hasRemaining()) {
+                    unsynced = true;
+                    channel.write(writeBuffer);
+                }
+                long now = System.currentTimeMillis();
+                if (unsynced && now - lastSyncMillis >= syncPeriodMillis) {
+                    channel.force(false);
+                    lastSyncMillis = now;
+                    unsynced = false;
+                }
+            } catch (IOException e) {
+                writeFailed = true;
+                running = false;
+                DriverStation.reportError("Log writer stopped: " + e.getMessage(), false);
+            }
+        }
+    }
+
+    /**
+     * Write remaining records, sync the file and close it. Records appended afterwards are dropped.
+     */
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+            if (!writeFailed) {
+                do {
+                    drain();
+                    while (writeBuffer.hasRemaining()) {
+                        channel.write(writeBuffer);
+                    }
+                } while (hasBufferedRecords());
+                channel.force(false);
+            }
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            DriverStation.reportError("Failed to close log file: " + e.getMessage(), false);
+        }
+    }
+
+    private synchronized boolean hasBufferedRecords() {
+        return head != tail || !pendingStartRecords.isEmpty();
+    }
+
+    /**
+     * Get number of bytes waiting to be written.
+     * @return Buffered bytes, including frame prefixes.
+     */
+    public synchronized long getBufferedBytes() {
+        return head - tail;
+    }
+
+    /**
+     * Get number of records handed to the file.
+     * @return Written record count, excluding start records.
+     */
+    public synchronized long getWrittenRecords() {
+        return writtenRecords;
+    }
+
+    /**
+     * Get number of buffered records discarded by DROP_OLDEST back-pressure.
+     * @return Dropped record count.
+     */
+    public synchronized long getDroppedOldestRecords() {
+        return droppedOldestRecords;
+    }
+
+    /**
+     * Get number of low-priority records rejected by DROP_LOW_PRIORITY back-pressure.
+     * @return Dropped record count.
+     */
+    public synchronized long getDroppedLowPriorityRecords() {
+        return droppedLowPriorityRecords;
+    }
+
+    /**
+     * Get number of records rejected because they did not fit in the buffer at all.
+     * @return Dropped record count.
+     */
+    public synchronized long getDroppedOverflowRecords() {
+        return droppedOverflowRecords;
+    }
+
+    /**
+     * Get total number of dropped records.
+     * @return Dropped record count.
+     */
+    public synchronized long getDroppedRecords() {
+        return droppedOldestRecords + droppedLowPriorityRecords + droppedOverflowRecords;
+    }
+
+    /**
+     * Check whether the writer thread stopped because of a file error.
+     * @return True if writing failed.
+     */
+    public boolean hasWriteFailed() {
+        return writeFailed;
+    }
+}
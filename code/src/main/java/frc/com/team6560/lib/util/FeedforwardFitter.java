@@ -0,0 +1,151 @@
+package frc.com.team6560.lib.util;
+
+/**
+ * Least-squares fit of a simple motor feedforward model, V = kS * sign(v) + kV * v + kA * a, to measured samples.
+ * Samples are accumulated into the normal equations as they arrive, so any number of samples can be added without
+ * storing them. Units of kV and kA follow the units of the velocities and accelerations added.
+ */
+public class FeedforwardFitter {
+
+    private final double minVelocity;
+
+    // Upper triangle of A^T A and A^T b, where each row of A is [sign(v), v, a].
+    private double ss, sv, sa, vv, va, aa;
+    private double sb, vb, ab, bb, b;
+    private int sampleCount;
+
+    private double kS;
+    private double kV;
+    private double kA;
+    private double rSquared;
+
+    /**
+     * Initialize fitter.
+     * @param minVelocity Samples with a velocity magnitude at or below this are ignored, since static friction
+     * makes voltage unrelated to velocity while the mechanism is not moving.
+     */
+    public FeedforwardFitter(double minVelocity) {
+        this.minVelocity = minVelocity;
+        reset();
+    }
+
+    /**
+     * Remove all samples and fitted gains.
+     */
+    public void reset() {
+        ss = sv = sa = vv = va = aa = 0.0;
+        sb = vb = ab = bb = b = 0.0;
+        sampleCount = 0;
+        kS = kV = kA = rSquared = 0.0;
+    }
+
+    /**
+     * Add a measured sample.
+     * @param volts Voltage applied to the motor.
+     * @param velocity Measured velocity.
+     * @param acceleration Measured acceleration.
+     */
+    public void addSample(double volts, double velocity, double acceleration) {
+        if (Math.abs(velocity) <= minVelocity || !Double.isFinite(volts) || !Double.isFinite(velocity) || !Double.isFinite(acceleration)) {
+            return;
+        }
+        double sign = Math.signum(velocity);
+        ss += sign * sign;
+        sv += sign * velocity;
+        sa += sign * acceleration;
+        vv += velocity * velocity;
+        va += velocity * acceleration;
+        aa += acceleration * acceleration;
+        sb += sign * volts;
+        vb += velocity * volts;
+        ab += acceleration * volts;
+        bb += volts * volts;
+        b += volts;
+        sampleCount++;
+    }
+
+    /**
+     * Fit gains to all samples added so far.
+     * @throws IllegalStateException If the samples do not determine all three gains, for example because only
+     * constant-velocity samples were added.
+     */
+    public void fit() throws IllegalStateException {
+        double[][] m = {
+            { ss, sv, sa, sb },
+            { sv, vv, va, vb },
+            { sa, va, aa, ab }
+        };
+        // Gaussian elimination with partial pivoting.
+        for (int col = 0; col < 3; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 3; row++) {
+                if (Math.abs(m[row][col]) > Math.abs(m[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(m[pivot][col]) < 1.0E-12) {
+                throw new IllegalStateException("Not enough varied samples to fit feedforward gains.");
+            }
+            double[] swap = m[col];
+            m[col] = m[pivot];
+            m[pivot] = swap;
+            for (int row = 0; row < 3; row++) {
+                if (row != col) {
+                    double factor = m[row][col] / m[col][col];
+                    for (int k = col; k < 4; k++) {
+                        m[row][k] -= factor * m[col][k];
+                    }
+                }
+            }
+        }
+        kS = m[0][3] / m[0][0];
+        kV = m[1][3] / m[1][1];
+        kA = m[2][3] / m[2][2];
+
+        double sumSquaredError = bb - 2.0 * (kS * sb + kV * vb + kA * ab)
+            + kS * kS * ss + kV * kV * vv + kA * kA * aa
+            + 2.0 * (kS * kV * sv + kS * kA * sa + kV * kA * va);
+        double totalSumSquares = bb - b * b / sampleCount;
+        rSquared = (totalSumSquares > 0.0) ? 1.0 - sumSquaredError / totalSumSquares : 0.0;
+    }
+
+    /**
+     * Get number of samples used in the fit.
+     * @return Sample count.
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Get fitted static friction voltage.
+     * @return kS in volts.
+     */
+    public double getKS() {
+        return kS;
+    }
+
+    /**
+     * Get fitted velocity gain.
+     * @return kV in volts per unit of velocity.
+     */
+    public double getKV() {
+        return kV;
+    }
+
+    /**
+     * Get fitted acceleration gain.
+     * @return kA in volts per unit of acceleration.
+     */
+    public double getKA() {
+        return kA;
+    }
+
+    /**
+     * Get coefficient of determination of the fit.
+     * @return R^2, where 1 is a perfect fit.
+     */
+    public double getRSquared() {
+        return rSquared;
+    }
+}
@@ -4,14 +4,15 @@
 
 package frc.com.team6560.lib.util.NetworkTable;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
-import frc.com.team6560.lib.util.AlwaysRunCommand;
-
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.util.struct.Struct;
 
 public class NtValueDisplay<T> {
     final NetworkTable ntTable;
@@ -32,6 +33,53 @@ public class NtValueDisplay<T> {
          * @return this `DispHelper` instance
          */
         DispHelper add(String name, Supplier<Object> value);
+
+        /**
+         * Adds a double value to display in the specified NetworkTables tab without boxing.
+         *
+         * @param name  the name of the value to display
+         * @param value the supplier that provides the value to display
+         * @return this `DispHelper` instance
+         */
+        DispHelper add(String name, DoubleSupplier value);
+
+        /**
+         * Adds a boolean value to display in the specified NetworkTables tab without boxing.
+         *
+         * @param name  the name of the value to display
+         * @param value the supplier that provides the value to display
+         * @return this `DispHelper` instance
+         */
+        DispHelper add(String name, BooleanSupplier value);
+
+        /**
+         * Adds an integer value to display in the specified NetworkTables tab without boxing.
+         *
+         * @param name  the name of the value to display
+         * @param value the supplier that provides the value to display
+         * @return this `DispHelper` instance
+         */
+        DispHelper add(String name, LongSupplier value);
+
+        /**
+         * Adds a struct-serialized value, such as a Pose2d, to display in the specified NetworkTables tab.
+         *
+         * @param name   the name of the value to display
+         * @param struct the struct serializer of the value type, for example Pose2d.struct
+         * @param value  the supplier that provides the value to display
+         * @return this `DispHelper` instance
+         */
+        <T> DispHelper addStruct(String name, Struct<T> struct, Supplier<T> value);
+
+        /**
+         * Adds an array of struct-serialized values, such as SwerveModuleState[], to display in the specified NetworkTables tab.
+         *
+         * @param name   the name of the value to display
+         * @param struct the struct serializer of the element type, for example SwerveModuleState.struct
+         * @param value  the supplier that provides the value to display
+         * @return this `DispHelper` instance
+         */
+        <T> DispHelper addStructArray(String name, Struct<T> struct, Supplier<T[]> value);
     }
 
     /**
@@ -55,23 +103,77 @@ public class NtValueDisplay<T> {
      * @param value the supplier that provides the value to display
      */
     public static void ntDisp(String tab, String name, Supplier<Object> value) {
-        NtValueDisplay<Object> valueDisplay = new NtValueDisplay<>(tab, name);
-
-        CommandScheduler.getInstance().schedule(new AlwaysRunCommand(() -> valueDisplay.update(value.get())));
+        TelemetryPublisher.getInstance().addObject(tab, name, value);
     }
 
     /**
      * Creates a new `DispHelper` instance that will create a new NetworkTables tab
-     * with the specified name.
+     * with the specified name. Values are published at the default telemetry level, every loop.
      *
      * @param tab the name of the tab to create
      * @return a `DispHelper` instance that can be used to add values to the new tab
      */
     public static DispHelper ntDispTab(String tab) {
+        return ntDispTab(tab, TelemetryPublisher.DEFAULT_VALUE_LEVEL, TelemetryPublisher.DEFAULT_RATE_HZ);
+    }
+
+    /**
+     * Creates a new `DispHelper` instance whose values are published only at or above
+     * the given telemetry level, every loop.
+     *
+     * @param tab   the name of the tab to create
+     * @param level the telemetry level of added values
+     * @return a `DispHelper` instance that can be used to add values to the new tab
+     */
+    public static DispHelper ntDispTab(String tab, TelemetryLevel level) {
+        return ntDispTab(tab, level, TelemetryPublisher.DEFAULT_RATE_HZ);
+    }
+
+    /**
+     * Creates a new `DispHelper` instance whose values are published only at or above
+     * the given telemetry level, at the given rate.
+     *
+     * @param tab    the name of the tab to create
+     * @param level  the telemetry level of added values
+     * @param rateHz the publish rate of added values in Hz, at most once per loop
+     * @return a `DispHelper` instance that can be used to add values to the new tab
+     */
+    public static DispHelper ntDispTab(String tab, TelemetryLevel level, double rateHz) {
+        TelemetryPublisher publisher = TelemetryPublisher.getInstance();
         return new DispHelper() {
             @Override
             public DispHelper add(String name, Supplier<Object> value) {
-                ntDisp(tab, name, value);
+                publisher.addObject(tab, name, level, rateHz, value);
+                return this;
+            }
+
+            @Override
+            public DispHelper add(String name, DoubleSupplier value) {
+                publisher.addDouble(tab, name, level, rateHz, value);
+                return this;
+            }
+
+            @Override
+            public DispHelper add(String name, BooleanSupplier value) {
+                publisher.addBoolean(tab, name, level, rateHz, value);
+                return this;
+            }
+
+            @Override
+            public DispHelper add(String name, LongSupplier value) {
+                publisher.addInteger(tab, name, level, rateHz, value);
+                return this;
+            }
+
+            @Override
+            public <T> DispHelper addStruct(String name, Struct<T> struct, Supplier<T> value) {
+                publisher.addStruct(tab, name, level, rateHz, struct, value);
+                return this;
+            }
+
+            @Override
+            public <T> DispHelper addStructArray(String name, Struct<T> struct, Supplier<T[]> value) {
+                publisher.addStructArray(tab, name, level, rateHz, struct, value);
                 return this;
             }
         };
@@ -0,0 +1,13 @@
+package frc.com.team6560.lib.util.NetworkTable;
+
+/**
+ * Verbosity tiers for telemetry values. A value is published only while the active level is at or above its own level.
+ */
+public enum TelemetryLevel {
+    /** Values needed by drivers and pit crew during a match. */
+    COMPETITION,
+    /** Values used when tuning and testing mechanisms. */
+    DEBUG,
+    /** High-rate or per-module values used when diagnosing a specific problem. */
+    VERBOSE
+}
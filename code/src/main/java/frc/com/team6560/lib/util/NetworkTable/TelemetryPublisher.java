@@ -0,0 +1,391 @@
+package frc.com.team6560.lib.util.NetworkTable;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.Publisher;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Service which publishes all registered telemetry values to NetworkTables in a single pass per loop.
+ * Values are held in flat arrays of typed suppliers and typed publishers, so numeric and boolean values are published
+ * without boxing, and the cost to the command scheduler stays the same however many values are registered.
+ *
+ * Structured values such as poses and module states are published as struct-serialized topics, which
+ * AdvantageScope can display directly. Each struct topic serializes into its own reused buffer.
+ *
+ * Each value has a telemetry level and a publish rate. Values are kept sorted by level, so values above the active
+ * level are never visited. The active level can be changed from code or from the "Telemetry Level" chooser.
+ */
+public class TelemetryPublisher {
+    private static Optional<TelemetryPublisher> instance = Optional.empty();
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Default level of values registered without one. */
+    public static final TelemetryLevel DEFAULT_VALUE_LEVEL = TelemetryLevel.COMPETITION;
+    /** Default publish rate of values registered without one, once per loop. */
+    public static final double DEFAULT_RATE_HZ = 1.0 / TimedRobot.kDefaultPeriod;
+
+    private final NetworkTableInstance networkTables;
+    private final SendableChooser<TelemetryLevel> levelChooser;
+    // Writes the chooser's selection, so that it shows levels set from code.
+    private final StringPublisher chooserSelectionPublisher;
+    // Last selection read from the chooser, so that only changes of selection are applied.
+    private TelemetryLevel lastChooserLevel;
+
+    private TelemetryLevel level = TelemetryLevel.DEBUG;
+    private long loopCount = 0;
+
+    private final Registry<DoubleSupplier, DoublePublisher> doubles = new Registry<>();
+    private final Registry<BooleanSupplier, BooleanPublisher> booleans = new Registry<>();
+    private final Registry<LongSupplier, IntegerPublisher> integers = new Registry<>();
+    private final Registry<Supplier<String>, StringPublisher> strings = new Registry<>();
+    // Values of unknown type, published with the type of each value as it is read.
+    private final Registry<Supplier<Object>, NetworkTableEntry> objects = new Registry<>();
+    // Struct values, each published by a task which reads its supplier and sets its publisher.
+    private final Registry<Runnable, Publisher> structs = new Registry<>();
+
+    /**
+     * Values of one type with their publishers, sorted by level so that the first activeCount values are those
+     * at or below the active level.
+     */
+    private static final class Registry<S, P> {
+        private Object[] suppliers = new Object[INITIAL_CAPACITY];
+        private Object[] publishers = new Object[INITIAL_CAPACITY];
+        private int[] levels = new int[INITIAL_CAPACITY];
+        private int[] periods = new int[INITIAL_CAPACITY];
+        private int count = 0;
+        private int activeCount = 0;
+
+        private void add(S supplier, P publisher, TelemetryLevel valueLevel, int period, TelemetryLevel activeLevel) {
+            if (count == suppliers.length) {
+                suppliers = Arrays.copyOf(suppliers, count * 2);
+                publishers = Arrays.copyOf(publishers, count * 2);
+                levels = Arrays.copyOf(levels, count * 2);
+                periods = Arrays.copyOf(periods, count * 2);
+            }
+            int index = count;
+            while (index > 0 && levels[index - 1] > valueLevel.ordinal()) {
+                index--;
+            }
+            int moved = count - index;
+            System.arraycopy(suppliers, index, suppliers, index + 1, moved);
+            System.arraycopy(publishers, index, publishers, index + 1, moved);
+            System.arraycopy(levels, index, levels, index + 1, moved);
+            System.arraycopy(periods, index, periods, index + 1, moved);
+            suppliers[index] = supplier;
+            publishers[index] = publisher;
+            levels[index] = valueLevel.ordinal();
+            periods[index] = period;
+            count++;
+            setLevel(activeLevel);
+        }
+
+        private void setLevel(TelemetryLevel activeLevel) {
+            activeCount = 0;
+            while (activeCount < count && levels[activeCount] <= activeLevel.ordinal()) {
+                activeCount++;
+            }
+        }
+
+        private boolean isDue(int index, long loop) {
+            return loop % periods[index] == 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private S supplier(int index) {
+            return (S) suppliers[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        private P publisher(int index) {
+            return (P) publishers[index];
+        }
+    }
+
+    private TelemetryPublisher() {
+        this.networkTables = NetworkTableInstance.getDefault();
+
+        this.levelChooser = new SendableChooser<>();
+        for (TelemetryLevel option : TelemetryLevel.values()) {
+            if (option == level) {
+                levelChooser.setDefaultOption(option.toString(), option);
+            } else {
+                levelChooser.addOption(option.toString(), option);
+            }
+        }
+        this.lastChooserLevel = level;
+        SmartDashboard.putData("Telemetry Level", levelChooser);
+        this.chooserSelectionPublisher = networkTables.getTable("SmartDashboard").getSubTable("Telemetry Level")
+            .getStringTopic("selected").publish();
+
+        CommandScheduler.getInstance().registerSubsystem(
+            new Subsystem() {
+                @Override
+                public void periodic() {
+                    flush();
+                }
+            }
+        );
+    }
+
+    public static TelemetryPublisher getInstance() {
+        if (instance.isEmpty()) {
+            instance = Optional.of(new TelemetryPublisher());
+        }
+        return instance.get();
+    }
+
+    /**
+     * Set active telemetry level. Values above this level are not published.
+     * The "Telemetry Level" chooser is updated to show the new level.
+     * @param level Telemetry level.
+     */
+    public void setLevel(TelemetryLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Telemetry level cannot be null");
+        }
+        applyLevel(level);
+        chooserSelectionPublisher.set(level.toString());
+    }
+
+    private void applyLevel(TelemetryLevel level) {
+        this.level = level;
+        doubles.setLevel(level);
+        booleans.setLevel(level);
+        integers.setLevel(level);
+        strings.setLevel(level);
+        objects.setLevel(level);
+        structs.setLevel(level);
+    }
+
+    /**
+     * Get active telemetry level.
+     * @return Telemetry level.
+     */
+    public TelemetryLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Check whether values of a given level are currently published.
+     * @param valueLevel Level of value.
+     * @return True if value level is at or below the active level.
+     */
+    public boolean isEnabled(TelemetryLevel valueLevel) {
+        return valueLevel.ordinal() <= level.ordinal();
+    }
+
+    /**
+     * Convert publish rate into a number of loops between publishes.
+     */
+    private static int toPeriod(double rateHz) {
+        if (!(rateHz > 0.0)) {
+            throw new IllegalArgumentException("Publish rate must be positive");
+        }
+        return Math.max(1, (int) Math.round(1.0 / (rateHz * TimedRobot.kDefaultPeriod)));
+    }
+
+    /**
+     * Register a double value.
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param value Supplier of value.
+     */
+    public void addDouble(String table, String name, TelemetryLevel valueLevel, double rateHz, DoubleSupplier value) {
+        doubles.add(value, networkTables.getTable(table).getDoubleTopic(name).publish(), valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Register a double value at the default level, published every loop.
+     */
+    public void addDouble(String table, String name, DoubleSupplier value) {
+        addDouble(table, name, DEFAULT_VALUE_LEVEL, DEFAULT_RATE_HZ, value);
+    }
+
+    /**
+     * Register a boolean value.
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param value Supplier of value.
+     */
+    public void addBoolean(String table, String name, TelemetryLevel valueLevel, double rateHz, BooleanSupplier value) {
+        booleans.add(value, networkTables.getTable(table).getBooleanTopic(name).publish(), valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Register a boolean value at the default level, published every loop.
+     */
+    public void addBoolean(String table, String name, BooleanSupplier value) {
+        addBoolean(table, name, DEFAULT_VALUE_LEVEL, DEFAULT_RATE_HZ, value);
+    }
+
+    /**
+     * Register an integer value.
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param value Supplier of value.
+     */
+    public void addInteger(String table, String name, TelemetryLevel valueLevel, double rateHz, LongSupplier value) {
+        integers.add(value, networkTables.getTable(table).getIntegerTopic(name).publish(), valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Register an integer value at the default level, published every loop.
+     */
+    public void addInteger(String table, String name, LongSupplier value) {
+        addInteger(table, name, DEFAULT_VALUE_LEVEL, DEFAULT_RATE_HZ, value);
+    }
+
+    /**
+     * Register a string value.
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param value Supplier of value.
+     */
+    public void addString(String table, String name, TelemetryLevel valueLevel, double rateHz, Supplier<String> value) {
+        strings.add(value, networkTables.getTable(table).getStringTopic(name).publish(), valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Register a string value at the default level, published every loop.
+     */
+    public void addString(String table, String name, Supplier<String> value) {
+        addString(table, name, DEFAULT_VALUE_LEVEL, DEFAULT_RATE_HZ, value);
+    }
+
+    /**
+     * Register a value of unknown type. Prefer the typed methods, since these values are boxed every time they are published.
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param value Supplier of value.
+     */
+    public void addObject(String table, String name, TelemetryLevel valueLevel, double rateHz, Supplier<Object> value) {
+        objects.add(value, networkTables.getTable(table).getEntry(name), valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Register a value of unknown type at the default level, published every loop.
+     */
+    public void addObject(String table, String name, Supplier<Object> value) {
+        addObject(table, name, DEFAULT_VALUE_LEVEL, DEFAULT_RATE_HZ, value);
+    }
+
+    /**
+     * Register a struct-serialized value, such as a Pose2d or ChassisSpeeds.
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param struct Struct serializer of value type, for example Pose2d.struct.
+     * @param value Supplier of value.
+     */
+    public <T> void addStruct(String table, String name, TelemetryLevel valueLevel, double rateHz, Struct<T> struct, Supplier<T> value) {
+        StructPublisher<T> publisher = networkTables.getTable(table).getStructTopic(name, struct).publish();
+        structs.add(() -> publisher.set(value.get()), publisher, valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Register an array of struct-serialized values, such as SwerveModuleState[].
+     * @param table Name of NetworkTables table (dashboard tab).
+     * @param name Name of value.
+     * @param valueLevel Telemetry level of value.
+     * @param rateHz Publish rate in Hz, at most once per loop.
+     * @param struct Struct serializer of element type, for example SwerveModuleState.struct.
+     * @param value Supplier of value.
+     */
+    public <T> void addStructArray(String table, String name, TelemetryLevel valueLevel, double rateHz, Struct<T> struct, Supplier<T[]> value) {
+        StructArrayPublisher<T> publisher = networkTables.getTable(table).getStructArrayTopic(name, struct).publish();
+        structs.add(() -> publisher.set(value.get()), publisher, valueLevel, toPeriod(rateHz), level);
+    }
+
+    /**
+     * Get number of registered values.
+     * @return Value count.
+     */
+    public int getValueCount() {
+        return doubles.count + booleans.count + integers.count + strings.count + objects.count + structs.count;
+    }
+
+    /**
+     * Get number of values published at the active level.
+     * @return Active value count.
+     */
+    public int getActiveValueCount() {
+        return doubles.activeCount + booleans.activeCount + integers.activeCount + strings.activeCount + objects.activeCount
+            + structs.activeCount;
+    }
+
+    /**
+     * Apply level selected on the dashboard, then publish current value of every active value that is due.
+     */
+    private void flush() {
+        // Changes of selection are compared with the previous selection rather than the active level, so that a level
+        // set from code is not overridden by the stale selection before the chooser shows it.
+        TelemetryLevel chooserLevel = levelChooser.getSelected();
+        if (chooserLevel != null && chooserLevel != lastChooserLevel) {
+            lastChooserLevel = chooserLevel;
+            applyLevel(chooserLevel);
+        }
+
+        long loop = loopCount++;
+        for (int i = 0; i < doubles.activeCount; i++) {
+            if (doubles.isDue(i, loop)) {
+                doubles.publisher(i).set(doubles.supplier(i).getAsDouble());
+            }
+        }
+        for (int i = 0; i < booleans.activeCount; i++) {
+            if (booleans.isDue(i, loop)) {
+                booleans.publisher(i).set(booleans.supplier(i).getAsBoolean());
+            }
+        }
+        for (int i = 0; i < integers.activeCount; i++) {
+            if (integers.isDue(i, loop)) {
+                integers.publisher(i).set(integers.supplier(i).getAsLong());
+            }
+        }
+        for (int i = 0; i < strings.activeCount; i++) {
+            if (strings.isDue(i, loop)) {
+                strings.publisher(i).set(strings.supplier(i).get());
+            }
+        }
+        for (int i = 0; i < objects.activeCount; i++) {
+            if (objects.isDue(i, loop)) {
+                objects.publisher(i).setValue(objects.supplier(i).get());
+            }
+        }
+        for (int i = 0; i < structs.activeCount; i++) {
+            if (structs.isDue(i, loop)) {
+                structs.supplier(i).run();
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package frc.com.team6560.lib.util;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lookup table of shooter parameters keyed on distance to the target, and optionally on the robot's radial velocity
+ * towards the target. Returns flywheel RPM, feeder speed and shooter angle interpolated between measured shots.
+ * Shots are stored in sorted primitive arrays and found with a binary search, so lookups do not allocate.
+ * Lookups outside the measured range are clamped to the nearest measured shot.
+ */
+public class ShotTable {
+
+    public enum Interpolation {
+        LINEAR,
+        // Monotone cubic, which is smooth between shots without overshooting them.
+        CUBIC
+    }
+
+    public static final int FLYWHEEL_RPM = 0;
+    public static final int FEEDER_SPEED = 1;
+    public static final int ANGLE_DEGREES = 2;
+    public static final int OUTPUT_COUNT = 3;
+
+    private final Interpolation interpolation;
+
+    // One slice of shots per measured radial velocity, each sorted by distance.
+    private final double[] radialVelocities;
+    private final double[][] distances;
+    private final double[][][] values; // [slice][output][shot]
+    private final double[][][] slopes; // [slice][output][shot], derivative with respect to distance
+
+    /**
+     * Private constructor to enforce usage of builder.
+     * @param builder Builder to initialize class.
+     */
+    private ShotTable(Builder builder) {
+        if (builder.shots.isEmpty()) {
+            throw new IllegalArgumentException("Shot table must contain at least one shot");
+        }
+        this.interpolation = builder.interpolation;
+
+        List<double[]> shots = new ArrayList<>(builder.shots);
+        shots.sort(Comparator.<double[]>comparingDouble(shot -> shot[1]).thenComparingDouble(shot -> shot[0]));
+
+        int sliceCount = 1;
+        for (int i = 1; i < shots.size(); i++) {
+            if (shots.get(i)[1] != shots.get(i - 1)[1]) {
+                sliceCount++;
+            }
+        }
+        this.radialVelocities = new double[sliceCount];
+        this.distances = new double[sliceCount][];
+        this.values = new double[sliceCount][][];
+        this.slopes = new double[sliceCount][][];
+
+        int start = 0;
+        for (int slice = 0; slice < sliceCount; slice++) {
+            int end = start;
+            while (end < shots.size() && shots.get(end)[1] == shots.get(start)[1]) {
+                end++;
+            }
+            int count = end - start;
+            radialVelocities[slice] = shots.get(start)[1];
+            distances[slice] = new double[count];
+            values[slice] = new double[OUTPUT_COUNT][count];
+            for (int i = 0; i < count; i++) {
+                double[] shot = shots.get(start + i);
+                if (i > 0 && shot[0] == distances[slice][i - 1]) {
+                    throw new IllegalArgumentException("Shot table contains duplicate shots at distance " + shot[0]);
+                }
+                distances[slice][i] = shot[0];
+                for (int output = 0; output < OUTPUT_COUNT; output++) {
+                    values[slice][output][i] = shot[2 + output];
+                }
+            }
+            slopes[slice] = new double[OUTPUT_COUNT][];
+            for (int output = 0; output < OUTPUT_COUNT; output++) {
+                slopes[slice][output] = monotoneSlopes(distances[slice], values[slice][output]);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Calculate tangents for monotone cubic Hermite interpolation using the Fritsch-Carlson method.
+     * @param x Sorted keys.
+     * @param y Values at keys.
+     * @return Tangent at each key.
+     */
+    private static double[] monotoneSlopes(double[] x, double[] y) {
+        int n = x.length;
+        double[] tangents = new double[n];
+        if (n < 2) {
+            return tangents;
+        }
+        double[] secants = new double[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            secants[i] = (y[i + 1] - y[i]) / (x[i + 1] - x[i]);
+        }
+        tangents[0] = secants[0];
+        tangents[n - 1] = secants[n - 2];
+        for (int i = 1; i < n - 1; i++) {
+            tangents[i] = (secants[i - 1] * secants[i] <= 0.0) ? 0.0 : (secants[i - 1] + secants[i]) / 2.0;
+        }
+        for (int i = 0; i < n - 1; i++) {
+            if (secants[i] == 0.0) {
+                tangents[i] = 0.0;
+                tangents[i + 1] = 0.0;
+                continue;
+            }
+            double alpha = tangents[i] / secants[i];
+            double beta = tangents[i + 1] / secants[i];
+            double magnitude = Math.hypot(alpha, beta);
+            if (magnitude > 3.0) {
+                tangents[i] = 3.0 / magnitude * alpha * secants[i];
+                tangents[i + 1] = 3.0 / magnitude * beta * secants[i];
+            }
+        }
+        return tangents;
+    }
+
+    /**
+     * Load shot table from a CSV file in the deploy directory.
+     * The first line is a header. Each following line is either distance (m), flywheel RPM, feeder speed and
+     * angle (degrees), or distance (m), radial velocity (m/s, towards the target positive), flywheel RPM, feeder speed
+     * and angle (degrees).
+     * @param fileName Path of file relative to the deploy directory.
+     * @param interpolation Interpolation between shots.
+     * @return Shot table.
+     * @throws IllegalArgumentException If the file cannot be read or is malformed.
+     */
+    public static ShotTable fromDeployFile(String fileName, Interpolation interpolation) throws IllegalArgumentException {
+        File file = new File(Filesystem.getDeployDirectory(), fileName);
+        try (Reader reader = new FileReader(file)) {
+            return fromCsv(reader, fileName, interpolation);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read shot table " + fileName, e);
+        }
+    }
+
+    /**
+     * Load shot table from CSV text, in the format described in fromDeployFile.
+     * @param reader Reader of CSV text. Not closed by this method.
+     * @param sourceName Name of the source, used in error messages.
+     * @param interpolation Interpolation between shots.
+     * @return Shot table.
+     * @throws IllegalArgumentException If the text cannot be read or is malformed.
+     */
+    public static ShotTable fromCsv(Reader reader, String sourceName, Interpolation interpolation) throws IllegalArgumentException {
+        Builder builder = new Builder().setInterpolation(interpolation);
+        BufferedReader lines = new BufferedReader(reader);
+        try {
+            String line = lines.readLine();
+            int lineNumber = 1;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                try {
+                    double[] numbers = Arrays.stream(fields).mapToDouble(field -> Double.parseDouble(field.trim())).toArray();
+                    if (numbers.length == 4) {
+                        builder.addShot(numbers[0], numbers[1], numbers[2], numbers[3]);
+                    } else if (numbers.length == 5) {
+                        builder.addShot(numbers[0], numbers[1], numbers[2], numbers[3], numbers[4]);
+                    } else {
+                        throw new IllegalArgumentException("Expected 4 or 5 values but found " + numbers.length);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Includes NumberFormatException.
+                    throw new IllegalArgumentException(sourceName + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read shot table " + sourceName, e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Look up shot parameters for a stationary robot.
+     * @param distanceMeters Distance to target in meters.
+     * @param out Array of length OUTPUT_COUNT, filled at indices FLYWHEEL_RPM, FEEDER_SPEED and ANGLE_DEGREES.
+     */
+    public void lookup(double distanceMeters, double[] out) {
+        lookup(distanceMeters, 0.0, out);
+    }
+
+    /**
+     * Look up shot parameters. Radial velocity is ignored if the table was not measured at different radial velocities.
+     * @param distanceMeters Distance to target in meters.
+     * @param radialVelocity Velocity of robot towards the target in m/s.
+     * @param out Array of length OUTPUT_COUNT, filled at indices FLYWHEEL_RPM, FEEDER_SPEED and ANGLE_DEGREES.
+     */
+    public void lookup(double distanceMeters, double radialVelocity, double[] out) {
+        int last = radialVelocities.length - 1;
+        if (radialVelocity <= radialVelocities[0]) {
+            evaluate(0, distanceMeters, 1.0, out, false);
+            return;
+        }
+        if (radialVelocity >= radialVelocities[last]) {
+            evaluate(last, distanceMeters, 1.0, out, false);
+            return;
+        }
+        int low = search(radialVelocities, radialVelocity);
+        double t = (radialVelocity - radialVelocities[low]) / (radialVelocities[low + 1] - radialVelocities[low]);
+        evaluate(low, distanceMeters, 1.0 - t, out, false);
+        evaluate(low + 1, distanceMeters, t, out, true);
+    }
+
+    /**
+     * Get number of measured shots.
+     * @return Shot count.
+     */
+    public int getShotCount() {
+        int count = 0;
+        for (double[] slice : distances) {
+            count += slice.length;
+        }
+        return count;
+    }
+
+    /**
+     * Interpolate outputs of one slice at a distance, and write or add them to out with a weight.
+     */
+    private void evaluate(int slice, double distance, double weight, double[] out, boolean accumulate) {
+        double[] x = distances[slice];
+        int last = x.length - 1;
+        int i;
+        double t;
+        if (distance <= x[0] || last == 0) {
+            i = 0;
+            t = 0.0;
+        } else if (distance >= x[last]) {
+            i = last - 1;
+            t = 1.0;
+        } else {
+            i = search(x, distance);
+            t = (distance - x[i]) / (x[i + 1] - x[i]);
+        }
+
+        for (int output = 0; output < OUTPUT_COUNT; output++) {
+            double[] y = values[slice][output];
+            double value;
+            if (last == 0) {
+                value = y[0];
+            } else if (interpolation == Interpolation.CUBIC) {
+                double h = x[i + 1] - x[i];
+                double[] m = slopes[slice][output];
+                double t2 = t * t;
+                double t3 = t2 * t;
+                value = (2.0 * t3 - 3.0 * t2 + 1.0) * y[i]
+                    + (t3 - 2.0 * t2 + t) * h * m[i]
+                    + (-2.0 * t3 + 3.0 * t2) * y[i + 1]
+                    + (t3 - t2) * h * m[i + 1];
+            } else {
+                value = y[i] + (y[i + 1] - y[i]) * t;
+            }
+            out[output] = accumulate ? out[output] + weight * value : weight * value;
+        }
+    }
+
+    /**
+     * Find the last index whose key is at or below a value, for a value strictly inside the range of keys.
+     */
+    private static int search(double[] keys, double value) {
+        int low = 0;
+        int high = keys.length - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= value) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Allows for adding shots and setting interpolation.
+     */
+    public static class Builder {
+
+        private final List<double[]> shots = new ArrayList<>();
+        private Interpolation interpolation = Interpolation.LINEAR;
+
+        public Builder setInterpolation(Interpolation interpolation) { this.interpolation = interpolation; return this; }
+        public Builder addShot(double distanceMeters, double flywheelRPM, double feederSpeed, double angleDegrees) { return addShot(distanceMeters, 0.0, flywheelRPM, feederSpeed, angleDegrees); }
+        public Builder addShot(double distanceMeters, double radialVelocity, double flywheelRPM, double feederSpeed, double angleDegrees) { shots.add(new double[] { distanceMeters, radialVelocity, flywheelRPM, feederSpeed, angleDegrees }); return this; }
+
+        public ShotTable build() {
+            return new ShotTable(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package frc.com.team6560.lib;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap allocation of the current thread, for tests asserting that control loop code does not allocate.
+ */
+public final class TestAllocations {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private TestAllocations() {}
+
+    /**
+     * Get total bytes allocated by the current thread so far.
+     * @return Allocated bytes.
+     */
+    public static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
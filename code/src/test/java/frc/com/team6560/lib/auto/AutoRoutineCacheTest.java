@@ -0,0 +1,57 @@
+package frc.com.team6560.lib.auto;
+
+import com.pathplanner.lib.util.PIDConstants;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.subsystems.drivetrain.GenericPoseEstimator;
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve;
+import frc.com.team6560.lib.subsystems.drivetrain.SwerveConfig;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The deploy directory holds no PathPlanner or Choreo files, so these tests cover a robot without autos.
+ */
+class AutoRoutineCacheTest {
+
+    private static AutoRoutineCache cache;
+
+    @BeforeAll
+    static void createCache() {
+        assertTrue(HAL.initialize(500, 0));
+        GenericSwerve swerve = new GenericSwerve(new SwerveConfig.Builder().build(), 12.0);
+        GenericPoseEstimator poseEstimator = new GenericPoseEstimator("Auto Test Pose", swerve);
+        cache = new AutoRoutineCache(swerve, poseEstimator, new PIDConstants(5.0, 0.0, 0.0), new PIDConstants(5.0, 0.0, 0.0));
+    }
+
+    @Test
+    void nothingIsPendingWithoutFiles() {
+        CommandScheduler.getInstance().run();
+        assertTrue(cache.isLoaded());
+        cache.loadAll();
+        assertTrue(cache.isLoaded());
+    }
+
+    @Test
+    void chooserDefaultsToNoAuto() {
+        assertNotNull(cache.getSelectedAuto());
+    }
+
+    @Test
+    void missingFilesAreReportedByName() {
+        cache.loadAll();
+        IllegalArgumentException auto = assertThrows(IllegalArgumentException.class, () -> cache.getAuto("Missing Auto"));
+        assertTrue(auto.getMessage().contains("Missing Auto"));
+        IllegalArgumentException path = assertThrows(IllegalArgumentException.class, () -> cache.followPath("Missing Path"));
+        assertTrue(path.getMessage().contains("Missing Path"));
+        IllegalArgumentException trajectory = assertThrows(IllegalArgumentException.class, () -> cache.followChoreoTrajectory("Missing Trajectory"));
+        assertTrue(trajectory.getMessage().contains("Missing Trajectory"));
+    }
+}
@@ -0,0 +1,73 @@
+package frc.com.team6560.lib.commands;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj2.command.Command;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve;
+import frc.com.team6560.lib.subsystems.drivetrain.SwerveConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SwerveCharacterizationTest {
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    /**
+     * Run a command the way the scheduler would, after the drivetrain's periodic update each loop.
+     * @return Number of loops the command ran for.
+     */
+    private static int run(Command command, GenericSwerve swerve, int maxLoops) {
+        command.initialize();
+        int loops = 0;
+        while (!command.isFinished() && loops < maxLoops) {
+            swerve.periodic();
+            command.execute();
+            loops++;
+        }
+        command.end(!command.isFinished());
+        return loops;
+    }
+
+    @Test
+    void wheelDiameterRefusesSimulatedGyro() {
+        GenericSwerve swerve = new GenericSwerve(new SwerveConfig.Builder().build(), 12.0);
+        SwerveCharacterization characterization = new SwerveCharacterization(swerve);
+
+        run(characterization.wheelDiameter(), swerve, 100);
+        swerve.periodic();
+
+        assertTrue(Double.isNaN(characterization.getMeasuredWheelDiameter()));
+        for (SwerveModulePosition position : swerve.getModulePositions()) {
+            assertEquals(0.0, position.distanceMeters, 1.0E-6);
+        }
+    }
+
+    @Test
+    void slipCurrentIsRecordedOnceWheelsMove() {
+        GenericSwerve swerve = new GenericSwerve(new SwerveConfig.Builder().build(), 12.0);
+        SwerveCharacterization characterization = new SwerveCharacterization(swerve);
+
+        // Without a wall, the wheels start turning at a fraction of the maximum voltage of 6 V, reached after 600 loops.
+        int loops = run(characterization.slipCurrent(), swerve, 1000);
+        assertTrue(loops < 600, "Ran for " + loops + " loops");
+        double slipCurrent = characterization.getMeasuredSlipCurrent();
+        assertTrue(Double.isFinite(slipCurrent) && slipCurrent >= 0.0, "Measured " + slipCurrent + " A");
+
+        // The command stops the modules when it ends.
+        for (int i = 0; i < 100; i++) {
+            swerve.periodic();
+        }
+        for (SwerveModuleState state : swerve.getModuleStates()) {
+            assertEquals(0.0, state.speedMetersPerSecond, 0.05);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package frc.com.team6560.lib.hardware;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.hardware.motors.MotorSignalProfile;
+import frc.com.team6560.lib.hardware.motors.TalonFXMotor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanBusMonitorTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void talonFXCountsSharedStatusFramesOnce() {
+        TalonFXMotor motor = new TalonFXMotor(21);
+        assertEquals(TalonFXMotor.DEFAULT_STATUS_FRAMES_PER_SECOND, motor.getEstimatedStatusFramesPerSecond(), EPSILON);
+
+        // Position and velocity share a frame, as do duty cycle and applied voltage, and supply and stator current.
+        motor.withSignalProfile(MotorSignalProfile.VELOCITY_CONTROL);
+        assertEquals(100.0 + 10.0 + 10.0, motor.getEstimatedStatusFramesPerSecond(), EPSILON);
+        motor.withSignalProfile(MotorSignalProfile.POSITION_CONTROL);
+        assertEquals(100.0 + 10.0 + 10.0, motor.getEstimatedStatusFramesPerSecond(), EPSILON);
+        motor.withSignalProfile(MotorSignalProfile.OPEN_LOOP);
+        assertEquals(10.0 + 10.0 + 10.0, motor.getEstimatedStatusFramesPerSecond(), EPSILON);
+
+        motor.withSignalProfile(new MotorSignalProfile.Builder()
+            .setDutyCycle(MotorSignalProfile.Rate.OFF)
+            .setAppliedVolts(MotorSignalProfile.Rate.HIGH)
+            .setVelocity(MotorSignalProfile.Rate.OFF)
+            .setPosition(MotorSignalProfile.Rate.OFF)
+            .setSupplyCurrent(MotorSignalProfile.Rate.OFF)
+            .setStatorCurrent(MotorSignalProfile.Rate.OFF)
+            .build());
+        assertEquals(100.0, motor.getEstimatedStatusFramesPerSecond(), EPSILON);
+    }
+
+    @Test
+    void subsystemBudgetsSumRegisteredDevices() {
+        CanBusMonitor monitor = CanBusMonitor.getInstance();
+        double utilizationBefore = monitor.getProjectedUtilization();
+
+        monitor.register("Budget Test", "Status Only", () -> 100.0, () -> 0);
+        monitor.register("Budget Test", "Slow Sensor", () -> 50.0, () -> 0);
+        monitor.register("Other Budget Test", "Encoder", () -> 25.0, () -> 0);
+
+        assertEquals(150.0, monitor.getSubsystemFramesPerSecond("Budget Test"), EPSILON);
+        assertEquals(25.0, monitor.getSubsystemFramesPerSecond("Other Budget Test"), EPSILON);
+        assertEquals(0.0, monitor.getSubsystemFramesPerSecond("Unregistered"), EPSILON);
+        assertEquals(
+            175.0 / CanBusMonitor.BUS_CAPACITY_FRAMES_PER_SECOND,
+            monitor.getProjectedUtilization() - utilizationBefore,
+            EPSILON
+        );
+    }
+
+    @Test
+    void measuresControlFramesOncePerUpdatePeriod() throws InterruptedException {
+        CanBusMonitor monitor = CanBusMonitor.getInstance();
+        AtomicLong sentFrames = new AtomicLong(1000);
+        monitor.register("Control Test", "Motor", () -> 20.0, sentFrames::get);
+        assertEquals(20.0, monitor.getSubsystemFramesPerSecond("Control Test"), EPSILON);
+
+        // Frames sent before registration are not counted. The rate is measured over at least one second.
+        sentFrames.addAndGet(50);
+        Thread.sleep(1100);
+        CommandScheduler.getInstance().run();
+        double framesPerSecond = monitor.getSubsystemFramesPerSecond("Control Test");
+        assertTrue(framesPerSecond > 20.0 && framesPerSecond <= 20.0 + 50.0, "Measured " + framesPerSecond + " frames/s");
+    }
+
+    @Test
+    void rejectsInvalidWarningThreshold() {
+        CanBusMonitor monitor = CanBusMonitor.getInstance();
+        assertThrows(IllegalArgumentException.class, () -> monitor.setWarningThreshold(0.0));
+        assertThrows(IllegalArgumentException.class, () -> monitor.setWarningThreshold(1.5));
+    }
+}
@@ -0,0 +1,135 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.TestAllocations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the control path of the motor wrappers does not allocate once warmed up, since the wrappers are called
+ * for every motor in every loop.
+ */
+class MotorAllocationTest {
+
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+
+    /**
+     * A control call under test, taking a setpoint.
+     */
+    private interface Control {
+        void apply(double setpoint);
+    }
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    /**
+     * Measure bytes allocated by a control call after warm-up. Setpoints change on every call so that none are
+     * suppressed as repeats.
+     */
+    private static long allocatedBytes(Control control) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            control.apply((i % 100) * 0.01);
+        }
+        long before = TestAllocations.allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            control.apply((i % 100) * 0.01);
+        }
+        return TestAllocations.allocatedBytes() - before;
+    }
+
+    /**
+     * Measure bytes allocated by a control call repeated with the same setpoint after warm-up.
+     */
+    private static long allocatedBytesRepeated(Control control) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            control.apply(0.5);
+        }
+        long before = TestAllocations.allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            control.apply(0.5);
+        }
+        return TestAllocations.allocatedBytes() - before;
+    }
+
+    @Test
+    void simMotorControlDoesNotAllocate() {
+        SimMotor motor = new SimMotor(1, DCMotor.getFalcon500(1)).withPIDProfile(0.1, 0.0, 0.0, 0.0).build();
+        assertEquals(0, allocatedBytes(motor::setOpenLoopDutyCycle), "setOpenLoopDutyCycle");
+        assertEquals(0, allocatedBytes(motor::setVelocity), "setVelocity");
+        assertEquals(0, allocatedBytes(motor::setVoltage), "setVoltage");
+        assertEquals(0, allocatedBytes(motor::setPosition), "setPosition");
+    }
+
+    @Test
+    void simMotorSuppressedRequestsDoNotAllocate() {
+        SimMotor motor = new SimMotor(2, DCMotor.getFalcon500(1)).withSetpointFilter(1000.0).build();
+        assertEquals(0, allocatedBytesRepeated(motor::setVelocity), "setVelocity");
+        assertTrue(motor.getSuppressedControlFrames() > 0);
+    }
+
+    /**
+     * Phoenix may allocate inside setControl() in simulation, for example when reporting that the simulated device is
+     * not ready, which the wrapper cannot avoid. The wrapper must not add anything on top of the same call made
+     * directly with a reused control request.
+     */
+    @Test
+    void talonFXControlAllocatesNoMoreThanPhoenix() {
+        TalonFXMotor motor = new TalonFXMotor(11).build();
+        motor.awaitConfiguration();
+        TalonFX talonFX = new TalonFX(12);
+
+        DutyCycleOut dutyCycle = new DutyCycleOut(0.0);
+        VelocityVoltage velocity = new VelocityVoltage(0.0);
+        VoltageOut voltage = new VoltageOut(0.0);
+        PositionVoltage position = new PositionVoltage(0.0);
+
+        long phoenixDutyCycle = allocatedBytes(setpoint -> talonFX.setControl(dutyCycle.withOutput(setpoint)));
+        long phoenixVelocity = allocatedBytes(setpoint -> talonFX.setControl(velocity.withVelocity(setpoint)));
+        long phoenixVoltage = allocatedBytes(setpoint -> talonFX.setControl(voltage.withOutput(setpoint)));
+        long phoenixPosition = allocatedBytes(setpoint -> talonFX.setControl(position.withPosition(setpoint)));
+
+        long wrapperDutyCycle = allocatedBytes(motor::setOpenLoopDutyCycle);
+        long wrapperVelocity = allocatedBytes(motor::setVelocity);
+        long wrapperVoltage = allocatedBytes(motor::setVoltage);
+        long wrapperPosition = allocatedBytes(motor::setPosition);
+
+        System.out.printf(
+            "TalonFXMotor bytes per %d calls (direct Phoenix call in brackets): duty cycle %d (%d), velocity %d (%d), voltage %d (%d), position %d (%d)%n",
+            MEASURED_CALLS,
+            wrapperDutyCycle, phoenixDutyCycle,
+            wrapperVelocity, phoenixVelocity,
+            wrapperVoltage, phoenixVoltage,
+            wrapperPosition, phoenixPosition
+        );
+        assertTrue(wrapperDutyCycle <= phoenixDutyCycle, "setOpenLoopDutyCycle allocated " + wrapperDutyCycle + " bytes");
+        assertTrue(wrapperVelocity <= phoenixVelocity, "setVelocity allocated " + wrapperVelocity + " bytes");
+        assertTrue(wrapperVoltage <= phoenixVoltage, "setVoltage allocated " + wrapperVoltage + " bytes");
+        assertTrue(wrapperPosition <= phoenixPosition, "setPosition allocated " + wrapperPosition + " bytes");
+
+        talonFX.close();
+    }
+
+    @Test
+    void talonFXSuppressedRequestsDoNotAllocate() {
+        TalonFXMotor motor = new TalonFXMotor(13).withSetpointFilter(1000.0).build();
+        motor.awaitConfiguration();
+        assertEquals(0, allocatedBytesRepeated(motor::setVoltage), "setVoltage");
+        assertTrue(motor.getSuppressedControlFrames() > 0);
+    }
+}
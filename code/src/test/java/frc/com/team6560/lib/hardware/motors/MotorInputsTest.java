@@ -0,0 +1,48 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.LogTable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MotorInputsTest {
+
+    @Test
+    void replayedInputsMatchLoggedInputs() {
+        MotorInputs logged = new MotorInputs();
+        logged.connected = true;
+        logged.dutyCyclePercent = 0.42;
+        logged.velocityRPM = 3210.0;
+        logged.positionRotations = -12.5;
+        logged.appliedVolts = 5.04;
+        logged.currentSupplyAmps = 18.0;
+        logged.currentStatorAmps = 35.5;
+        logged.timestampSeconds = 101.25;
+        logged.latencySeconds = 0.004;
+        LogTable table = new LogTable(0);
+        logged.toLog(table);
+
+        MotorInputs replayed = new MotorInputs();
+        replayed.fromLog(table);
+        assertTrue(replayed.connected);
+        assertEquals(logged.dutyCyclePercent, replayed.dutyCyclePercent, 0.0);
+        assertEquals(logged.velocityRPM, replayed.velocityRPM, 0.0);
+        assertEquals(logged.positionRotations, replayed.positionRotations, 0.0);
+        assertEquals(logged.appliedVolts, replayed.appliedVolts, 0.0);
+        assertEquals(logged.currentSupplyAmps, replayed.currentSupplyAmps, 0.0);
+        assertEquals(logged.currentStatorAmps, replayed.currentStatorAmps, 0.0);
+        assertEquals(logged.timestampSeconds, replayed.timestampSeconds, 0.0);
+        assertEquals(logged.latencySeconds, replayed.latencySeconds, 0.0);
+    }
+
+    @Test
+    void missingLogEntriesKeepCurrentValues() {
+        MotorInputs inputs = new MotorInputs();
+        inputs.velocityRPM = 1500.0;
+        inputs.connected = true;
+        inputs.fromLog(new LogTable(0));
+        assertEquals(1500.0, inputs.velocityRPM, 0.0);
+        assertTrue(inputs.connected);
+    }
+}
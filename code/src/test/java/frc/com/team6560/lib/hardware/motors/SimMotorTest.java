@@ -0,0 +1,173 @@
+package frc.com.team6560.lib.hardware.motors;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimMotorTest {
+
+    private static final double EPSILON = 1.0E-9;
+    private static final DCMotor FALCON = DCMotor.getFalcon500(1);
+    private static final double FREE_SPEED_RPM = FALCON.freeSpeedRadPerSec * 60.0 / (2.0 * Math.PI);
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    private static void run(SimMotor motor, double seconds) {
+        for (int i = 0; i < Math.round(seconds / SimMotor.DEFAULT_PERIOD_SECONDS); i++) {
+            motor.updateInputs();
+        }
+    }
+
+    @Test
+    void voltageDrivesMotorToProportionalFreeSpeed() {
+        SimMotor motor = new SimMotor(1, FALCON).build();
+        motor.setVoltage(6.0);
+        run(motor, 4.0);
+        assertEquals(FREE_SPEED_RPM / 2.0, motor.getVelocityRPM(), FREE_SPEED_RPM * 0.01);
+        assertEquals(6.0, motor.getAppliedVolts(), EPSILON);
+        assertEquals(0.5, motor.getDutyCyclePercent(), EPSILON);
+        assertTrue(motor.getPositionRotations() > 0.0);
+    }
+
+    @Test
+    void gearingReducesMechanismSpeed() {
+        SimMotor motor = new SimMotor(2, FALCON).withGearing(10.0).build();
+        motor.setVoltage(12.0);
+        run(motor, 4.0);
+        assertEquals(FREE_SPEED_RPM / 10.0, motor.getVelocityRPM(), FREE_SPEED_RPM * 0.001);
+    }
+
+    @Test
+    void reversedMotorReportsInCommandedDirection() {
+        SimMotor motor = new SimMotor(3, FALCON).withReversedMotor().build();
+        motor.setVoltage(6.0);
+        run(motor, 4.0);
+        assertEquals(FREE_SPEED_RPM / 2.0, motor.getVelocityRPM(), FREE_SPEED_RPM * 0.01);
+        assertTrue(motor.getPositionRotations() > 0.0);
+    }
+
+    @Test
+    void velocityControlReachesTarget() {
+        SimMotor motor = new SimMotor(4, FALCON)
+            .withPIDProfile(0.001, 0.0, 0.0, 0.0)
+            .withFeedforward(0.0, 12.0 / FREE_SPEED_RPM, 0.0, 0.0)
+            .build();
+        motor.setVelocity(3000.0);
+        run(motor, 2.0);
+        assertEquals(3000.0, motor.getVelocityRPM(), 30.0);
+    }
+
+    @Test
+    void positionControlReachesTarget() {
+        SimMotor motor = new SimMotor(5, FALCON).withGearing(20.0).withPIDProfile(0.5, 0.0, 0.01, 0.0).build();
+        motor.setPosition(3.0);
+        run(motor, 3.0);
+        assertEquals(3.0, motor.getPositionRotations(), 0.01);
+        assertEquals(0.0, motor.getVelocityRPM(), 1.0);
+    }
+
+    @Test
+    void currentLimitCapsStatorCurrent() {
+        SimMotor motor = new SimMotor(6, FALCON).withCurrentLimit(20).build();
+        motor.setVoltage(12.0);
+        for (int i = 0; i < 50; i++) {
+            motor.updateInputs();
+            assertTrue(Math.abs(motor.getCurrentStatorAmps()) <= 20.0 + 1.0E-6, "Stator current " + motor.getCurrentStatorAmps());
+        }
+        // Without the limit the first step would draw the stall current.
+        assertTrue(FALCON.stallCurrentAmps > 20.0);
+    }
+
+    @Test
+    void openLoopRampLimitsVoltageStep() {
+        SimMotor motor = new SimMotor(7, FALCON).withOpenLoopRampConfig(1.0).build();
+        motor.setOpenLoopDutyCycle(1.0);
+        motor.updateInputs();
+        assertEquals(12.0 * SimMotor.DEFAULT_PERIOD_SECONDS, motor.getAppliedVolts(), EPSILON);
+        motor.updateInputs();
+        assertEquals(2.0 * 12.0 * SimMotor.DEFAULT_PERIOD_SECONDS, motor.getAppliedVolts(), EPSILON);
+    }
+
+    @Test
+    void forwardSoftLimitOnlyBlocksForwardOutput() {
+        SimMotor motor = new SimMotor(8, FALCON).withGearing(20.0).withForwardSoftLimit(2.0f).withBrakeMode().build();
+        motor.setVoltage(12.0);
+        for (int i = 0; i < 500 && motor.getPositionRotations() < 2.0; i++) {
+            motor.updateInputs();
+        }
+        assertTrue(motor.getPositionRotations() >= 2.0);
+        motor.updateInputs();
+        assertEquals(0.0, motor.getAppliedVolts(), EPSILON);
+
+        motor.setVoltage(-6.0);
+        motor.updateInputs();
+        assertEquals(-6.0, motor.getAppliedVolts(), EPSILON);
+    }
+
+    @Test
+    void brakeModeStopsFasterThanCoastMode() {
+        SimMotor brake = new SimMotor(9, FALCON).withBrakeMode().build();
+        SimMotor coast = new SimMotor(10, FALCON).withCoastMode().build();
+        for (SimMotor motor : new SimMotor[] { brake, coast }) {
+            motor.setVoltage(6.0);
+            run(motor, 2.0);
+            motor.stop();
+            run(motor, 0.2);
+        }
+        // The simulated mechanism has no friction, so a coasting motor keeps its speed.
+        assertEquals(FREE_SPEED_RPM / 2.0, coast.getVelocityRPM(), FREE_SPEED_RPM * 0.01);
+        assertEquals(0.0, coast.getCurrentStatorAmps(), 1.0E-6);
+        assertTrue(brake.getVelocityRPM() < coast.getVelocityRPM() / 2.0, "Brake mode velocity " + brake.getVelocityRPM());
+    }
+
+    @Test
+    void setCurrentPositionMovesReportedPosition() {
+        SimMotor motor = new SimMotor(11, FALCON).build();
+        motor.setCurrentPosition(5.0);
+        motor.updateInputs();
+        assertEquals(5.0, motor.getPositionRotations(), 1.0E-6);
+        motor.setCurrentPositionAsZero();
+        motor.updateInputs();
+        assertEquals(0.0, motor.getPositionRotations(), 1.0E-6);
+    }
+
+    @Test
+    void profiledPositionRequiresMotionProfile() {
+        SimMotor motor = new SimMotor(12, FALCON).build();
+        assertThrows(IllegalStateException.class, () -> motor.setPositionProfiled(1.0));
+    }
+
+    @Test
+    void profiledPositionFollowsConstraints() {
+        double gearing = 20.0;
+        SimMotor motor = new SimMotor(13, FALCON)
+            .withGearing(gearing)
+            .withPIDProfile(0.5, 0.0, 0.0, 0.0)
+            .withFeedforward(0.0, 12.0 / (FREE_SPEED_RPM / gearing), 0.0, 0.0)
+            .withMotionProfile(120.0, 240.0)
+            .build();
+
+        // Accelerates for 0.5 s, cruises at 2 rotations per second for 1 s and decelerates for 0.5 s.
+        double peakVelocityRPM = 0.0;
+        for (int i = 0; i < 150; i++) {
+            motor.setPositionProfiled(3.0);
+            motor.updateInputs();
+            peakVelocityRPM = Math.max(peakVelocityRPM, motor.getVelocityRPM());
+            if (i == 49) {
+                assertEquals(1.5, motor.getPositionRotations(), 0.15, "Position halfway through the profile");
+            }
+        }
+        assertTrue(peakVelocityRPM <= 120.0 * 1.1, "Peak velocity " + peakVelocityRPM + " RPM");
+        assertEquals(3.0, motor.getPositionRotations(), 0.02);
+        assertEquals(0.0, motor.getVelocityRPM(), 2.0);
+    }
+}
@@ -0,0 +1,93 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Swerve module whose sensor values are set directly by tests. Sampled values may be read from another thread.
+ */
+class FakeSwerveModuleIO implements SwerveModuleIO {
+
+    volatile double drivePositionMeters = 0.0;
+    volatile double driveVelocityMetersPerSecond = 0.0;
+    volatile double steerAngle = 0.0;
+
+    double commandedDriveVoltage = 0.0;
+    double commandedVelocityMetersPerSecond = 0.0;
+    double commandedFeedforwardVolts = 0.0;
+    double commandedSteerAngle = 0.0;
+
+    private final SwerveModuleInputs inputs = new SwerveModuleInputs();
+
+    @Override
+    public void updateInputs() {
+        inputs.drivePositionMeters = drivePositionMeters;
+        inputs.driveVelocityMetersPerSecond = driveVelocityMetersPerSecond;
+        inputs.steerAngle = steerAngle;
+    }
+
+    @Override
+    public SwerveModuleInputs getInputs() {
+        return inputs;
+    }
+
+    @Override
+    public SwerveModulePosition getPosition() {
+        return new SwerveModulePosition(inputs.drivePositionMeters, new Rotation2d(inputs.steerAngle));
+    }
+
+    @Override
+    public SwerveModuleState getState() {
+        return new SwerveModuleState(inputs.driveVelocityMetersPerSecond, new Rotation2d(inputs.steerAngle));
+    }
+
+    @Override
+    public double getDrivePositionMeters() {
+        return inputs.drivePositionMeters;
+    }
+
+    @Override
+    public double getDriveVelocityMetersPerSecond() {
+        return inputs.driveVelocityMetersPerSecond;
+    }
+
+    @Override
+    public double getDriveCurrentAmps() {
+        return inputs.driveCurrentAmps;
+    }
+
+    @Override
+    public double getSteerAngle() {
+        return inputs.steerAngle;
+    }
+
+    @Override
+    public double sampleDrivePositionMeters() {
+        return drivePositionMeters;
+    }
+
+    @Override
+    public double sampleSteerAngle() {
+        return steerAngle;
+    }
+
+    @Override
+    public void set(double driveVoltage, double steerAngle) {
+        this.commandedDriveVoltage = driveVoltage;
+        this.commandedSteerAngle = steerAngle;
+    }
+
+    @Override
+    public void setDriveVelocity(double velocityMetersPerSecond, double feedforwardVolts, double steerAngle) {
+        this.commandedVelocityMetersPerSecond = velocityMetersPerSecond;
+        this.commandedFeedforwardVolts = feedforwardVolts;
+        this.commandedSteerAngle = steerAngle;
+    }
+
+    @Override
+    public void setDriveVelocityPID(double kP, double kI, double kD) {}
+
+    @Override
+    public void setBrakeMode(boolean brake) {}
+}
@@ -0,0 +1,139 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenericPoseEstimatorTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    private GenericSwerve swerve;
+    private GenericPoseEstimator estimator;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    /**
+     * Create a simulated drivetrain and an estimator using it, in the order a robot would.
+     */
+    private void create(String name) {
+        swerve = new GenericSwerve(new SwerveConfig.Builder().build(), 12.0);
+        estimator = new GenericPoseEstimator(name, swerve);
+    }
+
+    /**
+     * Run one loop with the subsystems in registration order.
+     */
+    private void step() {
+        swerve.periodic();
+        estimator.periodic();
+    }
+
+    private void driveForward(int loops) {
+        for (int i = 0; i < loops; i++) {
+            swerve.setDriveVoltage(4.0);
+            step();
+        }
+    }
+
+    private double getLatestSampleTimestamp() {
+        return swerve.getOdometrySample(swerve.getOdometrySampleCount() - 1).timestampSeconds;
+    }
+
+    @Test
+    void odometryMovesEstimateForward() {
+        create("Estimator Odometry");
+        driveForward(100);
+
+        Pose2d pose = estimator.getPose();
+        assertTrue(pose.getX() > 1.0);
+        assertEquals(0.0, pose.getY(), 0.05);
+        assertEquals(0.0, pose.getRotation().getRadians(), 0.05);
+    }
+
+    @Test
+    void poseHistoryHoldsEstimateAtEachSample() {
+        create("Estimator History");
+        driveForward(20);
+
+        Pose2d pose = estimator.getPose();
+        double[] out = new double[3];
+        assertTrue(estimator.getPoseAt(getLatestSampleTimestamp(), out));
+        assertEquals(pose.getX(), out[0], EPSILON);
+        assertEquals(pose.getY(), out[1], EPSILON);
+        assertEquals(pose.getRotation().getRadians(), out[2], EPSILON);
+
+        double[] unchanged = { -1.0, -1.0, -1.0 };
+        assertFalse(estimator.getPoseAt(0.0, unchanged));
+        assertArrayEquals(new double[] { -1.0, -1.0, -1.0 }, unchanged, 0.0);
+    }
+
+    @Test
+    void trustedVisionMeasurementDominatesOdometry() {
+        create("Estimator Trusted Vision");
+        for (int i = 0; i < 5; i++) {
+            step();
+        }
+
+        // With odometry standard deviations of 0.1 and vision standard deviations of 0.01, the estimate moves
+        // 0.01 / (0.01 + sqrt(0.01 * 0.0001)), or about 91%, of the way to the measurement.
+        estimator.addVisionMeasurement(new Pose2d(1.0, 0.0, new Rotation2d()), getLatestSampleTimestamp(), 0.01, 0.01);
+        step();
+        assertEquals(0.91, estimator.getPose().getX(), 0.02);
+    }
+
+    @Test
+    void defaultVisionMeasurementOnlyNudgesEstimate() {
+        create("Estimator Default Vision");
+        for (int i = 0; i < 5; i++) {
+            step();
+        }
+
+        // Default vision standard deviations of 0.9 move the estimate 0.01 / (0.01 + sqrt(0.01 * 0.81)), or 10%.
+        estimator.addVisionMeasurement(new Pose2d(1.0, 0.0, new Rotation2d()), getLatestSampleTimestamp());
+        step();
+        assertEquals(0.1, estimator.getPose().getX(), 0.02);
+    }
+
+    @Test
+    void resetGlobalPoseClearsHistory() {
+        create("Estimator Reset");
+        driveForward(20);
+        double timestamp = getLatestSampleTimestamp();
+
+        Pose2d resetPose = new Pose2d(2.0, 3.0, new Rotation2d(1.0));
+        estimator.resetGlobalPose(resetPose);
+        assertEquals(resetPose.getX(), estimator.getPose().getX(), EPSILON);
+        assertEquals(resetPose.getY(), estimator.getPose().getY(), EPSILON);
+        assertEquals(1.0, estimator.getPose().getRotation().getRadians(), EPSILON);
+        assertFalse(estimator.getPoseAt(timestamp, new double[3]));
+
+        step();
+        assertTrue(estimator.getPoseAt(getLatestSampleTimestamp(), new double[3]));
+    }
+
+    @Test
+    void resetHeadingKeepsPosition() {
+        create("Estimator Reset Heading");
+        driveForward(50);
+        swerve.stopModules();
+        step();
+
+        Pose2d before = estimator.getPose();
+        estimator.resetHeading();
+        assertEquals(before.getX(), estimator.getPose().getX(), EPSILON);
+        assertEquals(before.getY(), estimator.getPose().getY(), EPSILON);
+        assertEquals(0.0, estimator.getPose().getRotation().getRadians(), EPSILON);
+    }
+}
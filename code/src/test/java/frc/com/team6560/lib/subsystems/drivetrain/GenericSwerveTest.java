@@ -0,0 +1,102 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve.DriveMode;
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve.SwerveModuleIndex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenericSwerveTest {
+
+    // Falcon free speed through MK4i L2 gearing is about 4.97 m/s at 12 V.
+    private static final double DRIVE_KV = 12.0 / 4.97;
+    private static final double DRIVE_KP = 2.0;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    private static GenericSwerve createClosedLoop() {
+        GenericSwerve swerve = new GenericSwerve(
+            new SwerveConfig.Builder()
+                .setDriveVelocityPID(DRIVE_KP, 0.0, 0.0)
+                .setDriveFeedforward(0.0, DRIVE_KV, 0.0)
+                .build(),
+            12.0
+        );
+        swerve.setDriveMode(DriveMode.CLOSED_LOOP);
+        return swerve;
+    }
+
+    private static void drive(GenericSwerve swerve, ChassisSpeeds speeds, int loops) {
+        for (int i = 0; i < loops; i++) {
+            swerve.drive(speeds);
+            swerve.periodic();
+        }
+    }
+
+    @Test
+    void closedLoopRequiresGains() {
+        GenericSwerve swerve = new GenericSwerve(new SwerveConfig.Builder().build(), 12.0);
+        assertEquals(DriveMode.OPEN_LOOP, swerve.getDriveMode());
+        assertThrows(IllegalStateException.class, () -> swerve.setDriveMode(DriveMode.CLOSED_LOOP));
+        assertEquals(DriveMode.OPEN_LOOP, swerve.getDriveMode());
+    }
+
+    @Test
+    void closedLoopReachesTargetVelocity() {
+        GenericSwerve swerve = createClosedLoop();
+        drive(swerve, new ChassisSpeeds(2.0, 0.0, 0.0), 100);
+
+        for (SwerveModuleState state : swerve.getModuleStates()) {
+            assertEquals(2.0, state.speedMetersPerSecond, 0.1);
+            assertEquals(0.0, MathUtil.angleModulus(state.angle.getRadians()), 0.05);
+        }
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(0.0, swerve.getVelocityError(module), 0.1);
+        }
+        assertEquals(2.0, swerve.getChassisSpeeds().vxMetersPerSecond, 0.1);
+    }
+
+    @Test
+    void flippedModulesMeasureVelocityErrorInDriveDirection() {
+        GenericSwerve swerve = createClosedLoop();
+        drive(swerve, new ChassisSpeeds(2.0, 0.0, 0.0), 50);
+
+        // Reversing direction flips the modules instead of turning them around, so the wheels spin backwards.
+        drive(swerve, new ChassisSpeeds(-2.0, 0.0, 0.0), 100);
+        for (SwerveModuleState state : swerve.getModuleStates()) {
+            assertEquals(-2.0, state.speedMetersPerSecond, 0.1);
+            assertEquals(0.0, MathUtil.angleModulus(state.angle.getRadians()), 0.05);
+        }
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(0.0, swerve.getVelocityError(module), 0.1);
+        }
+    }
+
+    @Test
+    void velocityErrorComparesMeasurementWithPreviousCommand() {
+        GenericSwerve swerve = createClosedLoop();
+        drive(swerve, new ChassisSpeeds(2.0, 0.0, 0.0), 100);
+
+        // A step in the target is not an error until the modules have had a loop to respond.
+        drive(swerve, new ChassisSpeeds(3.0, 0.0, 0.0), 1);
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(0.0, swerve.getVelocityError(module), 0.1);
+        }
+        drive(swerve, new ChassisSpeeds(3.0, 0.0, 0.0), 1);
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertTrue(swerve.getVelocityError(module) > 0.1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.subsystems.drivetrain.GenericSwerve.SwerveModuleIndex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModuleForceEstimatorTest {
+
+    private static final double ROBOT_MASS_KG = 60.0;
+    private static final double MASS_PER_MODULE = ROBOT_MASS_KG / 4.0;
+    private static final double DT = 0.02;
+    // The acceleration filter has a 0.06 s time constant, so 50 loops leave a negligible fraction of a step.
+    private static final int SETTLE_LOOPS = 50;
+
+    private GenericSwerve swerve;
+    private ModuleForceEstimator estimator;
+
+    @BeforeAll
+    static void pauseTiming() {
+        assertTrue(HAL.initialize(500, 0));
+        SimHooks.pauseTiming();
+    }
+
+    @AfterAll
+    static void resumeTiming() {
+        SimHooks.resumeTiming();
+    }
+
+    @BeforeEach
+    void create() {
+        swerve = new GenericSwerve(new SwerveConfig.Builder().build(), 12.0);
+        estimator = new ModuleForceEstimator(swerve, ROBOT_MASS_KG);
+    }
+
+    private void drive(double vx, double vy, double omega) {
+        SimHooks.stepTiming(DT);
+        estimator.drive(new ChassisSpeeds(vx, vy, omega));
+    }
+
+    @Test
+    void rejectsNonPositiveMass() {
+        assertThrows(IllegalArgumentException.class, () -> new ModuleForceEstimator(swerve, 0.0));
+    }
+
+    @Test
+    void firstCommandHasNoForce() {
+        drive(3.0, 1.0, 2.0);
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(0.0, estimator.getForceX(module), 0.0);
+            assertEquals(0.0, estimator.getForceY(module), 0.0);
+        }
+    }
+
+    @Test
+    void linearAccelerationIsSharedEvenly() {
+        for (int i = 0; i < SETTLE_LOOPS; i++) {
+            drive(0.1 * i, 0.0, 0.0);
+        }
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(MASS_PER_MODULE * 5.0, estimator.getForceX(module), 1.0E-3);
+            assertEquals(0.0, estimator.getForceY(module), 1.0E-9);
+        }
+    }
+
+    @Test
+    void linearAccelerationIsClamped() {
+        for (int i = 0; i < SETTLE_LOOPS; i++) {
+            drive(0.0, -1.0 * i, 0.0);
+        }
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(MASS_PER_MODULE * -15.0, estimator.getForceY(module), 1.0E-3);
+        }
+    }
+
+    @Test
+    void rotatingFrameAddsCentripetalAcceleration() {
+        // Driving forward at a constant 2 m/s while turning at 1 rad/s curves the path to the left at 2 m/s^2.
+        for (int i = 0; i < SETTLE_LOOPS; i++) {
+            drive(2.0, 0.0, 1.0);
+        }
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(0.0, estimator.getForceX(module), 1.0E-9);
+            assertEquals(MASS_PER_MODULE * 2.0, estimator.getForceY(module), 1.0E-3);
+        }
+    }
+
+    @Test
+    void angularAccelerationPushesModulesTangentially() {
+        for (int i = 0; i < SETTLE_LOOPS; i++) {
+            drive(0.0, 0.0, 0.1 * i);
+        }
+        SwerveKinematics kinematics = swerve.getSwerveKinematics();
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            int index = module.ordinal();
+            assertEquals(-MASS_PER_MODULE * 5.0 * kinematics.getModuleY(index), estimator.getForceX(module), 1.0E-3);
+            assertEquals(MASS_PER_MODULE * 5.0 * kinematics.getModuleX(index), estimator.getForceY(module), 1.0E-3);
+        }
+    }
+
+    @Test
+    void pauseBetweenCommandsResetsEstimate() {
+        for (int i = 0; i < SETTLE_LOOPS; i++) {
+            drive(0.1 * i, 0.0, 0.0);
+        }
+        SimHooks.stepTiming(0.5);
+        drive(0.0, 0.0, 0.0);
+        for (SwerveModuleIndex module : SwerveModuleIndex.values()) {
+            assertEquals(0.0, estimator.getForceX(module), 0.0);
+            assertEquals(0.0, estimator.getForceY(module), 0.0);
+        }
+    }
+}
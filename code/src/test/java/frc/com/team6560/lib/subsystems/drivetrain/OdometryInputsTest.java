@@ -0,0 +1,105 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.LogTable;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OdometryInputsTest {
+
+    private static final int MODULE_COUNT = 4;
+    private static final int CAPACITY = 8;
+
+    private static OdometrySample[] createSamples(int count) {
+        OdometrySample[] samples = new OdometrySample[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = new OdometrySample(MODULE_COUNT);
+            samples[i].timestampSeconds = 10.0 + 0.004 * i;
+            samples[i].yawRadians = 0.1 * i;
+            for (int j = 0; j < MODULE_COUNT; j++) {
+                samples[i].drivePositionsMeters[j] = i + 0.25 * j;
+                samples[i].steerAnglesRadians[j] = -0.5 * i + j;
+            }
+        }
+        return samples;
+    }
+
+    private static void assertSamplesEqual(OdometrySample[] expected, OdometrySample[] actual, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(expected[i].timestampSeconds, actual[i].timestampSeconds, 0.0);
+            assertEquals(expected[i].yawRadians, actual[i].yawRadians, 0.0);
+            assertArrayEquals(expected[i].drivePositionsMeters, actual[i].drivePositionsMeters, 0.0);
+            assertArrayEquals(expected[i].steerAnglesRadians, actual[i].steerAnglesRadians, 0.0);
+        }
+    }
+
+    @Test
+    void samplesRoundTripThroughInputs() {
+        OdometrySample[] samples = createSamples(3);
+        OdometryInputs inputs = new OdometryInputs(CAPACITY, MODULE_COUNT);
+        inputs.fromSamples(samples, 3);
+
+        OdometrySample[] copies = createSamples(CAPACITY);
+        for (OdometrySample copy : copies) {
+            copy.timestampSeconds = -1.0;
+        }
+        assertEquals(3, inputs.toSamples(copies));
+        assertSamplesEqual(samples, copies, 3);
+        // Samples beyond the count are untouched.
+        assertEquals(-1.0, copies[3].timestampSeconds, 0.0);
+    }
+
+    @Test
+    void loggedArraysHoldOnlyThisLoopsSamples() {
+        OdometryInputs inputs = new OdometryInputs(CAPACITY, MODULE_COUNT);
+        inputs.fromSamples(createSamples(3), 3);
+        LogTable table = new LogTable(0);
+        inputs.toLog(table);
+
+        assertEquals(3, table.get("TimestampsSeconds", new double[0]).length);
+        assertEquals(3, table.get("YawsRadians", new double[0]).length);
+        assertEquals(3 * MODULE_COUNT, table.get("DrivePositionsMeters", new double[0]).length);
+        assertEquals(3 * MODULE_COUNT, table.get("SteerAnglesRadians", new double[0]).length);
+        // Module values are stored sample by sample.
+        assertEquals(2.0 + 0.25 * 3, table.get("DrivePositionsMeters", new double[0])[2 * MODULE_COUNT + 3], 0.0);
+    }
+
+    @Test
+    void replayedInputsMatchLoggedSamples() {
+        OdometrySample[] samples = createSamples(5);
+        OdometryInputs logged = new OdometryInputs(CAPACITY, MODULE_COUNT);
+        logged.fromSamples(samples, 5);
+        LogTable table = new LogTable(0);
+        logged.toLog(table);
+
+        OdometryInputs replayed = new OdometryInputs(CAPACITY, MODULE_COUNT);
+        replayed.fromLog(table);
+        OdometrySample[] replayedSamples = createSamples(CAPACITY);
+        assertEquals(5, replayed.toSamples(replayedSamples));
+        assertSamplesEqual(samples, replayedSamples, 5);
+    }
+
+    @Test
+    void replayIsLimitedToCapacity() {
+        OdometrySample[] samples = createSamples(5);
+        OdometryInputs logged = new OdometryInputs(CAPACITY, MODULE_COUNT);
+        logged.fromSamples(samples, 5);
+        LogTable table = new LogTable(0);
+        logged.toLog(table);
+
+        OdometryInputs replayed = new OdometryInputs(2, MODULE_COUNT);
+        replayed.fromLog(table);
+        OdometrySample[] replayedSamples = createSamples(2);
+        assertEquals(2, replayed.toSamples(replayedSamples));
+        assertSamplesEqual(samples, replayedSamples, 2);
+    }
+
+    @Test
+    void missingLogEntriesReplayAsNoSamples() {
+        OdometryInputs replayed = new OdometryInputs(CAPACITY, MODULE_COUNT);
+        replayed.fromSamples(createSamples(3), 3);
+        replayed.fromLog(new LogTable(0));
+        assertEquals(0, replayed.sampleCount);
+    }
+}
@@ -0,0 +1,160 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.hal.HAL;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.hardware.sensors.GyroIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OdometryThreadTest {
+
+    /**
+     * Gyro whose yaw is set directly by tests.
+     */
+    private static class FakeGyro implements GyroIO {
+        volatile double yawRadians = 0.0;
+
+        @Override
+        public double getYawRadians() {
+            return yawRadians;
+        }
+
+        @Override
+        public void setYaw(double yawRadians) {
+            this.yawRadians = yawRadians;
+        }
+    }
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    private static FakeSwerveModuleIO[] createModules() {
+        return new FakeSwerveModuleIO[] { new FakeSwerveModuleIO(), new FakeSwerveModuleIO() };
+    }
+
+    private static OdometrySample[] createSamples(int count, int moduleCount) {
+        OdometrySample[] samples = new OdometrySample[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = new OdometrySample(moduleCount);
+        }
+        return samples;
+    }
+
+    @Test
+    void sourcesWithoutPhoenixSignalsAreSampledOnAFixedPeriod() {
+        OdometryThread thread = new OdometryThread(createModules(), new FakeGyro(), 250.0);
+        assertFalse(thread.isSynchronized());
+    }
+
+    @Test
+    void drainReturnsSamplesOldestFirst() {
+        FakeSwerveModuleIO[] modules = createModules();
+        FakeGyro gyro = new FakeGyro();
+        OdometryThread thread = new OdometryThread(modules, gyro, 250.0);
+
+        for (int i = 0; i < 5; i++) {
+            gyro.yawRadians = 0.1 * i;
+            modules[0].drivePositionMeters = i;
+            modules[1].drivePositionMeters = -i;
+            modules[1].steerAngle = 0.2 * i;
+            thread.sample();
+        }
+
+        OdometrySample[] samples = createSamples(thread.getCapacity(), modules.length);
+        assertEquals(5, thread.drain(samples));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0.1 * i, samples[i].yawRadians, 0.0);
+            assertEquals(i, samples[i].drivePositionsMeters[0], 0.0);
+            assertEquals(-i, samples[i].drivePositionsMeters[1], 0.0);
+            assertEquals(0.2 * i, samples[i].steerAnglesRadians[1], 0.0);
+            if (i > 0) {
+                assertTrue(samples[i].timestampSeconds >= samples[i - 1].timestampSeconds);
+            }
+        }
+        assertEquals(0, thread.drain(samples));
+    }
+
+    @Test
+    void drainIntoSmallerArrayLeavesRemainingSamplesQueued() {
+        FakeSwerveModuleIO[] modules = createModules();
+        OdometryThread thread = new OdometryThread(modules, new FakeGyro(), 250.0);
+        for (int i = 0; i < 10; i++) {
+            modules[0].drivePositionMeters = i;
+            thread.sample();
+        }
+
+        OdometrySample[] samples = createSamples(4, modules.length);
+        assertEquals(4, thread.drain(samples));
+        assertEquals(3.0, samples[3].drivePositionsMeters[0], 0.0);
+        assertEquals(4, thread.drain(samples));
+        assertEquals(4.0, samples[0].drivePositionsMeters[0], 0.0);
+        assertEquals(2, thread.drain(samples));
+        assertEquals(9.0, samples[1].drivePositionsMeters[0], 0.0);
+    }
+
+    @Test
+    void fullQueueDropsNewSamples() {
+        FakeSwerveModuleIO[] modules = createModules();
+        OdometryThread thread = new OdometryThread(modules, new FakeGyro(), 250.0);
+        int extra = 6;
+        for (int i = 0; i < thread.getCapacity() + extra; i++) {
+            modules[0].drivePositionMeters = i;
+            thread.sample();
+        }
+        assertEquals(extra, thread.getDroppedSamples());
+
+        OdometrySample[] samples = createSamples(thread.getCapacity(), modules.length);
+        assertEquals(thread.getCapacity(), thread.drain(samples));
+        assertEquals(thread.getCapacity() - 1, samples[thread.getCapacity() - 1].drivePositionsMeters[0], 0.0);
+
+        // Draining frees the queue again.
+        thread.sample();
+        assertEquals(1, thread.drain(samples));
+    }
+
+    @Test
+    void backgroundThreadSamplesAtConfiguredRate() throws InterruptedException {
+        FakeSwerveModuleIO[] modules = createModules();
+        FakeGyro gyro = new FakeGyro();
+        OdometryThread thread = new OdometryThread(modules, gyro, 250.0);
+        OdometrySample[] samples = createSamples(thread.getCapacity(), modules.length);
+
+        thread.start();
+        // start() takes the first sample on the calling thread.
+        assertTrue(thread.drain(samples) >= 1);
+
+        // The main loop drains every 20 ms while the sources keep changing.
+        int total = 0;
+        double lastTimestamp = Double.NEGATIVE_INFINITY;
+        double lastPosition = Double.NEGATIVE_INFINITY;
+        long start = System.nanoTime();
+        for (int loop = 0; loop < 25; loop++) {
+            long loopEnd = start + (loop + 1) * 20_000_000L;
+            while (System.nanoTime() < loopEnd) {
+                modules[0].drivePositionMeters = (System.nanoTime() - start) * 1.0E-9;
+                Thread.onSpinWait();
+            }
+            int count = thread.drain(samples);
+            for (int i = 0; i < count; i++) {
+                assertTrue(samples[i].timestampSeconds > lastTimestamp, "Timestamps must increase");
+                assertTrue(samples[i].drivePositionsMeters[0] >= lastPosition, "Samples must be in order");
+                lastTimestamp = samples[i].timestampSeconds;
+                lastPosition = samples[i].drivePositionsMeters[0];
+            }
+            total += count;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) * 1.0E-9;
+
+        // Loose bounds, since test machines do not run the thread at real-time priority.
+        double expected = 250.0 * elapsedSeconds;
+        assertTrue(total > expected * 0.5 && total < expected * 1.5, "Took " + total + " samples in " + elapsedSeconds + " s");
+        assertEquals(0, thread.getDroppedSamples());
+    }
+}
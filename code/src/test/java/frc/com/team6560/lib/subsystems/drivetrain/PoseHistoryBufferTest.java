@@ -0,0 +1,216 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.TestAllocations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoseHistoryBufferTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    @Test
+    void rejectsCapacityThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new PoseHistoryBuffer(1));
+        assertThrows(IllegalArgumentException.class, () -> new PoseHistoryBuffer(12));
+    }
+
+    @Test
+    void emptyBufferReturnsFalseAndLeavesOutputUnchanged() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        double[] out = { 1.0, 2.0, 3.0 };
+        assertFalse(buffer.sample(0.0, out));
+        assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, out);
+    }
+
+    @Test
+    void rejectsSamplesThatAreNotNewer() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        assertTrue(buffer.add(1.0, 0.0, 0.0, 0.0));
+        assertFalse(buffer.add(1.0, 5.0, 5.0, 0.0));
+        assertFalse(buffer.add(0.5, 5.0, 5.0, 0.0));
+        assertEquals(1, buffer.getSize());
+    }
+
+    @Test
+    void exactTimestampReturnsStoredSample() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(i * 0.02, i, -2.0 * i, 0.1 * i);
+        }
+        double[] out = new double[3];
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.sample(i * 0.02, out));
+            assertArrayEquals(new double[] { i, -2.0 * i, 0.1 * i }, out, EPSILON);
+        }
+    }
+
+    @Test
+    void interpolatesBetweenSamples() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+        buffer.add(1.0, 0.0, 0.0, 0.0);
+        buffer.add(2.0, 4.0, -2.0, 1.0);
+        double[] out = new double[3];
+        assertTrue(buffer.sample(1.25, out));
+        assertArrayEquals(new double[] { 1.0, -0.5, 0.25 }, out, EPSILON);
+    }
+
+    @Test
+    void timeAfterNewestReturnsNewest() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+        buffer.add(1.0, 0.0, 0.0, 0.0);
+        buffer.add(2.0, 3.0, 4.0, 0.5);
+        double[] out = new double[3];
+        assertTrue(buffer.sample(100.0, out));
+        assertArrayEquals(new double[] { 3.0, 4.0, 0.5 }, out, EPSILON);
+    }
+
+    @Test
+    void timeBeforeOldestReturnsFalseAndLeavesOutputUnchanged() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+        buffer.add(1.0, 0.0, 0.0, 0.0);
+        buffer.add(2.0, 3.0, 4.0, 0.5);
+        double[] out = { -1.0, -1.0, -1.0 };
+        assertFalse(buffer.sample(0.999, out));
+        assertArrayEquals(new double[] { -1.0, -1.0, -1.0 }, out);
+    }
+
+    @Test
+    void lookupAfterWrapUsesOnlyRetainedSamples() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i, 10.0 * i, 0.0, 0.0);
+        }
+        assertEquals(4, buffer.getSize());
+
+        double[] out = new double[3];
+        // Samples 6 to 9 are retained, so the oldest slot now holds sample 6 rather than sample 0.
+        assertFalse(buffer.sample(5.5, out));
+        assertTrue(buffer.sample(6.0, out));
+        assertEquals(60.0, out[0], EPSILON);
+        assertTrue(buffer.sample(7.5, out));
+        assertEquals(75.0, out[0], EPSILON);
+        assertTrue(buffer.sample(8.75, out));
+        assertEquals(87.5, out[0], EPSILON);
+        assertTrue(buffer.sample(9.0, out));
+        assertEquals(90.0, out[0], EPSILON);
+    }
+
+    @Test
+    void clearRemovesAllSamples() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+        buffer.add(1.0, 1.0, 1.0, 1.0);
+        buffer.clear();
+        assertEquals(0, buffer.getSize());
+        assertFalse(buffer.sample(1.0, new double[3]));
+        assertTrue(buffer.add(0.5, 2.0, 2.0, 2.0));
+    }
+
+    @Test
+    void headingInterpolationTakesShortestPathAcrossPi() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(4);
+        buffer.add(0.0, 0.0, 0.0, Math.PI - 0.1);
+        buffer.add(1.0, 0.0, 0.0, -Math.PI + 0.1);
+        double[] out = new double[3];
+
+        assertTrue(buffer.sample(0.5, out));
+        assertEquals(Math.PI, Math.abs(out[2]), EPSILON);
+
+        assertTrue(buffer.sample(0.25, out));
+        assertEquals(Math.PI - 0.05, out[2], EPSILON);
+
+        assertTrue(buffer.sample(0.75, out));
+        assertEquals(-Math.PI + 0.05, out[2], EPSILON);
+    }
+
+    @Test
+    void concurrentReadersNeverSeeTornSamples() throws InterruptedException {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(16);
+        int writes = 200_000;
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        // Every sample lies on the line x = t, y = 2t, heading = t / 1.0E6, so any pose mixing two writes is detected.
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= writes; i++) {
+                buffer.add(i, i, 2.0 * i, i / 1.0E6);
+            }
+            done.set(true);
+        });
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                double[] out = new double[3];
+                long lookups = 0;
+                while (!done.get() || lookups < 1000) {
+                    double time = 1.0 + ThreadLocalRandom.current().nextDouble() * writes;
+                    if (buffer.sample(time, out)) {
+                        double t = out[0];
+                        if (Math.abs(out[1] - 2.0 * t) > 1.0E-6 || Math.abs(out[2] - t / 1.0E6) > 1.0E-9) {
+                            failure.compareAndSet(null, "Torn sample at " + time + ": " + out[0] + ", " + out[1] + ", " + out[2]);
+                            return;
+                        }
+                    }
+                    lookups++;
+                }
+            });
+        }
+
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(null, failure.get());
+        assertEquals(16, buffer.getSize());
+    }
+
+    /**
+     * Timing harness for sample(), run with the unit tests. The bound is loose so that the test only catches gross
+     * regressions, such as a lookup that allocates or scans the whole buffer, on a loaded CI machine.
+     */
+    @Test
+    void sampleIsFastAndDoesNotAllocate() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(1024);
+        for (int i = 0; i < 2048; i++) {
+            buffer.add(i * 0.004, i, i, Math.sin(i));
+        }
+        double[] out = new double[3];
+        double oldest = 1024 * 0.004;
+        double range = 1023 * 0.004;
+        int iterations = 1_000_000;
+
+        double checksum = 0.0;
+        for (int i = 0; i < iterations; i++) {
+            buffer.sample(oldest + (i % 4093) * range / 4093.0, out);
+            checksum += out[0];
+        }
+
+        long allocatedBefore = TestAllocations.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            buffer.sample(oldest + (i % 4093) * range / 4093.0, out);
+            checksum += out[0];
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = TestAllocations.allocatedBytes() - allocatedBefore;
+
+        double nanosPerSample = (double) elapsed / iterations;
+        System.out.printf("PoseHistoryBuffer.sample: %.1f ns per lookup (checksum %.1f)%n", nanosPerSample, checksum);
+        assertEquals(0, allocated, "Bytes allocated by sample()");
+        assertTrue(nanosPerSample < 2000.0, "sample() took " + nanosPerSample + " ns per lookup");
+    }
+}
@@ -0,0 +1,68 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.MathUtil;
+
+import com.swervedrivespecialties.swervelib.MotorType;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimSwerveModuleIOTest {
+
+    private static final double WHEEL_DIAMETER = 0.1;
+    private static final double DRIVE_REDUCTION = 1.0 / 6.75;
+    private static final double STEER_REDUCTION = 1.0 / 12.8;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    private static SimSwerveModuleIO createModule() {
+        return new SimSwerveModuleIO(1, 2, MotorType.FALCON, MotorType.FALCON, WHEEL_DIAMETER, DRIVE_REDUCTION, STEER_REDUCTION);
+    }
+
+    @Test
+    void steersToTargetAndDrives() {
+        SimSwerveModuleIO module = createModule();
+        for (int i = 0; i < 50; i++) {
+            module.set(4.0, Math.PI / 2.0);
+            module.updateInputs();
+        }
+        assertEquals(0.0, MathUtil.angleModulus(module.getSteerAngle() - Math.PI / 2.0), 0.05);
+        assertTrue(module.getDriveVelocityMetersPerSecond() > 0.5);
+        assertTrue(module.getDrivePositionMeters() > 0.0);
+        assertEquals(module.getDrivePositionMeters(), module.getPosition().distanceMeters, 0.0);
+    }
+
+    @Test
+    void reversesDriveInsteadOfTurningMoreThanQuarterTurn() {
+        SimSwerveModuleIO module = createModule();
+        for (int i = 0; i < 50; i++) {
+            module.set(4.0, 0.0);
+            module.updateInputs();
+        }
+        for (int i = 0; i < 50; i++) {
+            module.set(4.0, Math.PI);
+            module.updateInputs();
+        }
+        assertEquals(0.0, MathUtil.angleModulus(module.getSteerAngle()), 0.05);
+        assertTrue(module.getDriveVelocityMetersPerSecond() < -0.5);
+    }
+
+    @Test
+    void driveVelocityControlReachesTarget() {
+        SimSwerveModuleIO module = createModule();
+        double freeSpeedMetersPerSecond = 6380.0 / 60.0 * DRIVE_REDUCTION * WHEEL_DIAMETER * Math.PI;
+        module.setDriveVelocityPID(2.0, 0.0, 0.0);
+        for (int i = 0; i < 150; i++) {
+            module.setDriveVelocity(2.0, 2.0 / freeSpeedMetersPerSecond * 12.0, 0.0);
+            module.updateInputs();
+        }
+        assertEquals(2.0, module.getDriveVelocityMetersPerSecond(), 0.1);
+    }
+}
@@ -0,0 +1,50 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import com.swervedrivespecialties.swervelib.SdsModuleConfigurations;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SwerveConfigTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    @Test
+    void rejectsNonPositiveWheelAndDriveParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new SwerveConfig.Builder().setWheelDiameter(0.0).build());
+        assertThrows(IllegalArgumentException.class, () -> new SwerveConfig.Builder().setDriveFreeSpeedRPM(-1.0).build());
+        assertThrows(IllegalArgumentException.class, () -> new SwerveConfig.Builder().setDriveCurrentLimit(0.0).build());
+    }
+
+    @Test
+    void rejectsOdometryFrequencyOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SwerveConfig.Builder().setOdometryFrequency(50.0).build());
+        assertThrows(IllegalArgumentException.class, () -> new SwerveConfig.Builder().setOdometryFrequency(500.0).build());
+    }
+
+    @Test
+    void defaultsMatchNominalModule() {
+        SwerveConfig config = new SwerveConfig.Builder().build();
+        assertEquals(SdsModuleConfigurations.MK4I_L2.getWheelDiameter(), config.wheelDiameter, EPSILON);
+        assertEquals(6380.0, config.driveFreeSpeedRPM, EPSILON);
+        assertEquals(80.0, config.driveCurrentLimit, EPSILON);
+    }
+
+    @Test
+    void maximumVelocityFollowsMeasuredWheelDiameter() {
+        SwerveConfig nominal = new SwerveConfig.Builder().build();
+        SwerveConfig worn = new SwerveConfig.Builder().setWheelDiameter(nominal.wheelDiameter * 0.97).build();
+        SwerveConfig slower = new SwerveConfig.Builder().setDriveFreeSpeedRPM(6000.0).build();
+
+        assertEquals(nominal.maxVelocity * 0.97, worn.maxVelocity, EPSILON);
+        assertEquals(nominal.maxVelocity * 6000.0 / 6380.0, slower.maxVelocity, EPSILON);
+        assertEquals(
+            6380.0 / 60.0 * SdsModuleConfigurations.MK4I_L2.getDriveReduction() * nominal.wheelDiameter * Math.PI,
+            nominal.maxVelocity,
+            EPSILON
+        );
+        assertEquals(nominal.maxVelocity / Math.hypot(nominal.trackwidth / 2.0, nominal.wheelbase / 2.0), nominal.maxAngularVelocity, EPSILON);
+    }
+}
@@ -0,0 +1,245 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.TestAllocations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SwerveKinematicsTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    // Front left, front right, back left, back right, as in GenericSwerve.
+    private static final double[] SQUARE_X = { 0.3, 0.3, -0.3, -0.3 };
+    private static final double[] SQUARE_Y = { 0.3, -0.3, 0.3, -0.3 };
+
+    // Modules offset from the center of rotation, with a different wheelbase on each side.
+    private static final double[] IRREGULAR_X = { 0.42, 0.25, -0.31, -0.18 };
+    private static final double[] IRREGULAR_Y = { 0.27, -0.35, 0.22, -0.29 };
+
+    // Three modules, to check that nothing assumes four.
+    private static final double[] TRIANGLE_X = { 0.4, -0.2, -0.2 };
+    private static final double[] TRIANGLE_Y = { 0.0, 0.3, -0.35 };
+
+    private static final double[][] CHASSIS_SPEEDS = {
+        { 1.0, 0.0, 0.0 },
+        { 0.0, -2.0, 0.0 },
+        { 0.0, 0.0, 3.0 },
+        { 2.5, 1.5, -4.0 },
+        { -3.0, 0.5, 6.0 },
+        { 4.0, -4.0, 10.0 }
+    };
+
+    @Test
+    void rejectsInvalidLayouts() {
+        assertThrows(IllegalArgumentException.class, () -> new SwerveKinematics(new double[] { 0.3 }, new double[] { 0.3 }));
+        assertThrows(IllegalArgumentException.class, () -> new SwerveKinematics(SQUARE_X, TRIANGLE_Y));
+        // Two modules at the same point cannot measure rotation.
+        assertThrows(IllegalArgumentException.class, () -> new SwerveKinematics(new double[] { 0.2, 0.2 }, new double[] { 0.1, 0.1 }));
+    }
+
+    @Test
+    void inverseKinematicsMatchesWpilibForSquareLayout() {
+        assertInverseKinematicsMatchesWpilib(SQUARE_X, SQUARE_Y);
+    }
+
+    @Test
+    void inverseKinematicsMatchesWpilibForIrregularLayouts() {
+        assertInverseKinematicsMatchesWpilib(IRREGULAR_X, IRREGULAR_Y);
+        assertInverseKinematicsMatchesWpilib(TRIANGLE_X, TRIANGLE_Y);
+    }
+
+    @Test
+    void desaturationMatchesWpilib() {
+        SwerveKinematics kinematics = new SwerveKinematics(IRREGULAR_X, IRREGULAR_Y);
+        SwerveDriveKinematics wpilib = wpilibKinematics(IRREGULAR_X, IRREGULAR_Y);
+        double[] speeds = new double[IRREGULAR_X.length];
+        double[] angles = new double[IRREGULAR_X.length];
+
+        for (double maxSpeed : new double[] { 0.5, 2.0, 4.5, 100.0 }) {
+            for (double[] chassis : CHASSIS_SPEEDS) {
+                kinematics.toModuleStates(chassis[0], chassis[1], chassis[2], speeds, angles);
+                SwerveKinematics.desaturate(speeds, maxSpeed);
+
+                SwerveModuleState[] expected = wpilib.toSwerveModuleStates(new ChassisSpeeds(chassis[0], chassis[1], chassis[2]));
+                SwerveDriveKinematics.desaturateWheelSpeeds(expected, maxSpeed);
+                for (int i = 0; i < speeds.length; i++) {
+                    assertEquals(expected[i].speedMetersPerSecond, speeds[i], EPSILON);
+                    assertEquals(0.0, angleDifference(expected[i].angle.getRadians(), angles[i]), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    void desaturationHandlesNegativeSpeeds() {
+        double[] speeds = { -6.0, 3.0, 1.5 };
+        SwerveKinematics.desaturate(speeds, 2.0);
+        assertEquals(-2.0, speeds[0], EPSILON);
+        assertEquals(1.0, speeds[1], EPSILON);
+        assertEquals(0.5, speeds[2], EPSILON);
+    }
+
+    @Test
+    void forwardKinematicsMatchesWpilibForSquareLayout() {
+        assertForwardKinematicsMatchesWpilib(SQUARE_X, SQUARE_Y);
+    }
+
+    @Test
+    void forwardKinematicsMatchesWpilibForIrregularLayouts() {
+        assertForwardKinematicsMatchesWpilib(IRREGULAR_X, IRREGULAR_Y);
+        assertForwardKinematicsMatchesWpilib(TRIANGLE_X, TRIANGLE_Y);
+    }
+
+    @Test
+    void stoppedModulesKeepTheirAngle() {
+        SwerveKinematics kinematics = new SwerveKinematics(SQUARE_X, SQUARE_Y);
+        double[] speeds = new double[4];
+        double[] angles = { 0.1, 0.2, 0.3, 0.4 };
+        kinematics.toModuleStates(0.0, 0.0, 0.0, speeds, angles);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0.0, speeds[i], EPSILON);
+            assertEquals(0.1 * (i + 1), angles[i], EPSILON);
+        }
+    }
+
+    /**
+     * Compares allocation and time per loop against the WPILib object path that GenericSwerve used before, which
+     * built a new module state array each loop and converted it with SwerveDriveKinematics.
+     */
+    @Test
+    void primitivePathDoesNotAllocateAndIsTimedAgainstWpilibPath() {
+        SwerveKinematics kinematics = new SwerveKinematics(SQUARE_X, SQUARE_Y);
+        SwerveDriveKinematics wpilib = wpilibKinematics(SQUARE_X, SQUARE_Y);
+        double[] speeds = new double[4];
+        double[] angles = new double[4];
+        double[] chassis = new double[3];
+        int iterations = 200_000;
+
+        double checksum = 0.0;
+        for (int round = 0; round < 2; round++) {
+            checksum += runPrimitivePath(kinematics, speeds, angles, chassis, iterations);
+            checksum += runWpilibPath(wpilib, iterations);
+        }
+
+        long allocatedBefore = TestAllocations.allocatedBytes();
+        long start = System.nanoTime();
+        checksum += runPrimitivePath(kinematics, speeds, angles, chassis, iterations);
+        long primitiveNanos = System.nanoTime() - start;
+        long primitiveBytes = TestAllocations.allocatedBytes() - allocatedBefore;
+
+        allocatedBefore = TestAllocations.allocatedBytes();
+        start = System.nanoTime();
+        checksum += runWpilibPath(wpilib, iterations);
+        long wpilibNanos = System.nanoTime() - start;
+        long wpilibBytes = TestAllocations.allocatedBytes() - allocatedBefore;
+
+        System.out.printf(
+            "SwerveKinematics: %.1f ns and %.1f bytes per loop, SwerveDriveKinematics: %.1f ns and %.1f bytes per loop (checksum %.3f)%n",
+            (double) primitiveNanos / iterations,
+            (double) primitiveBytes / iterations,
+            (double) wpilibNanos / iterations,
+            (double) wpilibBytes / iterations,
+            checksum
+        );
+        assertEquals(0, primitiveBytes, "Bytes allocated by SwerveKinematics");
+    }
+
+    private static double runPrimitivePath(SwerveKinematics kinematics, double[] speeds, double[] angles, double[] chassis, int iterations) {
+        double checksum = 0.0;
+        for (int n = 0; n < iterations; n++) {
+            double[] command = CHASSIS_SPEEDS[n % CHASSIS_SPEEDS.length];
+            kinematics.toModuleStates(command[0], command[1], command[2], speeds, angles);
+            SwerveKinematics.desaturate(speeds, 4.5);
+            kinematics.toChassisSpeeds(speeds, angles, chassis);
+            checksum += chassis[0];
+        }
+        return checksum;
+    }
+
+    private static double runWpilibPath(SwerveDriveKinematics kinematics, int iterations) {
+        double checksum = 0.0;
+        for (int n = 0; n < iterations; n++) {
+            double[] command = CHASSIS_SPEEDS[n % CHASSIS_SPEEDS.length];
+            SwerveModuleState[] states = kinematics.toSwerveModuleStates(new ChassisSpeeds(command[0], command[1], command[2]));
+            SwerveDriveKinematics.desaturateWheelSpeeds(states, 4.5);
+            SwerveModuleState[] measured = new SwerveModuleState[states.length];
+            for (int i = 0; i < states.length; i++) {
+                measured[i] = new SwerveModuleState(states[i].speedMetersPerSecond, new Rotation2d(states[i].angle.getRadians()));
+            }
+            checksum += kinematics.toChassisSpeeds(measured).vxMetersPerSecond;
+        }
+        return checksum;
+    }
+
+    private static void assertInverseKinematicsMatchesWpilib(double[] x, double[] y) {
+        SwerveKinematics kinematics = new SwerveKinematics(x, y);
+        SwerveDriveKinematics wpilib = wpilibKinematics(x, y);
+        double[] speeds = new double[x.length];
+        double[] angles = new double[x.length];
+
+        for (double[] chassis : CHASSIS_SPEEDS) {
+            kinematics.toModuleStates(chassis[0], chassis[1], chassis[2], speeds, angles);
+            SwerveModuleState[] expected = wpilib.toSwerveModuleStates(new ChassisSpeeds(chassis[0], chassis[1], chassis[2]));
+            for (int i = 0; i < x.length; i++) {
+                assertEquals(expected[i].speedMetersPerSecond, speeds[i], EPSILON);
+                assertEquals(0.0, angleDifference(expected[i].angle.getRadians(), angles[i]), EPSILON);
+            }
+        }
+    }
+
+    private static void assertForwardKinematicsMatchesWpilib(double[] x, double[] y) {
+        SwerveKinematics kinematics = new SwerveKinematics(x, y);
+        SwerveDriveKinematics wpilib = wpilibKinematics(x, y);
+        Random random = new Random(6560);
+        double[] speeds = new double[x.length];
+        double[] angles = new double[x.length];
+        double[] chassis = new double[3];
+
+        // Random module states are not consistent with any chassis motion, which exercises the least-squares fit.
+        for (int n = 0; n < 100; n++) {
+            SwerveModuleState[] states = new SwerveModuleState[x.length];
+            for (int i = 0; i < x.length; i++) {
+                speeds[i] = random.nextDouble() * 8.0 - 4.0;
+                angles[i] = random.nextDouble() * 2.0 * Math.PI - Math.PI;
+                states[i] = new SwerveModuleState(speeds[i], new Rotation2d(angles[i]));
+            }
+            kinematics.toChassisSpeeds(speeds, angles, chassis);
+            ChassisSpeeds expected = wpilib.toChassisSpeeds(states);
+            assertEquals(expected.vxMetersPerSecond, chassis[0], EPSILON);
+            assertEquals(expected.vyMetersPerSecond, chassis[1], EPSILON);
+            assertEquals(expected.omegaRadiansPerSecond, chassis[2], EPSILON);
+        }
+
+        // Module states produced by inverse kinematics are fitted exactly.
+        for (double[] command : CHASSIS_SPEEDS) {
+            kinematics.toModuleStates(command[0], command[1], command[2], speeds, angles);
+            kinematics.toChassisSpeeds(speeds, angles, chassis);
+            assertEquals(command[0], chassis[0], EPSILON);
+            assertEquals(command[1], chassis[1], EPSILON);
+            assertEquals(command[2], chassis[2], EPSILON);
+        }
+    }
+
+    private static SwerveDriveKinematics wpilibKinematics(double[] x, double[] y) {
+        Translation2d[] translations = new Translation2d[x.length];
+        for (int i = 0; i < x.length; i++) {
+            translations[i] = new Translation2d(x[i], y[i]);
+        }
+        return new SwerveDriveKinematics(translations);
+    }
+
+    private static double angleDifference(double a, double b) {
+        return Math.IEEEremainder(a - b, 2.0 * Math.PI);
+    }
+}
@@ -0,0 +1,166 @@
+package frc.com.team6560.lib.subsystems.drivetrain;
+
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.TestAllocations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SwerveSetpointGeneratorTest {
+
+    private static final double EPSILON = 1.0E-9;
+    private static final double DT = 0.02;
+    private static final double MAX_SPEED = 4.0;
+
+    private static final SwerveKinematics KINEMATICS = new SwerveKinematics(
+        new double[] { 0.3, 0.3, -0.3, -0.3 },
+        new double[] { 0.3, -0.3, 0.3, -0.3 }
+    );
+
+    private final double[] speeds = new double[4];
+    private final double[] angles = new double[4];
+
+    private static SwerveSetpointGenerator createUnlimited() {
+        return new SwerveSetpointGenerator(KINEMATICS, MAX_SPEED, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, DT);
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new SwerveSetpointGenerator(KINEMATICS, 0.0, 1.0, 1.0, DT));
+        assertThrows(IllegalArgumentException.class, () -> new SwerveSetpointGenerator(KINEMATICS, 1.0, -1.0, 1.0, DT));
+        assertThrows(IllegalArgumentException.class, () -> new SwerveSetpointGenerator(KINEMATICS, 1.0, 1.0, 0.0, DT));
+        assertThrows(IllegalArgumentException.class, () -> new SwerveSetpointGenerator(KINEMATICS, 1.0, 1.0, 1.0, 0.0));
+    }
+
+    @Test
+    void unlimitedGeneratorReachesTargetInOneLoop() {
+        SwerveSetpointGenerator generator = createUnlimited();
+        generator.generate(1.0, 2.0, 0.0, speeds, angles);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Math.hypot(1.0, 2.0), speeds[i], EPSILON);
+            assertEquals(Math.atan2(2.0, 1.0), angles[i], EPSILON);
+        }
+        assertFalse(generator.isAtRest());
+    }
+
+    @Test
+    void desaturationPreservesDirectionOfTravel() {
+        SwerveSetpointGenerator generator = createUnlimited();
+        generator.generate(10.0, 10.0, 0.0, speeds, angles);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(MAX_SPEED, speeds[i], EPSILON);
+            assertEquals(Math.PI / 4.0, angles[i], EPSILON);
+        }
+
+        generator.generate(3.0, 0.0, 20.0, speeds, angles);
+        double fastest = 0.0;
+        for (int i = 0; i < 4; i++) {
+            fastest = Math.max(fastest, Math.abs(speeds[i]));
+        }
+        assertEquals(MAX_SPEED, fastest, 1.0E-6);
+    }
+
+    @Test
+    void rotatingWhileTranslatingIsDiscretized() {
+        SwerveSetpointGenerator generator = createUnlimited();
+        double[] chassis = new double[3];
+        generator.generate(2.0, 0.0, 2.0, speeds, angles);
+        KINEMATICS.toChassisSpeeds(speeds, angles, chassis);
+
+        // Over one loop the robot turns 0.04 rad, so the commanded velocity leads by half of that.
+        assertEquals(2.0, Math.hypot(chassis[0], chassis[1]), 1.0E-3);
+        assertEquals(-0.02, Math.atan2(chassis[1], chassis[0]), 1.0E-4);
+        assertEquals(2.0, chassis[2], 1.0E-6);
+    }
+
+    @Test
+    void moduleAccelerationIsLimited() {
+        double maxAcceleration = 10.0;
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(KINEMATICS, MAX_SPEED, maxAcceleration, Double.POSITIVE_INFINITY, DT);
+        double previous = 0.0;
+        for (int loop = 1; loop <= 10; loop++) {
+            generator.generate(3.0, 0.0, 0.0, speeds, angles);
+            for (int i = 0; i < 4; i++) {
+                assertEquals(maxAcceleration * DT * loop, speeds[i], 1.0E-6);
+            }
+            assertTrue(speeds[0] - previous <= maxAcceleration * DT + 1.0E-6);
+            previous = speeds[0];
+        }
+        for (int loop = 0; loop < 10; loop++) {
+            generator.generate(3.0, 0.0, 0.0, speeds, angles);
+        }
+        assertEquals(3.0, speeds[0], 1.0E-6);
+    }
+
+    @Test
+    void movingModulesTurnNoFasterThanSteeringLimit() {
+        double maxSteerVelocity = 2.0 * Math.PI;
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(KINEMATICS, MAX_SPEED, Double.POSITIVE_INFINITY, maxSteerVelocity, DT);
+        generator.reset(2.0, 0.0, 0.0, new double[4]);
+
+        double previousAngle = 0.0;
+        for (int loop = 0; loop < 50; loop++) {
+            generator.generate(0.0, 2.0, 0.0, speeds, angles);
+            for (int i = 0; i < 4; i++) {
+                assertTrue(Math.abs(Math.IEEEremainder(angles[i] - previousAngle, 2.0 * Math.PI)) <= maxSteerVelocity * DT + 1.0E-6);
+            }
+            previousAngle = angles[0];
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Math.PI / 2.0, angles[i], 1.0E-6);
+            assertEquals(2.0, speeds[i], 1.0E-6);
+        }
+    }
+
+    @Test
+    void reversesDriveInsteadOfTurningAround() {
+        SwerveSetpointGenerator generator = createUnlimited();
+        generator.reset(0.0, 0.0, 0.0, new double[4]);
+        generator.generate(-1.0, 0.0, 0.0, speeds, angles);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0.0, angles[i], EPSILON);
+            assertEquals(-1.0, speeds[i], EPSILON);
+        }
+    }
+
+    @Test
+    void stoppedModulesKeepTheirAngles() {
+        SwerveSetpointGenerator generator = createUnlimited();
+        double[] resetAngles = { 0.1, 0.2, 0.3, 0.4 };
+        generator.reset(0.0, 0.0, 0.0, resetAngles);
+        assertTrue(generator.isAtRest());
+
+        generator.generate(0.0, 0.0, 0.0, speeds, angles);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0.0, speeds[i], EPSILON);
+            assertEquals(resetAngles[i], angles[i], EPSILON);
+        }
+        assertTrue(generator.isAtRest());
+    }
+
+    @Test
+    void generateDoesNotAllocate() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(KINEMATICS, MAX_SPEED, 12.0, 4.0 * Math.PI, DT);
+        int iterations = 100_000;
+        double checksum = 0.0;
+        for (int i = 0; i < iterations; i++) {
+            generator.generate(Math.sin(i * 0.01) * 3.0, Math.cos(i * 0.013) * 3.0, Math.sin(i * 0.007) * 5.0, speeds, angles);
+            checksum += speeds[0];
+        }
+
+        long allocatedBefore = TestAllocations.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            generator.generate(Math.sin(i * 0.01) * 3.0, Math.cos(i * 0.013) * 3.0, Math.sin(i * 0.007) * 5.0, speeds, angles);
+            checksum += speeds[0];
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = TestAllocations.allocatedBytes() - allocatedBefore;
+
+        System.out.printf("SwerveSetpointGenerator: %.1f ns per loop (checksum %.3f)%n", (double) nanos / iterations, checksum);
+        assertEquals(0, bytes, "Bytes allocated by SwerveSetpointGenerator");
+    }
+}
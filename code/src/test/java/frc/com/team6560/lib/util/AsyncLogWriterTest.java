@@ -0,0 +1,255 @@
+package frc.com.team6560.lib.util;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLogWriterTest {
+
+    // Frame prefix, record header and an 8-byte payload.
+    private static final int DOUBLE_FRAME_BYTES = 4 + 17 + 8;
+
+    // Long enough that the writer thread only drains on close(), which makes buffer contents deterministic.
+    private static final double NEVER_FLUSH_SECONDS = 60.0;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void initializeHal() {
+        // Record timestamps come from the FPGA clock, which is simulated.
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        Path path = directory.resolve("invalid.wpilog");
+        assertThrows(IllegalArgumentException.class, () -> new AsyncLogWriter.Builder().setBufferSizeBytes(512).build(path));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncLogWriter.Builder().setLowPriorityHighWater(0.0).build(path));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncLogWriter.Builder().setFlushPeriodSeconds(0.0).build(path));
+    }
+
+    @Test
+    void writesReadableLog() throws IOException {
+        Path path = directory.resolve("values.wpilog");
+        AsyncLogWriter writer = new AsyncLogWriter.Builder()
+            .setExtraHeader("team 6560")
+            .setFlushPeriodSeconds(0.005)
+            .build(path);
+        int yaw = writer.addDoubleEntry("Drivetrain/Yaw", AsyncLogWriter.Priority.HIGH);
+        int enabled = writer.addBooleanEntry("Robot/Enabled", AsyncLogWriter.Priority.HIGH);
+        int count = writer.addIntegerEntry("Intake/Count", AsyncLogWriter.Priority.LOW);
+        int mode = writer.addStringEntry("Robot/Mode", AsyncLogWriter.Priority.LOW);
+
+        assertTrue(writer.appendDouble(yaw, 1.25));
+        assertTrue(writer.appendBoolean(enabled, true));
+        assertTrue(writer.appendInteger(count, -42L));
+        assertTrue(writer.appendString(mode, "Autonomous"));
+        assertTrue(writer.appendDouble(yaw, -3.5));
+        writer.close();
+
+        assertFalse(writer.hasWriteFailed());
+        assertEquals(5, writer.getWrittenRecords());
+        assertEquals(0, writer.getDroppedRecords());
+        assertEquals(0, writer.getBufferedBytes());
+        assertFalse(writer.appendDouble(yaw, 0.0), "Records appended after close are dropped");
+
+        DataLogReader reader = new DataLogReader(path.toString());
+        assertTrue(reader.isValid());
+        assertEquals("team 6560", reader.getExtraHeader());
+
+        Map<Integer, DataLogRecord.StartRecordData> starts = new HashMap<>();
+        List<DataLogRecord> data = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                starts.put(start.entry, start);
+            } else {
+                data.add(record);
+            }
+        }
+
+        assertEquals(4, starts.size());
+        assertEquals("Drivetrain/Yaw", starts.get(yaw).name);
+        assertEquals("double", starts.get(yaw).type);
+        assertEquals("boolean", starts.get(enabled).type);
+        assertEquals("int64", starts.get(count).type);
+        assertEquals("Robot/Mode", starts.get(mode).name);
+        assertEquals("string", starts.get(mode).type);
+
+        assertEquals(5, data.size());
+        assertEquals(yaw, data.get(0).getEntry());
+        assertEquals(1.25, data.get(0).getDouble(), 0.0);
+        assertTrue(data.get(1).getBoolean());
+        assertEquals(-42L, data.get(2).getInteger());
+        assertEquals("Autonomous", data.get(3).getString());
+        assertEquals(-3.5, data.get(4).getDouble(), 0.0);
+        for (int i = 1; i < data.size(); i++) {
+            assertTrue(data.get(i).getTimestamp() >= data.get(i - 1).getTimestamp());
+        }
+    }
+
+    @Test
+    void dropOldestKeepsNewestRecordsAcrossWraparound() throws IOException {
+        Path path = directory.resolve("drop-oldest.wpilog");
+        AsyncLogWriter writer = new AsyncLogWriter.Builder()
+            .setBufferSizeBytes(1024)
+            .setBackPressure(AsyncLogWriter.BackPressure.DROP_OLDEST)
+            .setFlushPeriodSeconds(NEVER_FLUSH_SECONDS)
+            .build(path);
+        int entry = writer.addDoubleEntry("Value", AsyncLogWriter.Priority.HIGH);
+
+        // 1024 is not a multiple of the frame size, so records straddle the end of the ring buffer as it wraps.
+        int appended = 500;
+        int retained = 1024 / DOUBLE_FRAME_BYTES;
+        for (int i = 0; i < appended; i++) {
+            assertTrue(writer.appendDouble(entry, i));
+        }
+        assertEquals(retained * DOUBLE_FRAME_BYTES, writer.getBufferedBytes());
+        writer.close();
+
+        assertEquals(appended - retained, writer.getDroppedOldestRecords());
+        assertEquals(0, writer.getDroppedLowPriorityRecords());
+        assertEquals(0, writer.getDroppedOverflowRecords());
+        assertEquals(retained, writer.getWrittenRecords());
+
+        List<Double> values = readDoubles(path);
+        assertEquals(retained, values.size());
+        for (int i = 0; i < retained; i++) {
+            assertEquals(appended - retained + i, values.get(i), 0.0);
+        }
+    }
+
+    @Test
+    void dropLowPriorityKeepsRoomForHighPriorityRecords() throws IOException {
+        Path path = directory.resolve("drop-low-priority.wpilog");
+        AsyncLogWriter writer = new AsyncLogWriter.Builder()
+            .setBufferSizeBytes(1024)
+            .setBackPressure(AsyncLogWriter.BackPressure.DROP_LOW_PRIORITY)
+            .setLowPriorityHighWater(0.5)
+            .setFlushPeriodSeconds(NEVER_FLUSH_SECONDS)
+            .build(path);
+        int low = writer.addDoubleEntry("Low", AsyncLogWriter.Priority.LOW);
+        int high = writer.addDoubleEntry("High", AsyncLogWriter.Priority.HIGH);
+
+        // Low-priority records are accepted only while the buffer stays at or below the 512-byte high-water mark.
+        int lowAccepted = 512 / DOUBLE_FRAME_BYTES;
+        for (int i = 0; i < lowAccepted; i++) {
+            assertTrue(writer.appendDouble(low, i));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertFalse(writer.appendDouble(low, -1.0));
+        }
+        assertEquals(10, writer.getDroppedLowPriorityRecords());
+
+        // High-priority records fill the rest of the buffer, and are only rejected once it is full.
+        int highAccepted = (1024 - lowAccepted * DOUBLE_FRAME_BYTES) / DOUBLE_FRAME_BYTES;
+        for (int i = 0; i < highAccepted; i++) {
+            assertTrue(writer.appendDouble(high, 1000 + i));
+        }
+        assertFalse(writer.appendDouble(high, -1.0));
+        assertEquals(1, writer.getDroppedOverflowRecords());
+        writer.close();
+
+        assertEquals(0, writer.getDroppedOldestRecords());
+        assertEquals(11, writer.getDroppedRecords());
+        assertEquals(lowAccepted + highAccepted, writer.getWrittenRecords());
+
+        // Buffered records are never discarded, so every accepted value is in the file in order.
+        List<Double> values = readDoubles(path);
+        assertEquals(lowAccepted + highAccepted, values.size());
+        for (int i = 0; i < lowAccepted; i++) {
+            assertEquals(i, values.get(i), 0.0);
+        }
+        for (int i = 0; i < highAccepted; i++) {
+            assertEquals(1000 + i, values.get(lowAccepted + i), 0.0);
+        }
+    }
+
+    @Test
+    void recordTooLargeForBufferIsCountedAsOverflow() throws IOException {
+        AsyncLogWriter writer = new AsyncLogWriter.Builder()
+            .setBufferSizeBytes(1024)
+            .setFlushPeriodSeconds(NEVER_FLUSH_SECONDS)
+            .build(directory.resolve("overflow.wpilog"));
+        int entry = writer.addStringEntry("Text", AsyncLogWriter.Priority.HIGH);
+        assertFalse(writer.appendString(entry, "x".repeat(2000)));
+        assertTrue(writer.appendString(entry, "fits"));
+        writer.close();
+        assertEquals(1, writer.getDroppedOverflowRecords());
+        assertEquals(1, writer.getWrittenRecords());
+    }
+
+    @Test
+    void unknownEntryIsRejected() throws IOException {
+        AsyncLogWriter writer = new AsyncLogWriter.Builder().build(directory.resolve("unknown.wpilog"));
+        assertThrows(IllegalArgumentException.class, () -> writer.appendDouble(1, 0.0));
+        writer.close();
+    }
+
+    @Test
+    void startRecordsPrecedeDataOfTheirEntry() throws IOException, InterruptedException {
+        Path path = directory.resolve("start-order.wpilog");
+        AsyncLogWriter writer = new AsyncLogWriter.Builder()
+            .setBufferSizeBytes(4096)
+            .setFlushPeriodSeconds(0.001)
+            .build(path);
+
+        // Entries are added while the writer thread is draining, including entries added after records of earlier
+        // entries are already buffered.
+        int[] entries = new int[20];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = writer.addDoubleEntry("Entry " + i, AsyncLogWriter.Priority.HIGH);
+            for (int j = 0; j <= i; j++) {
+                writer.appendDouble(entries[j], i);
+            }
+            Thread.sleep(1);
+        }
+        writer.close();
+        assertEquals(0, writer.getDroppedRecords());
+
+        Set<Integer> started = new HashSet<>();
+        int dataRecords = 0;
+        for (DataLogRecord record : new DataLogReader(path.toString())) {
+            if (record.isStart()) {
+                assertTrue(started.add(record.getStartData().entry));
+            } else {
+                assertTrue(started.contains(record.getEntry()), "Data record for entry " + record.getEntry() + " before its start record");
+                dataRecords++;
+            }
+        }
+        assertEquals(entries.length, started.size());
+        assertEquals(entries.length * (entries.length + 1) / 2, dataRecords);
+        assertEquals(dataRecords, writer.getWrittenRecords());
+    }
+
+    private static List<Double> readDoubles(Path path) throws IOException {
+        DataLogReader reader = new DataLogReader(path.toString());
+        assertTrue(reader.isValid());
+        List<Double> values = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (!record.isControl()) {
+                values.add(record.getDouble());
+            }
+        }
+        return values;
+    }
+}
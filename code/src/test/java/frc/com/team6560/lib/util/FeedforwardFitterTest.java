@@ -0,0 +1,111 @@
+package frc.com.team6560.lib.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedforwardFitterTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    private static final double KS = 0.2;
+    private static final double KV = 0.002;
+    private static final double KA = 0.0003;
+    private static final double DT = 0.02;
+
+    /**
+     * Run the four SysId tests on a mechanism that follows the feedforward model exactly, adding noise to the
+     * measured voltage.
+     */
+    private static void addSysIdSamples(FeedforwardFitter fitter, double voltageNoise, Random random) {
+        for (double direction : new double[] { 1.0, -1.0 }) {
+            // Quasistatic: ramp at 1 V/s.
+            runTest(fitter, voltageNoise, random, time -> direction * time);
+            // Dynamic: step to 7 V.
+            runTest(fitter, voltageNoise, random, time -> direction * 7.0);
+        }
+    }
+
+    private interface VoltageProfile {
+        double voltsAt(double timeSeconds);
+    }
+
+    private static void runTest(FeedforwardFitter fitter, double voltageNoise, Random random, VoltageProfile profile) {
+        double velocity = 0.0;
+        for (double time = 0.0; time < 5.0; time += DT) {
+            double volts = profile.voltsAt(time);
+            double friction = (velocity != 0.0) ? KS * Math.signum(velocity) : Math.min(Math.abs(volts), KS) * Math.signum(volts);
+            double acceleration = (volts - friction - KV * velocity) / KA;
+            fitter.addSample(volts + voltageNoise * random.nextGaussian(), velocity, acceleration);
+            velocity += acceleration * DT;
+        }
+    }
+
+    @Test
+    void recoversExactModel() {
+        FeedforwardFitter fitter = new FeedforwardFitter(10.0);
+        addSysIdSamples(fitter, 0.0, new Random(0));
+        fitter.fit();
+
+        assertEquals(KS, fitter.getKS(), 1.0E-6);
+        assertEquals(KV, fitter.getKV(), 1.0E-9);
+        assertEquals(KA, fitter.getKA(), 1.0E-9);
+        assertEquals(1.0, fitter.getRSquared(), 1.0E-6);
+    }
+
+    @Test
+    void fitIsRobustToVoltageNoise() {
+        FeedforwardFitter fitter = new FeedforwardFitter(10.0);
+        addSysIdSamples(fitter, 0.1, new Random(6560));
+        fitter.fit();
+
+        assertEquals(KS, fitter.getKS(), 0.02);
+        assertEquals(KV, fitter.getKV(), KV * 0.02);
+        assertEquals(KA, fitter.getKA(), KA * 0.05);
+        assertTrue(fitter.getRSquared() > 0.99);
+        assertTrue(fitter.getRSquared() < 1.0);
+    }
+
+    @Test
+    void ignoresSlowAndNonFiniteSamples() {
+        FeedforwardFitter fitter = new FeedforwardFitter(10.0);
+        fitter.addSample(1.0, 10.0, 0.0);
+        fitter.addSample(1.0, -5.0, 0.0);
+        fitter.addSample(Double.NaN, 100.0, 0.0);
+        fitter.addSample(1.0, Double.POSITIVE_INFINITY, 0.0);
+        fitter.addSample(1.0, 100.0, Double.NaN);
+        assertEquals(0, fitter.getSampleCount());
+
+        fitter.addSample(1.0, 100.0, 0.0);
+        assertEquals(1, fitter.getSampleCount());
+    }
+
+    @Test
+    void constantVelocitySamplesDoNotDetermineGains() {
+        FeedforwardFitter fitter = new FeedforwardFitter(10.0);
+        for (int i = 0; i < 100; i++) {
+            fitter.addSample(KS + KV * 500.0, 500.0, 0.0);
+        }
+        assertThrows(IllegalStateException.class, fitter::fit);
+    }
+
+    @Test
+    void resetRemovesSamplesAndGains() {
+        FeedforwardFitter fitter = new FeedforwardFitter(10.0);
+        addSysIdSamples(fitter, 0.0, new Random(0));
+        fitter.fit();
+        assertTrue(fitter.getSampleCount() > 0);
+
+        fitter.reset();
+        assertEquals(0, fitter.getSampleCount());
+        assertEquals(0.0, fitter.getKS(), EPSILON);
+        assertEquals(0.0, fitter.getKV(), EPSILON);
+        assertEquals(0.0, fitter.getKA(), EPSILON);
+        assertEquals(0.0, fitter.getRSquared(), EPSILON);
+        assertThrows(IllegalStateException.class, fitter::fit);
+    }
+}
@@ -0,0 +1,213 @@
+package frc.com.team6560.lib.util.NetworkTable;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.BooleanSubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.IntegerSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringSubscriber;
+import edu.wpi.first.networktables.StructArraySubscriber;
+import edu.wpi.first.networktables.StructSubscriber;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static frc.com.team6560.lib.util.NetworkTable.NtValueDisplay.ntDispTab;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TelemetryPublisherTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    private static TelemetryPublisher publisher;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+        publisher = TelemetryPublisher.getInstance();
+    }
+
+    @AfterEach
+    void restoreLevel() {
+        publisher.setLevel(TelemetryLevel.DEBUG);
+        SmartDashboard.updateValues();
+        runLoop();
+    }
+
+    private static NetworkTable table(String name) {
+        return NetworkTableInstance.getDefault().getTable(name);
+    }
+
+    /**
+     * Run one loop. The publisher flushes as a subsystem of the command scheduler.
+     */
+    private static void runLoop() {
+        CommandScheduler.getInstance().run();
+    }
+
+    @Test
+    void publishesTypedValuesEveryLoop() {
+        AtomicInteger counter = new AtomicInteger(1);
+        publisher.addDouble("Typed Test", "Double", () -> counter.get() * 0.5);
+        publisher.addBoolean("Typed Test", "Boolean", () -> counter.get() % 2 == 0);
+        publisher.addInteger("Typed Test", "Integer", () -> counter.get() * 10L);
+        publisher.addString("Typed Test", "String", () -> "Value " + counter.get());
+        publisher.addObject("Typed Test", "Object", () -> (double) counter.get());
+
+        DoubleSubscriber doubleValue = table("Typed Test").getDoubleTopic("Double").subscribe(-1.0);
+        BooleanSubscriber booleanValue = table("Typed Test").getBooleanTopic("Boolean").subscribe(true);
+        IntegerSubscriber integerValue = table("Typed Test").getIntegerTopic("Integer").subscribe(-1);
+        StringSubscriber stringValue = table("Typed Test").getStringTopic("String").subscribe("");
+        DoubleSubscriber objectValue = table("Typed Test").getDoubleTopic("Object").subscribe(-1.0);
+
+        runLoop();
+        assertEquals(0.5, doubleValue.get(), EPSILON);
+        assertFalse(booleanValue.get());
+        assertEquals(10, integerValue.get());
+        assertEquals("Value 1", stringValue.get());
+        assertEquals(1.0, objectValue.get(), EPSILON);
+
+        counter.set(2);
+        runLoop();
+        assertEquals(1.0, doubleValue.get(), EPSILON);
+        assertTrue(booleanValue.get());
+        assertEquals(20, integerValue.get());
+        assertEquals("Value 2", stringValue.get());
+        assertEquals(2.0, objectValue.get(), EPSILON);
+    }
+
+    @Test
+    void suppliersAreReadOnlyWhenFlushed() {
+        AtomicInteger reads = new AtomicInteger();
+        publisher.addDouble("Read Test", "Reads", () -> reads.incrementAndGet());
+        assertEquals(0, reads.get());
+
+        for (int i = 0; i < 5; i++) {
+            runLoop();
+        }
+        assertEquals(5, reads.get());
+    }
+
+    @Test
+    void ntDispTabRegistersWithPublisher() {
+        int count = publisher.getValueCount();
+        ntDispTab("Display Test")
+            .add("Distance", () -> 1.25)
+            .add("Ready", () -> true);
+        assertEquals(count + 2, publisher.getValueCount());
+
+        DoubleSubscriber distance = table("Display Test").getDoubleTopic("Distance").subscribe(0.0);
+        BooleanSubscriber ready = table("Display Test").getBooleanTopic("Ready").subscribe(false);
+        runLoop();
+        assertEquals(1.25, distance.get(), EPSILON);
+        assertTrue(ready.get());
+    }
+
+    @Test
+    void valuesAboveActiveLevelAreNotPublished() {
+        publisher.setLevel(TelemetryLevel.COMPETITION);
+        AtomicInteger debugReads = new AtomicInteger();
+        AtomicInteger verboseReads = new AtomicInteger();
+        publisher.addDouble("Level Test", "Debug", TelemetryLevel.DEBUG, TelemetryPublisher.DEFAULT_RATE_HZ, () -> debugReads.incrementAndGet());
+        publisher.addDouble("Level Test", "Verbose", TelemetryLevel.VERBOSE, TelemetryPublisher.DEFAULT_RATE_HZ, () -> verboseReads.incrementAndGet());
+        assertTrue(publisher.getActiveValueCount() <= publisher.getValueCount() - 2);
+        assertTrue(publisher.isEnabled(TelemetryLevel.COMPETITION));
+        assertFalse(publisher.isEnabled(TelemetryLevel.DEBUG));
+
+        runLoop();
+        assertEquals(0, debugReads.get());
+        assertEquals(0, verboseReads.get());
+
+        publisher.setLevel(TelemetryLevel.DEBUG);
+        runLoop();
+        assertEquals(1, debugReads.get());
+        assertEquals(0, verboseReads.get());
+
+        publisher.setLevel(TelemetryLevel.VERBOSE);
+        assertEquals(publisher.getValueCount(), publisher.getActiveValueCount());
+        runLoop();
+        assertEquals(2, debugReads.get());
+        assertEquals(1, verboseReads.get());
+    }
+
+    @Test
+    void valuesArePublishedAtTheirRate() {
+        AtomicInteger reads = new AtomicInteger();
+        // 10 Hz is every fifth 20 ms loop.
+        publisher.addDouble("Rate Test", "Slow", TelemetryLevel.COMPETITION, 10.0, () -> reads.incrementAndGet());
+        for (int i = 0; i < 20; i++) {
+            runLoop();
+        }
+        assertEquals(4, reads.get());
+    }
+
+    @Test
+    void rejectsInvalidLevelAndRate() {
+        assertThrows(IllegalArgumentException.class, () -> publisher.setLevel(null));
+        assertThrows(IllegalArgumentException.class, () -> publisher.addDouble("Invalid Test", "Zero Rate", TelemetryLevel.DEBUG, 0.0, () -> 0.0));
+        assertThrows(IllegalArgumentException.class, () -> publisher.addDouble("Invalid Test", "NaN Rate", TelemetryLevel.DEBUG, Double.NaN, () -> 0.0));
+    }
+
+    @Test
+    void chooserFollowsLevelSetFromCode() {
+        StringSubscriber selected = table("SmartDashboard").getSubTable("Telemetry Level").getStringTopic("selected").subscribe("");
+        publisher.setLevel(TelemetryLevel.COMPETITION);
+        assertEquals("COMPETITION", selected.get());
+
+        // The chooser's previous selection must not override the level on the next loop.
+        SmartDashboard.updateValues();
+        runLoop();
+        assertEquals(TelemetryLevel.COMPETITION, publisher.getLevel());
+
+        // Selecting a level on the dashboard applies it.
+        table("SmartDashboard").getSubTable("Telemetry Level").getEntry("selected").setString("VERBOSE");
+        SmartDashboard.updateValues();
+        runLoop();
+        assertEquals(TelemetryLevel.VERBOSE, publisher.getLevel());
+    }
+
+    @Test
+    void publishesStructValues() {
+        Pose2d[] pose = { new Pose2d(1.0, 2.0, new Rotation2d(0.5)) };
+        SwerveModuleState[] states = {
+            new SwerveModuleState(1.5, new Rotation2d(0.1)),
+            new SwerveModuleState(-2.0, new Rotation2d(-0.2))
+        };
+        ntDispTab("Struct Test")
+            .addStruct("Pose", Pose2d.struct, () -> pose[0])
+            .addStructArray("States", SwerveModuleState.struct, () -> states);
+
+        StructSubscriber<Pose2d> poseValue = table("Struct Test").getStructTopic("Pose", Pose2d.struct).subscribe(new Pose2d());
+        StructArraySubscriber<SwerveModuleState> statesValue = table("Struct Test")
+            .getStructArrayTopic("States", SwerveModuleState.struct)
+            .subscribe(new SwerveModuleState[0]);
+        // AdvantageScope recognizes struct topics by their type string.
+        assertEquals("struct:Pose2d", table("Struct Test").getTopic("Pose").getTypeString());
+        assertEquals("struct:SwerveModuleState[]", table("Struct Test").getTopic("States").getTypeString());
+
+        runLoop();
+        assertEquals(pose[0], poseValue.get());
+        SwerveModuleState[] received = statesValue.get();
+        assertEquals(2, received.length);
+        assertEquals(states[0], received[0]);
+        assertEquals(states[1], received[1]);
+
+        pose[0] = new Pose2d(3.0, -1.0, new Rotation2d(2.0));
+        states[1].speedMetersPerSecond = 0.5;
+        runLoop();
+        assertEquals(pose[0], poseValue.get());
+        assertEquals(0.5, statesValue.get()[1].speedMetersPerSecond, EPSILON);
+    }
+}
@@ -0,0 +1,218 @@
+package frc.com.team6560.lib.util;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import frc.com.team6560.lib.TestAllocations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShotTableTest {
+
+    private static final double EPSILON = 1.0E-9;
+
+    private static ShotTable stationaryTable(ShotTable.Interpolation interpolation) {
+        return new ShotTable.Builder()
+            .setInterpolation(interpolation)
+            .addShot(4.0, 4400, 0.7, 33)
+            .addShot(1.5, 3000, 0.5, 52)
+            .addShot(2.5, 3600, 0.6, 41)
+            .build();
+    }
+
+    private static double[] lookup(ShotTable table, double distance, double radialVelocity) {
+        double[] out = new double[ShotTable.OUTPUT_COUNT];
+        table.lookup(distance, radialVelocity, out);
+        return out;
+    }
+
+    @Test
+    void rejectsEmptyTableAndDuplicateShots() {
+        assertThrows(IllegalArgumentException.class, () -> new ShotTable.Builder().build());
+        assertThrows(IllegalArgumentException.class, () -> new ShotTable.Builder()
+            .addShot(2.0, 3000, 0.5, 40)
+            .addShot(2.0, 3100, 0.5, 41)
+            .build());
+    }
+
+    @Test
+    void returnsMeasuredShotsExactly() {
+        for (ShotTable.Interpolation interpolation : ShotTable.Interpolation.values()) {
+            ShotTable table = stationaryTable(interpolation);
+            assertArrayEquals(new double[] { 3000, 0.5, 52 }, lookup(table, 1.5, 0.0), EPSILON);
+            assertArrayEquals(new double[] { 3600, 0.6, 41 }, lookup(table, 2.5, 0.0), EPSILON);
+            assertArrayEquals(new double[] { 4400, 0.7, 33 }, lookup(table, 4.0, 0.0), EPSILON);
+        }
+    }
+
+    @Test
+    void interpolatesLinearlyBetweenShots() {
+        ShotTable table = stationaryTable(ShotTable.Interpolation.LINEAR);
+        assertArrayEquals(new double[] { 3300, 0.55, 46.5 }, lookup(table, 2.0, 0.0), EPSILON);
+        assertArrayEquals(new double[] { 4000, 0.65, 37 }, lookup(table, 3.25, 0.0), EPSILON);
+    }
+
+    @Test
+    void clampsOutsideMeasuredDistances() {
+        for (ShotTable.Interpolation interpolation : ShotTable.Interpolation.values()) {
+            ShotTable table = stationaryTable(interpolation);
+            assertArrayEquals(new double[] { 3000, 0.5, 52 }, lookup(table, 0.0, 0.0), EPSILON);
+            assertArrayEquals(new double[] { 3000, 0.5, 52 }, lookup(table, -3.0, 0.0), EPSILON);
+            assertArrayEquals(new double[] { 4400, 0.7, 33 }, lookup(table, 4.01, 0.0), EPSILON);
+            assertArrayEquals(new double[] { 4400, 0.7, 33 }, lookup(table, 100.0, 0.0), EPSILON);
+        }
+    }
+
+    @Test
+    void singleShotTableReturnsThatShotEverywhere() {
+        ShotTable table = new ShotTable.Builder()
+            .setInterpolation(ShotTable.Interpolation.CUBIC)
+            .addShot(3.0, 4000, 0.6, 38)
+            .build();
+        assertEquals(1, table.getShotCount());
+        for (double distance : new double[] { 0.0, 3.0, 10.0 }) {
+            assertArrayEquals(new double[] { 4000, 0.6, 38 }, lookup(table, distance, 0.0), EPSILON);
+            assertArrayEquals(new double[] { 4000, 0.6, 38 }, lookup(table, distance, 2.0), EPSILON);
+        }
+    }
+
+    @Test
+    void singleShotSliceBlendsWithFullSlice() {
+        // The slice at 2 m/s only has one shot, so it contributes the same values at every distance.
+        ShotTable table = new ShotTable.Builder()
+            .addShot(1.0, 0.0, 3000, 0.5, 50)
+            .addShot(3.0, 0.0, 4000, 0.7, 30)
+            .addShot(2.0, 2.0, 5000, 0.9, 20)
+            .build();
+        assertArrayEquals(new double[] { 4000, 0.7, 35 }, lookup(table, 1.0, 1.0), EPSILON);
+        assertArrayEquals(new double[] { 4500, 0.8, 25 }, lookup(table, 3.0, 1.0), EPSILON);
+        assertArrayEquals(new double[] { 5000, 0.9, 20 }, lookup(table, 1.0, 2.0), EPSILON);
+    }
+
+    @Test
+    void blendsRadialVelocitySlices() {
+        ShotTable table = new ShotTable.Builder()
+            .addShot(1.0, -1.0, 2800, 0.5, 55)
+            .addShot(3.0, -1.0, 3800, 0.5, 35)
+            .addShot(1.0, 1.0, 3200, 0.7, 45)
+            .addShot(3.0, 1.0, 4200, 0.7, 25)
+            .build();
+
+        assertArrayEquals(new double[] { 3300, 0.5, 45 }, lookup(table, 2.0, -1.0), EPSILON);
+        assertArrayEquals(new double[] { 3700, 0.7, 35 }, lookup(table, 2.0, 1.0), EPSILON);
+        assertArrayEquals(new double[] { 3500, 0.6, 40 }, lookup(table, 2.0, 0.0), EPSILON);
+        assertArrayEquals(new double[] { 3600, 0.65, 37.5 }, lookup(table, 2.0, 0.5), EPSILON);
+
+        // Radial velocities outside the measured range are clamped to the nearest slice.
+        assertArrayEquals(new double[] { 3300, 0.5, 45 }, lookup(table, 2.0, -5.0), EPSILON);
+        assertArrayEquals(new double[] { 3700, 0.7, 35 }, lookup(table, 2.0, 5.0), EPSILON);
+
+        // The stationary overload looks up a radial velocity of zero.
+        double[] stationary = new double[ShotTable.OUTPUT_COUNT];
+        table.lookup(2.0, stationary);
+        assertArrayEquals(lookup(table, 2.0, 0.0), stationary, EPSILON);
+    }
+
+    @Test
+    void monotoneCubicDoesNotOvershoot() {
+        // A plateau between steep steps makes an ordinary cubic spline overshoot.
+        double[] distances = { 1.0, 1.5, 2.0, 3.0, 3.2, 5.0 };
+        double[] rpms = { 3000, 3000, 3800, 3850, 4600, 4600 };
+        ShotTable.Builder builder = new ShotTable.Builder().setInterpolation(ShotTable.Interpolation.CUBIC);
+        for (int i = 0; i < distances.length; i++) {
+            builder.addShot(distances[i], rpms[i], 0.5, 40 - i);
+        }
+        ShotTable table = builder.build();
+
+        double[] out = new double[ShotTable.OUTPUT_COUNT];
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < distances.length - 1; i++) {
+            double low = Math.min(rpms[i], rpms[i + 1]);
+            double high = Math.max(rpms[i], rpms[i + 1]);
+            for (int step = 0; step <= 100; step++) {
+                double distance = distances[i] + (distances[i + 1] - distances[i]) * step / 100.0;
+                table.lookup(distance, out);
+                double rpm = out[ShotTable.FLYWHEEL_RPM];
+                assertTrue(rpm >= low - EPSILON && rpm <= high + EPSILON, "Overshoot at " + distance + ": " + rpm);
+                assertTrue(rpm >= previous - EPSILON, "Not monotone at " + distance + ": " + rpm);
+                previous = rpm;
+            }
+        }
+    }
+
+    @Test
+    void parsesCsvWithBothColumnLayouts() {
+        String csv = String.join("\n",
+            "distance_m,flywheel_rpm,feeder_speed,angle_deg",
+            "1.5,3000,0.5,52",
+            "",
+            " 2.5 , 3600 , 0.6 , 41 ",
+            "2.0,1.0,3500,0.8,45"
+        );
+        ShotTable table = ShotTable.fromCsv(new StringReader(csv), "shots.csv", ShotTable.Interpolation.LINEAR);
+        assertEquals(3, table.getShotCount());
+        assertArrayEquals(new double[] { 3300, 0.55, 46.5 }, lookup(table, 2.0, 0.0), EPSILON);
+        assertArrayEquals(new double[] { 3500, 0.8, 45 }, lookup(table, 2.0, 1.0), EPSILON);
+    }
+
+    @Test
+    void headerOnlyCsvIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ShotTable.fromCsv(new StringReader("distance_m,flywheel_rpm,feeder_speed,angle_deg\n"), "shots.csv", ShotTable.Interpolation.LINEAR));
+    }
+
+    @Test
+    void malformedCsvReportsSourceAndLine() {
+        String wrongColumnCount = "header\n1.5,3000,0.5,52\n2.5,3600,0.6\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> ShotTable.fromCsv(new StringReader(wrongColumnCount), "shots.csv", ShotTable.Interpolation.LINEAR));
+        assertTrue(e.getMessage().startsWith("shots.csv line 3: "), e.getMessage());
+
+        String notANumber = "header\n\n1.5,3000,fast,52\n";
+        e = assertThrows(IllegalArgumentException.class,
+            () -> ShotTable.fromCsv(new StringReader(notANumber), "shots.csv", ShotTable.Interpolation.LINEAR));
+        assertTrue(e.getMessage().startsWith("shots.csv line 3: "), e.getMessage());
+    }
+
+    /**
+     * Timing harness for lookup(), run with the unit tests. The bound is loose so that the test only catches gross
+     * regressions, such as a lookup that allocates or scans every shot, on a loaded CI machine.
+     */
+    @Test
+    void lookupIsFastAndDoesNotAllocate() {
+        ShotTable.Builder builder = new ShotTable.Builder().setInterpolation(ShotTable.Interpolation.CUBIC);
+        for (int slice = 0; slice < 5; slice++) {
+            for (int i = 0; i < 40; i++) {
+                double distance = 1.0 + i * 0.125;
+                builder.addShot(distance, slice - 2.0, 3000 + 300 * distance + 50 * slice, 0.5, 55 - 5 * distance);
+            }
+        }
+        ShotTable table = builder.build();
+        double[] out = new double[ShotTable.OUTPUT_COUNT];
+        int iterations = 1_000_000;
+
+        double checksum = 0.0;
+        for (int i = 0; i < iterations; i++) {
+            table.lookup(0.5 + (i % 1009) * 0.006, (i % 13) * 0.4 - 2.6, out);
+            checksum += out[ShotTable.FLYWHEEL_RPM];
+        }
+
+        long allocatedBefore = TestAllocations.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            table.lookup(0.5 + (i % 1009) * 0.006, (i % 13) * 0.4 - 2.6, out);
+            checksum += out[ShotTable.FLYWHEEL_RPM];
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = TestAllocations.allocatedBytes() - allocatedBefore;
+
+        double nanosPerLookup = (double) elapsed / iterations;
+        System.out.printf("ShotTable.lookup: %.1f ns per lookup (checksum %.1f)%n", nanosPerLookup, checksum);
+        assertEquals(0, allocated, "Bytes allocated by lookup()");
+        assertTrue(nanosPerLookup < 2000.0, "lookup() took " + nanosPerLookup + " ns per lookup");
+    }
+}